@@ -0,0 +1,126 @@
+package com.library.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.apigateway.client.GrpcFutures;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Last successful answers from the downstream services, served when a service is
+ * unreachable, too slow, or shed by its circuit breaker or bulkhead.
+ * <p>
+ * Unlike {@link SharedEntityCache}, entries are never read while the service is healthy,
+ * so they are kept much longer and are not invalidated by borrow/return; the TTL bounds
+ * how stale a fallback answer may be. Reads are keyed by their normalised gRPC request
+ * message and entities by type and ID. Answers served from here are counted as
+ * {@code gateway.fallback.served}. A disabled cache stores nothing and never falls back.
+ */
+@Slf4j
+public class FallbackCache {
+
+    private static final Set<Status.Code> OUTAGE_CODES = Set.of(
+            Status.Code.UNAVAILABLE, Status.Code.DEADLINE_EXCEEDED, Status.Code.RESOURCE_EXHAUSTED);
+
+    private final Cache<Object, Object> cache;
+    private final Counter served;
+
+    private FallbackCache(Cache<Object, Object> cache, Counter served) {
+        this.cache = cache;
+        this.served = served;
+    }
+
+    public static FallbackCache create(String name, long maximumSize, Duration ttl, MeterRegistry meterRegistry) {
+        Cache<Object, Object> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Counter served = Counter.builder("gateway.fallback.served")
+                .description("Answers served from the fallback cache during a downstream outage")
+                .register(meterRegistry);
+        log.info("Fallback cache '{}' enabled: maximumSize={}, ttl={}", name, maximumSize, ttl);
+        return new FallbackCache(cache, served);
+    }
+
+    public static FallbackCache disabled() {
+        return new FallbackCache(null, null);
+    }
+
+    /**
+     * Runs {@code call} and remembers its result under {@code request} if {@code cacheable}
+     * accepts it. If the call fails because the service is unavailable, the remembered
+     * result is returned instead; otherwise the failure is passed on.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> withFallback(Object request, Supplier<CompletableFuture<T>> call,
+                                                 Predicate<T> cacheable) {
+        if (cache == null) {
+            return call.get();
+        }
+        return call.get().handle((result, throwable) -> {
+            if (throwable == null) {
+                if (cacheable.test(result)) {
+                    cache.put(request, result);
+                }
+                return CompletableFuture.completedFuture(result);
+            }
+            Object fallback = isOutage(throwable) ? cache.getIfPresent(request) : null;
+            if (fallback == null) {
+                return CompletableFuture.<T>failedFuture(throwable);
+            }
+            log.debug("Serving {} from fallback cache: {}", request.getClass().getSimpleName(), throwable.getMessage());
+            served.increment();
+            return CompletableFuture.completedFuture((T) fallback);
+        }).thenCompose(future -> future);
+    }
+
+    /** Remembers entities loaded by a batch call. */
+    public <V> void putEntities(String type, Map<String, V> entities) {
+        if (cache != null) {
+            entities.forEach((id, entity) -> cache.put(entityKey(type, id), entity));
+        }
+    }
+
+    /** The remembered entities among {@code ids}, for answering a failed batch call. */
+    @SuppressWarnings("unchecked")
+    public <V> Map<String, V> getEntities(String type, Collection<String> ids) {
+        if (cache == null) {
+            return Map.of();
+        }
+        Map<String, V> entities = new HashMap<>();
+        for (String id : ids) {
+            Object entity = cache.getIfPresent(entityKey(type, id));
+            if (entity != null) {
+                entities.put(id, (V) entity);
+            }
+        }
+        if (!entities.isEmpty()) {
+            served.increment();
+        }
+        return entities;
+    }
+
+    public static boolean isOutage(Throwable throwable) {
+        return GrpcFutures.unwrap(throwable) instanceof StatusRuntimeException e
+                && OUTAGE_CODES.contains(e.getStatus().getCode());
+    }
+
+    private static String entityKey(String type, String id) {
+        return type + ':' + id;
+    }
+}
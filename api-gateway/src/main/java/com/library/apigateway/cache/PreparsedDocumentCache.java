@@ -0,0 +1,108 @@
+package com.library.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.language.Document;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Caches parsed and validated GraphQL documents keyed by the SHA-256 of the query text.
+ * <p>
+ * The same key doubles as the Apollo automatic persisted query (APQ) id: a client may
+ * send only {@code extensions.persistedQuery.sha256Hash}, and if the document is not
+ * cached yet it receives {@code PersistedQueryNotFound} and retries with the full text,
+ * which registers the hash. Hit and miss counters are published as {@code cache.*}
+ * meters tagged with the cache name.
+ */
+@Slf4j
+public class PreparsedDocumentCache implements PreparsedDocumentProvider {
+
+    public static final String PERSISTED_QUERY_EXTENSION = "persistedQuery";
+    public static final String PERSISTED_QUERY_HASH = "sha256Hash";
+
+    private static final String NOT_FOUND = "PersistedQueryNotFound";
+    private static final String ID_INVALID = "PersistedQueryIdInvalid";
+
+    private final Cache<String, PreparsedDocumentEntry> documents;
+
+    public PreparsedDocumentCache(String name, long maximumSize, MeterRegistry meterRegistry) {
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, documents, name);
+        log.info("Preparsed document cache '{}' enabled: maximumSize={}", name, maximumSize);
+    }
+
+    @Override
+    public PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+                                              Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        String query = executionInput.getQuery();
+        String persistedHash = persistedQueryHash(executionInput.getExtensions());
+
+        if (query == null || query.isBlank() || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+            if (persistedHash == null) {
+                return parseAndValidateFunction.apply(executionInput);
+            }
+            PreparsedDocumentEntry entry = documents.getIfPresent(persistedHash);
+            return entry != null ? entry : persistedQueryError(NOT_FOUND, "PERSISTED_QUERY_NOT_FOUND", persistedHash);
+        }
+
+        String hash = sha256(query);
+        if (persistedHash != null && !persistedHash.equalsIgnoreCase(hash)) {
+            return persistedQueryError(ID_INVALID, "PERSISTED_QUERY_ID_INVALID", persistedHash);
+        }
+        return documents.get(hash, key -> parseAndValidateFunction.apply(executionInput));
+    }
+
+    /** The cached document registered under an APQ hash, or {@code null}. */
+    public Document getIfPresent(String persistedHash) {
+        PreparsedDocumentEntry entry = documents.getIfPresent(persistedHash);
+        return entry != null && !entry.hasErrors() ? entry.getDocument() : null;
+    }
+
+    public void invalidateAll() {
+        documents.invalidateAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static String persistedQueryHash(Map<String, Object> extensions) {
+        if (extensions == null || !(extensions.get(PERSISTED_QUERY_EXTENSION) instanceof Map<?, ?> persistedQuery)) {
+            return null;
+        }
+        Object hash = ((Map<String, Object>) persistedQuery).get(PERSISTED_QUERY_HASH);
+        return hash instanceof String value && !value.isBlank() ? value.toLowerCase() : null;
+    }
+
+    public static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static PreparsedDocumentEntry persistedQueryError(String message, String code, String hash) {
+        return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                .errorType(ErrorType.ValidationError)
+                .message(message)
+                .extensions(Map.of("code", code, "persistedQueryId", hash))
+                .build());
+    }
+}
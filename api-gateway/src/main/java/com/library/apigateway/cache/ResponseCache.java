@@ -0,0 +1,185 @@
+package com.library.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Whole-result cache for read-only GraphQL operations.
+ * <p>
+ * Entries expire after the TTL of their root fields and are indexed by tags such as
+ * {@code Book:42}, so a mutation can drop every cached result that contains an entity
+ * it changed. Results computed while an invalidation ran are not stored, because they
+ * may already be stale. Hit and miss counters are published as {@code cache.*} meters
+ * tagged with the cache name. A disabled cache keeps the same API but never stores anything.
+ */
+@Slf4j
+public class ResponseCache {
+
+    private final Cache<String, Entry> entries;
+    private final Map<String, Duration> ttlByRootField;
+    private final Map<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private ResponseCache(long maximumSize, Map<String, Duration> ttlByRootField) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new EntryExpiry())
+                .evictionListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (key != null && entry != null) {
+                        unindex(key, entry.tags());
+                    }
+                })
+                .recordStats()
+                .build();
+        this.ttlByRootField = Map.copyOf(ttlByRootField);
+    }
+
+    private ResponseCache() {
+        this.entries = null;
+        this.ttlByRootField = Map.of();
+    }
+
+    public static ResponseCache create(String name, long maximumSize, Map<String, Duration> ttlByRootField,
+                                       MeterRegistry meterRegistry) {
+        ResponseCache responseCache = new ResponseCache(maximumSize, ttlByRootField);
+        CaffeineCacheMetrics.monitor(meterRegistry, responseCache.entries, name);
+        log.info("Response cache '{}' enabled: maximumSize={}, ttl={}", name, maximumSize, ttlByRootField);
+        return responseCache;
+    }
+
+    public static ResponseCache disabled() {
+        return new ResponseCache();
+    }
+
+    public static String bookTag(String bookId) {
+        return "Book:" + bookId;
+    }
+
+    public static String userTag(String userId) {
+        return "User:" + userId;
+    }
+
+    public static String rootFieldTag(String fieldName) {
+        return "Query." + fieldName;
+    }
+
+    public boolean isEnabled() {
+        return entries != null;
+    }
+
+    /**
+     * The shortest TTL among the given root fields, or {@code null} if any of them is
+     * not configured as cacheable.
+     */
+    public Duration ttlFor(Collection<String> rootFields) {
+        if (entries == null || rootFields.isEmpty()) {
+            return null;
+        }
+        Duration ttl = null;
+        for (String rootField : rootFields) {
+            Duration fieldTtl = ttlByRootField.get(rootField);
+            if (fieldTtl == null) {
+                return null;
+            }
+            ttl = ttl == null || fieldTtl.compareTo(ttl) < 0 ? fieldTtl : ttl;
+        }
+        return ttl;
+    }
+
+    /** Snapshot to pass back to {@link #put} once the result has been computed. */
+    public long generation() {
+        return generation.get();
+    }
+
+    public Map<String, Object> get(String key) {
+        if (entries == null) {
+            return null;
+        }
+        Entry entry = entries.getIfPresent(key);
+        return entry != null ? entry.data() : null;
+    }
+
+    public void put(String key, Map<String, Object> data, Duration ttl, Set<String> tags, long startedAt) {
+        if (entries == null) {
+            return;
+        }
+        Set<String> entryTags = Set.copyOf(tags);
+        entryTags.forEach(tag -> keysByTag.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(key));
+        if (generation.get() != startedAt) {
+            // An invalidation overlapped this execution, so the result may predate it
+            unindex(key, entryTags);
+            return;
+        }
+        entries.put(key, new Entry(data, ttl, entryTags));
+        if (generation.get() != startedAt && entries.asMap().remove(key) != null) {
+            unindex(key, entryTags);
+        }
+    }
+
+    public void invalidateTags(String... tags) {
+        if (entries == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        for (String tag : tags) {
+            Set<String> keys = keysByTag.remove(tag);
+            if (keys != null) {
+                keys.forEach(key -> {
+                    Entry entry = entries.asMap().remove(key);
+                    if (entry != null) {
+                        unindex(key, entry.tags());
+                    }
+                });
+            }
+        }
+        log.debug("Invalidated cached responses tagged {}", (Object) tags);
+    }
+
+    public void invalidateAll() {
+        if (entries != null) {
+            generation.incrementAndGet();
+            entries.invalidateAll();
+            keysByTag.clear();
+        }
+    }
+
+    private void unindex(String key, Set<String> tags) {
+        tags.forEach(tag -> keysByTag.computeIfPresent(tag, (t, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        }));
+    }
+
+    private record Entry(Map<String, Object> data, Duration ttl, Set<String> tags) {
+    }
+
+    private static final class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
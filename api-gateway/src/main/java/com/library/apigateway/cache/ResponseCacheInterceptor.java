@@ -0,0 +1,164 @@
+package com.library.apigateway.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.apigateway.incremental.IncrementalPublisher;
+import graphql.ExecutionResultImpl;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.language.AstPrinter;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.parser.Parser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves cacheable queries from {@link ResponseCache} without executing them.
+ * <p>
+ * An operation is cacheable when it is a query and every root field has a TTL. The key
+ * is the normalised document, the operation name and the variables, so formatting and
+ * variable order do not matter. Only results without errors and without a
+ * {@code success: false} payload are stored.
+ */
+@Slf4j
+public class ResponseCacheInterceptor implements WebGraphQlInterceptor {
+
+    private static final String SUCCESS_FIELD = "success";
+
+    private final ResponseCache responseCache;
+    private final ObjectProvider<PreparsedDocumentCache> preparsedDocumentCache;
+    private final ObjectWriter variablesWriter;
+    private final Cache<String, Optional<CacheableOperation>> operations;
+
+    public ResponseCacheInterceptor(ResponseCache responseCache,
+                                    ObjectProvider<PreparsedDocumentCache> preparsedDocumentCache,
+                                    ObjectMapper objectMapper,
+                                    long maximumOperations) {
+        this.responseCache = responseCache;
+        this.preparsedDocumentCache = preparsedDocumentCache;
+        this.variablesWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.operations = Caffeine.newBuilder().maximumSize(maximumOperations).build();
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        if (!responseCache.isEnabled() || request.getAttributes().containsKey(IncrementalPublisher.CONTEXT_KEY)) {
+            // Incremental responses arrive in parts that the initial result alone does not represent
+            return chain.next(request);
+        }
+        CacheableOperation operation = cacheableOperation(request);
+        Duration ttl = operation != null ? responseCache.ttlFor(operation.rootFields()) : null;
+        if (ttl == null) {
+            return chain.next(request);
+        }
+
+        String key;
+        try {
+            key = PreparsedDocumentCache.sha256(operation.normalisedDocument() + '\n'
+                    + request.getOperationName() + '\n'
+                    + variablesWriter.writeValueAsString(request.getVariables()));
+        } catch (JsonProcessingException e) {
+            log.debug("Variables not serialisable, bypassing response cache: {}", e.getMessage());
+            return chain.next(request);
+        }
+
+        Map<String, Object> cached = responseCache.get(key);
+        if (cached != null) {
+            log.debug("Response cache hit for {}", operation.rootFields());
+            return Mono.just(new WebGraphQlResponse(new DefaultExecutionGraphQlResponse(
+                    request.toExecutionInput(), ExecutionResultImpl.newExecutionResult().data(cached).build())));
+        }
+
+        long generation = responseCache.generation();
+        Set<String> tags = ConcurrentHashMap.newKeySet();
+        operation.rootFields().forEach(rootField -> tags.add(ResponseCache.rootFieldTag(rootField)));
+        request.configureExecutionInput((executionInput, builder) -> builder
+                .graphQLContext(context -> context.put(ResponseCacheTagInstrumentation.TAGS_CONTEXT_KEY, tags))
+                .build());
+
+        return chain.next(request).doOnNext(response -> {
+            if (response.isValid() && response.getErrors().isEmpty()
+                    && response.getData() instanceof Map<?, ?> data && isSuccessful(data)) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> result = (Map<String, Object>) data;
+                responseCache.put(key, result, ttl, tags, generation);
+            }
+        });
+    }
+
+    private CacheableOperation cacheableOperation(WebGraphQlRequest request) {
+        String query = request.getDocument();
+        String memoKey = query + '\n' + request.getOperationName();
+
+        if (PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+            String hash = PreparsedDocumentCache.persistedQueryHash(request.getExtensions());
+            PreparsedDocumentCache documents = preparsedDocumentCache.getIfAvailable();
+            Document document = hash != null && documents != null ? documents.getIfPresent(hash) : null;
+            if (document == null) {
+                // Not registered yet; execution answers PersistedQueryNotFound
+                return null;
+            }
+            return operations.get("apq:" + hash + '\n' + request.getOperationName(),
+                    k -> describe(document, request.getOperationName())).orElse(null);
+        }
+
+        return operations.get(memoKey, k -> {
+            try {
+                return describe(Parser.parse(query), request.getOperationName());
+            } catch (RuntimeException e) {
+                // Let execution report the syntax error
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    private static Optional<CacheableOperation> describe(Document document, String operationName) {
+        List<OperationDefinition> definitions = document.getDefinitionsOfType(OperationDefinition.class);
+        OperationDefinition operation = definitions.stream()
+                .filter(definition -> operationName == null
+                        ? definitions.size() == 1
+                        : operationName.equals(definition.getName()))
+                .findFirst()
+                .orElse(null);
+        if (operation == null || operation.getOperation() != OperationDefinition.Operation.QUERY) {
+            return Optional.empty();
+        }
+
+        List<String> rootFields = new ArrayList<>();
+        for (Selection<?> selection : operation.getSelectionSet().getSelections()) {
+            if (!(selection instanceof Field field)) {
+                // Fragments at the root are rare enough to simply bypass the cache
+                return Optional.empty();
+            }
+            rootFields.add(field.getName());
+        }
+        return Optional.of(new CacheableOperation(AstPrinter.printAstCompact(document), List.copyOf(rootFields)));
+    }
+
+    private static boolean isSuccessful(Map<?, ?> data) {
+        return data.values().stream().noneMatch(value ->
+                value instanceof Map<?, ?> payload && Boolean.FALSE.equals(payload.get(SUCCESS_FIELD)));
+    }
+
+    private record CacheableOperation(String normalisedDocument, List<String> rootFields) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.library.apigateway.cache;
+
+import com.library.apigateway.dto.Book;
+import com.library.apigateway.dto.User;
+import graphql.ExecutionResult;
+import graphql.execution.FetchedValue;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldCompleteParameters;
+
+import java.util.Set;
+
+/**
+ * Records which books and users a cacheable operation returned, so that
+ * {@link ResponseCache} can invalidate the result when one of them changes. Only active
+ * for executions that {@link ResponseCacheInterceptor} has given a tag set.
+ */
+public class ResponseCacheTagInstrumentation extends SimplePerformantInstrumentation {
+
+    static final String TAGS_CONTEXT_KEY = ResponseCacheTagInstrumentation.class.getName() + ".tags";
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginFieldComplete(InstrumentationFieldCompleteParameters parameters,
+                                                                      InstrumentationState state) {
+        collect(parameters);
+        return super.beginFieldComplete(parameters, state);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginFieldListComplete(InstrumentationFieldCompleteParameters parameters,
+                                                                          InstrumentationState state) {
+        collect(parameters);
+        return super.beginFieldListComplete(parameters, state);
+    }
+
+    private static void collect(InstrumentationFieldCompleteParameters parameters) {
+        Set<String> tags = parameters.getExecutionContext().getGraphQLContext().get(TAGS_CONTEXT_KEY);
+        if (tags == null) {
+            return;
+        }
+        Object value = parameters.getFetchedValue();
+        if (value instanceof FetchedValue fetchedValue) {
+            value = fetchedValue.getFetchedValue();
+        }
+        if (value instanceof Iterable<?> values) {
+            values.forEach(item -> tag(tags, item));
+        } else {
+            tag(tags, value);
+        }
+    }
+
+    private static void tag(Set<String> tags, Object value) {
+        if (value instanceof Book book && book.getId() != null) {
+            tags.add(ResponseCache.bookTag(book.getId()));
+        } else if (value instanceof User user && user.getId() != null) {
+            tags.add(ResponseCache.userTag(user.getId()));
+        }
+    }
+}
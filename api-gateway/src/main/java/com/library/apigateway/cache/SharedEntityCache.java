@@ -0,0 +1,192 @@
+package com.library.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.dataloader.MappedBatchLoader;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Second-level entity cache shared by the per-request DataLoaders.
+ * <p>
+ * Bounded by size and TTL with Caffeine's W-TinyLFU eviction. Hit, miss and
+ * eviction counters are published as {@code cache.*} meters tagged with the
+ * cache name. A disabled cache keeps the same API but never stores anything.
+ * <p>
+ * Each entry is versioned with the time its load started. Invalidating a key records
+ * when, so a load that was already in flight cannot store the value it read before the
+ * change. While a change stream is watched for this cache (see
+ * {@link com.library.apigateway.client.EntityChangeFeed}) entries are kept for the longer
+ * watched TTL, as every change invalidates them within milliseconds; otherwise, and as
+ * soon as the stream drops, only the plain TTL bounds how stale they get.
+ */
+@Slf4j
+public class SharedEntityCache<V> {
+
+    private final String name;
+    private final Cache<String, Entry<V>> cache;
+    private final Cache<String, Long> invalidations;
+    private final long maxLoadNanos;
+
+    private volatile long invalidatedAllAt = System.nanoTime();
+    private volatile boolean watched;
+
+    private SharedEntityCache(String name, Cache<String, Entry<V>> cache, Duration ttl) {
+        this.name = name;
+        this.cache = cache;
+        // Invalidations are remembered for as long as a load may take to be stored
+        this.invalidations = cache != null ? Caffeine.newBuilder().expireAfterWrite(ttl).build() : null;
+        this.maxLoadNanos = ttl.toNanos();
+    }
+
+    public static <V> SharedEntityCache<V> create(String name, long maximumSize, Duration ttl,
+                                                  MeterRegistry meterRegistry) {
+        return create(name, maximumSize, ttl, ttl, meterRegistry);
+    }
+
+    public static <V> SharedEntityCache<V> create(String name, long maximumSize, Duration ttl, Duration watchedTtl,
+                                                  MeterRegistry meterRegistry) {
+        Cache<String, Entry<V>> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new EntryExpiry<V>(ttl.toNanos(), watchedTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        log.info("Shared entity cache '{}' enabled: maximumSize={}, ttl={}, watchedTtl={}",
+                name, maximumSize, ttl, watchedTtl);
+        return new SharedEntityCache<>(name, cache, ttl);
+    }
+
+    public static <V> SharedEntityCache<V> disabled(String name) {
+        return new SharedEntityCache<>(name, null, Duration.ZERO);
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isWatched() {
+        return watched;
+    }
+
+    public Map<String, V> getAllPresent(Collection<String> keys) {
+        if (cache == null) {
+            return Map.of();
+        }
+        Map<String, V> values = new HashMap<>();
+        cache.getAllPresent(keys).forEach((key, entry) -> values.put(key, entry.value()));
+        return values;
+    }
+
+    public void putAll(Map<String, V> entries) {
+        store(entries, System.nanoTime());
+    }
+
+    public void invalidate(String key) {
+        if (cache != null && key != null) {
+            invalidations.put(key, System.nanoTime());
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            invalidatedAllAt = System.nanoTime();
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * A change stream now reports every change to these entities. Anything cached before
+     * may have missed a change while no stream was open, so it is dropped.
+     */
+    public void watchStarted() {
+        invalidateAll();
+        watched = true;
+    }
+
+    /**
+     * The change stream dropped. Entries kept for the watched TTL could now miss changes,
+     * so they are dropped and new ones get the plain TTL until the stream is back.
+     */
+    public void watchStopped() {
+        watched = false;
+        invalidateAll();
+    }
+
+    /**
+     * Wraps a batch loader so that keys already cached are answered locally and
+     * only the misses are sent downstream. Loaded values are stored for later requests.
+     */
+    public MappedBatchLoader<String, V> readThrough(MappedBatchLoader<String, V> delegate) {
+        if (cache == null) {
+            return delegate;
+        }
+        return keys -> {
+            Map<String, V> hits = getAllPresent(keys);
+            if (hits.size() == keys.size()) {
+                return CompletableFuture.completedFuture(hits);
+            }
+
+            Set<String> misses = new HashSet<>(keys);
+            misses.removeAll(hits.keySet());
+
+            long loadStartedAt = System.nanoTime();
+            return delegate.load(misses).thenApply(loaded -> {
+                store(loaded, loadStartedAt);
+                Map<String, V> result = new HashMap<>(hits);
+                result.putAll(loaded);
+                return result;
+            });
+        };
+    }
+
+    /** Stores the values read by a load started at {@code version}, except any invalidated since. */
+    private void store(Map<String, V> values, long version) {
+        if (cache == null || version - invalidatedAllAt <= 0 || System.nanoTime() - version > maxLoadNanos) {
+            return;
+        }
+        boolean watchedEntry = watched;
+        values.forEach((key, value) -> {
+            Long invalidatedAt = invalidations.getIfPresent(key);
+            if (invalidatedAt == null || version - invalidatedAt > 0) {
+                cache.put(key, new Entry<>(value, version, watchedEntry));
+            }
+        });
+    }
+
+    private record Entry<V>(V value, long version, boolean watched) {
+    }
+
+    private record EntryExpiry<V>(long ttlNanos, long watchedTtlNanos) implements Expiry<String, Entry<V>> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry<V> entry, long currentTime) {
+            return entry.watched() ? watchedTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry<V> entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry<V> entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.library.apigateway.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit for GraphQL requests, adapted to downstream gRPC latency.
+ * <p>
+ * Follows the gradient approach: a short-term and a long-term average of unary gRPC call
+ * latency are kept, and while the short-term one stays within {@code tolerance} of the
+ * long-term baseline the limit grows by about its square root; as latency rises above
+ * that the limit shrinks in proportion. Calls that end in {@code DEADLINE_EXCEEDED},
+ * {@code UNAVAILABLE} or {@code RESOURCE_EXHAUSTED} cut it multiplicatively. The limit
+ * does not grow while less than half of it is in use, so an idle gateway does not drift
+ * to the maximum.
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Set<Status.Code> OVERLOAD_CODES = Set.of(
+            Status.Code.DEADLINE_EXCEEDED, Status.Code.UNAVAILABLE, Status.Code.RESOURCE_EXHAUSTED);
+
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(@Value("${gateway.concurrency-limit.enabled:true}") boolean enabled,
+                                      @Value("${gateway.concurrency-limit.initial-limit:50}") int initialLimit,
+                                      @Value("${gateway.concurrency-limit.min-limit:10}") int minLimit,
+                                      @Value("${gateway.concurrency-limit.max-limit:500}") int maxLimit,
+                                      @Value("${gateway.concurrency-limit.tolerance:1.5}") double tolerance,
+                                      MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        Gauge.builder("gateway.concurrency.limit", this, limiter -> limiter.limit)
+                .description("Current adaptive limit on concurrent GraphQL requests")
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in-flight", inFlight, AtomicInteger::get)
+                .description("GraphQL requests currently executing")
+                .register(meterRegistry);
+        log.info("Adaptive concurrency limit {}: initial {}, between {} and {}",
+                enabled ? "enabled" : "disabled", (int) limit, minLimit, maxLimit);
+    }
+
+    /** Admits a request if below the limit; an admitted request must be {@link #release() released}. */
+    public boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        if (enabled) {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    /** Feeds the latency and outcome of every unary call on a channel into the limit. */
+    public ClientInterceptor latencySampler() {
+        return new ClientInterceptor() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                       CallOptions callOptions, Channel next) {
+                ClientCall<ReqT, RespT> call = next.newCall(method, callOptions);
+                if (!enabled || method.getType() != MethodDescriptor.MethodType.UNARY) {
+                    return call;
+                }
+                return new ForwardingClientCall.SimpleForwardingClientCall<>(call) {
+                    @Override
+                    public void start(Listener<RespT> responseListener, Metadata headers) {
+                        long started = System.nanoTime();
+                        super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                            @Override
+                            public void onClose(Status status, Metadata trailers) {
+                                onSample(System.nanoTime() - started, OVERLOAD_CODES.contains(status.getCode()));
+                                super.onClose(status, trailers);
+                            }
+                        }, headers);
+                    }
+                };
+            }
+        };
+    }
+
+    synchronized void onSample(long rttNanos, boolean overloaded) {
+        double current = limit;
+        if (overloaded) {
+            limit = Math.max(minLimit, current * BACKOFF_RATIO);
+            return;
+        }
+
+        shortRttNanos = average(shortRttNanos, rttNanos, SHORT_WINDOW);
+        longRttNanos = average(longRttNanos, rttNanos, LONG_WINDOW);
+        // A sustained drop in latency would otherwise keep the baseline high for a long time
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        // The square-root headroom outweighs a mild gradient, so check growth, not the gradient
+        if (target > current && inFlight.get() < current / 2) {
+            return;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    private static double average(double average, long sample, double window) {
+        return average == 0 ? sample : average + (sample - average) / window;
+    }
+}
@@ -0,0 +1,47 @@
+package com.library.apigateway.client;
+
+import com.library.bookservice.grpc.AvailabilityChange;
+import com.library.bookservice.grpc.WatchAvailabilityRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * One {@code WatchAvailability} stream to book-service shared by every subscriber.
+ * <p>
+ * The upstream call is opened when the first subscriber arrives and cancelled when the
+ * last one leaves. While anyone is subscribed, a failed or completed upstream is reopened
+ * with backoff. Subscribers filter the shared stream by book ID locally, and a slow one
+ * loses its oldest buffered changes rather than holding back the others.
+ */
+@Component
+@Slf4j
+public class AvailabilityFeed {
+
+    private static final int SUBSCRIBER_BUFFER = 256;
+
+    private final Flux<AvailabilityChange> changes;
+
+    public AvailabilityFeed(BookServiceClient bookServiceClient) {
+        this.changes = Flux.defer(() -> bookServiceClient.watchAvailability(WatchAvailabilityRequest.getDefaultInstance()))
+                .doOnSubscribe(subscription -> log.info("Opening shared availability stream"))
+                .doOnError(e -> log.warn("Availability stream failed: {}", e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .repeatWhen(completions -> completions.delayElements(Duration.ofSeconds(1)))
+                .doOnCancel(() -> log.info("Closing shared availability stream, no subscribers left"))
+                .publish()
+                .refCount();
+    }
+
+    /** Changes to the given books, or to every book when {@code bookIds} is empty. */
+    public Flux<AvailabilityChange> changes(Set<String> bookIds) {
+        return changes
+                .filter(change -> bookIds.isEmpty() || bookIds.contains(change.getBookId()))
+                .onBackpressureBuffer(SUBSCRIBER_BUFFER, dropped -> { }, BufferOverflowStrategy.DROP_OLDEST);
+    }
+}
@@ -0,0 +1,161 @@
+package com.library.apigateway.client;
+
+import com.google.protobuf.Message;
+import com.library.apigateway.cache.FallbackCache;
+import com.library.bookservice.grpc.AvailabilityChange;
+import com.library.bookservice.grpc.BookChange;
+import com.library.bookservice.grpc.BookRequest;
+import com.library.bookservice.grpc.BookResponse;
+import com.library.bookservice.grpc.BookServiceGrpc;
+import com.library.bookservice.grpc.BorrowRequest;
+import com.library.bookservice.grpc.BorrowResponse;
+import com.library.bookservice.grpc.GetCatalogStatsRequest;
+import com.library.bookservice.grpc.GetCatalogStatsResponse;
+import com.library.bookservice.grpc.ReturnRequest;
+import com.library.bookservice.grpc.ReturnResponse;
+import com.library.bookservice.grpc.SearchRequest;
+import com.library.bookservice.grpc.WatchAvailabilityRequest;
+import com.library.bookservice.grpc.WatchChangesRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over the book-service stubs used by the resolvers. Identical reads
+ * in flight together share one call, and reads are answered from the {@link FallbackCache}
+ * while book-service is unavailable.
+ */
+@Component
+@Slf4j
+public class BookServiceClient {
+
+    private final BookServiceGrpc.BookServiceBlockingStub blockingStub;
+    private final BookServiceGrpc.BookServiceFutureStub futureStub;
+    private final BookServiceGrpc.BookServiceStub asyncStub;
+    private final Executor executor;
+    private final FallbackCache fallbackCache;
+    private final SingleFlight singleFlight;
+    private final RequestKeyNormaliser keyNormaliser;
+    private final ResolverMode mode;
+
+    public BookServiceClient(BookServiceGrpc.BookServiceBlockingStub blockingStub,
+                             BookServiceGrpc.BookServiceFutureStub futureStub,
+                             BookServiceGrpc.BookServiceStub asyncStub,
+                             ClientCallExecutor clientCallExecutor,
+                             FallbackCache fallbackCache,
+                             SingleFlight singleFlight,
+                             RequestKeyNormaliser keyNormaliser,
+                             @Value("${gateway.resolver.mode:async}") ResolverMode mode) {
+        this.blockingStub = blockingStub;
+        this.futureStub = futureStub;
+        this.asyncStub = asyncStub;
+        this.executor = clientCallExecutor.executor();
+        this.fallbackCache = fallbackCache;
+        this.singleFlight = singleFlight;
+        this.keyNormaliser = keyNormaliser;
+        this.mode = mode;
+        log.info("BookServiceClient initialized in {} mode", mode);
+    }
+
+    public CompletableFuture<BookResponse> getBook(BookRequest request) {
+        return read(request, () -> {
+            if (mode == ResolverMode.ASYNC) {
+                return GrpcFutures.toCompletableFuture(futureStub.getBook(request), executor);
+            }
+            return blocking(() -> blockingStub.getBook(request));
+        }, BookResponse::getSuccess);
+    }
+
+    public CompletableFuture<List<BookResponse>> searchBooks(SearchRequest request) {
+        return read(request, () -> {
+            if (mode == ResolverMode.ASYNC) {
+                CompletableFuture<List<BookResponse>> future = new CompletableFuture<>();
+                asyncStub.searchBooks(request, GrpcFutures.collectingObserver(future, executor));
+                return future;
+            }
+            return blocking(() -> {
+                List<BookResponse> responses = new ArrayList<>();
+                blockingStub.searchBooks(request).forEachRemaining(responses::add);
+                return responses;
+            });
+        }, responses -> responses.stream().allMatch(BookResponse::getSuccess));
+    }
+
+    /**
+     * Emits search results as book-service streams them, so callers can forward the first
+     * rows before the search completes. In async mode rows are delivered to the subscriber
+     * only as it requests them, but book-service still writes its whole page without waiting
+     * for the gateway, so unrequested rows wait in the transport buffers. Cancelling the
+     * subscription cancels the RPC.
+     */
+    public Flux<BookResponse> streamBooks(SearchRequest request) {
+        if (mode == ResolverMode.ASYNC) {
+            return GrpcFutures.serverStream(observer -> asyncStub.searchBooks(request, observer));
+        }
+        return Flux.defer(() -> Flux.fromIterable(() -> blockingStub.searchBooks(request)))
+                .subscribeOn(Schedulers.fromExecutor(executor));
+    }
+
+    public CompletableFuture<BorrowResponse> borrowBook(BorrowRequest request) {
+        if (mode == ResolverMode.ASYNC) {
+            return GrpcFutures.toCompletableFuture(futureStub.borrowBook(request), executor);
+        }
+        return blocking(() -> blockingStub.borrowBook(request));
+    }
+
+    public CompletableFuture<ReturnResponse> returnBook(ReturnRequest request) {
+        if (mode == ResolverMode.ASYNC) {
+            return GrpcFutures.toCompletableFuture(futureStub.returnBook(request), executor);
+        }
+        return blocking(() -> blockingStub.returnBook(request));
+    }
+
+    public CompletableFuture<GetCatalogStatsResponse> getCatalogStats() {
+        GetCatalogStatsRequest request = GetCatalogStatsRequest.getDefaultInstance();
+        return read(request, () -> {
+            if (mode == ResolverMode.ASYNC) {
+                return GrpcFutures.toCompletableFuture(futureStub.getCatalogStats(request), executor);
+            }
+            return blocking(() -> blockingStub.getCatalogStats(request));
+        }, GetCatalogStatsResponse::getSuccess);
+    }
+
+    /**
+     * Availability changes for as long as the subscription lasts. Always uses the async stub,
+     * whatever the resolver mode, since a blocking iterator would hold a thread indefinitely.
+     */
+    public Flux<AvailabilityChange> watchAvailability(WatchAvailabilityRequest request) {
+        return GrpcFutures.serverStream(observer -> asyncStub.watchAvailability(request, observer));
+    }
+
+    /** IDs of books as changes to them commit, for as long as the subscription lasts. */
+    public Flux<BookChange> watchChanges(WatchChangesRequest request) {
+        return GrpcFutures.serverStream(observer -> asyncStub.watchChanges(request, observer));
+    }
+
+    /**
+     * Joins an identical read already in flight, and answers from the {@link FallbackCache}
+     * if the call fails because the service is unavailable.
+     */
+    private <T> CompletableFuture<T> read(Message request, Supplier<CompletableFuture<T>> call, Predicate<T> cacheable) {
+        Object key = keyNormaliser.normalise(request);
+        return fallbackCache.withFallback(key, () -> singleFlight.execute(key, call), cacheable);
+    }
+
+    private static <T> CompletableFuture<T> blocking(Supplier<T> call) {
+        try {
+            return CompletableFuture.completedFuture(call.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.library.apigateway.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated pool on which downstream gRPC results are completed and resolver
+ * continuations run, keeping that work off the servlet request threads.
+ * <p>
+ * Deliberately not exposed as an {@link Executor} bean so it does not replace
+ * Spring Boot's {@code applicationTaskExecutor}.
+ */
+@Component
+@Slf4j
+public class ClientCallExecutor implements DisposableBean {
+
+    private final ExecutorService executorService;
+
+    public ClientCallExecutor(@Value("${gateway.resolver.executor.threads:16}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "grpc-resolver-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executorService = Executors.newFixedThreadPool(threads, threadFactory);
+        log.info("Resolver executor started with {} threads", threads);
+    }
+
+    public Executor executor() {
+        return executorService;
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdown();
+    }
+}
@@ -0,0 +1,163 @@
+package com.library.apigateway.client;
+
+import com.library.apigateway.cache.ResponseCache;
+import com.library.apigateway.cache.SharedEntityCache;
+import com.library.apigateway.dto.Book;
+import com.library.apigateway.dto.User;
+import com.library.bookservice.grpc.BookChange;
+import com.library.userservice.grpc.UserChange;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps the {@link SharedEntityCache} beans coherent with book-service and user-service
+ * through one {@code WatchChanges} stream to each.
+ * <p>
+ * Every change a service reports invalidates the entity in its cache, and the cached
+ * responses tagged with it. Once a stream confirms it is registered, the cache is cleared
+ * and switched to its watched TTL; when the stream fails it falls back to the plain TTL
+ * until the stream has been reopened with backoff. A service that does not implement
+ * {@code WatchChanges} is not asked again. The delay from commit to invalidation is
+ * recorded as {@code gateway.entity-cache.invalidation.lag}.
+ * <p>
+ * Each service instance reports only its own commits, and the stream reaches a single
+ * replica. The watched TTL is therefore only used when the service address names exactly
+ * one replica; for a {@code static://} list of several, or a DNS name that may resolve to
+ * several, the stream still invalidates what it sees but entries keep the plain TTL.
+ */
+@Component
+@Slf4j
+public class EntityChangeFeed {
+
+    private static final String IN_PROCESS_PREFIX = "in-process:";
+    private static final String STATIC_PREFIX = "static://";
+
+    private final BookServiceClient bookServiceClient;
+    private final UserServiceClient userServiceClient;
+    private final SharedEntityCache<Book> bookEntityCache;
+    private final SharedEntityCache<User> userEntityCache;
+    private final ResponseCache responseCache;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final String bookServiceAddress;
+    private final String userServiceAddress;
+
+    private final List<Disposable> streams = new CopyOnWriteArrayList<>();
+
+    public EntityChangeFeed(BookServiceClient bookServiceClient,
+                            UserServiceClient userServiceClient,
+                            SharedEntityCache<Book> bookEntityCache,
+                            SharedEntityCache<User> userEntityCache,
+                            ResponseCache responseCache,
+                            MeterRegistry meterRegistry,
+                            @Value("${dataloader.shared-cache.watch-changes:false}") boolean enabled,
+                            @Value("${grpc.client.book-service.address:static://localhost:6565}") String bookServiceAddress,
+                            @Value("${grpc.client.user-service.address:static://localhost:6566}") String userServiceAddress) {
+        this.bookServiceClient = bookServiceClient;
+        this.userServiceClient = userServiceClient;
+        this.bookEntityCache = bookEntityCache;
+        this.userEntityCache = userEntityCache;
+        this.responseCache = responseCache;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.bookServiceAddress = bookServiceAddress;
+        this.userServiceAddress = userServiceAddress;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        if (bookEntityCache.isEnabled()) {
+            streams.add(watch("book-service", bookEntityCache, isSingleReplica(bookServiceAddress),
+                    () -> bookServiceClient.watchChanges(com.library.bookservice.grpc.WatchChangesRequest.getDefaultInstance()),
+                    BookChange::getBookId, BookChange::getChangedAt,
+                    bookId -> responseCache.invalidateTags(ResponseCache.bookTag(bookId),
+                            ResponseCache.rootFieldTag("availableBooks"))));
+        }
+        if (userEntityCache.isEnabled()) {
+            streams.add(watch("user-service", userEntityCache, isSingleReplica(userServiceAddress),
+                    () -> userServiceClient.watchChanges(com.library.userservice.grpc.WatchChangesRequest.getDefaultInstance()),
+                    UserChange::getUserId, UserChange::getChangedAt,
+                    userId -> responseCache.invalidateTags(ResponseCache.userTag(userId))));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        streams.forEach(Disposable::dispose);
+        streams.clear();
+    }
+
+    /**
+     * Whether {@code address} can only reach one replica: an in-process name or a
+     * {@code static://} target listing a single host.
+     */
+    static boolean isSingleReplica(String address) {
+        if (address.startsWith(IN_PROCESS_PREFIX)) {
+            return true;
+        }
+        return address.startsWith(STATIC_PREFIX) && !address.substring(STATIC_PREFIX.length()).contains(",");
+    }
+
+    private <C> Disposable watch(String service, SharedEntityCache<?> cache, boolean singleReplica,
+                                 Supplier<Flux<C>> changes,
+                                 Function<C, String> entityId, ToLongFunction<C> changedAt,
+                                 Consumer<String> invalidateResponses) {
+        Timer lag = Timer.builder("gateway.entity-cache.invalidation.lag")
+                .description("Time from a change committing in a service to its cached copy being dropped")
+                .tag("cache", cache.getName())
+                .register(meterRegistry);
+
+        return Flux.defer(changes)
+                .doOnSubscribe(subscription -> log.info("Opening {} change stream", service))
+                .doOnNext(change -> {
+                    String id = entityId.apply(change);
+                    if (id.isEmpty()) {
+                        if (singleReplica) {
+                            log.info("{} change stream registered, cache '{}' now watched", service, cache.getName());
+                            cache.watchStarted();
+                        } else {
+                            log.info("{} change stream registered with one of several replicas, cache '{}' keeps its TTL",
+                                    service, cache.getName());
+                        }
+                        return;
+                    }
+                    cache.invalidate(id);
+                    invalidateResponses.accept(id);
+                    lag.record(Math.max(0, System.currentTimeMillis() - changedAt.applyAsLong(change)),
+                            TimeUnit.MILLISECONDS);
+                })
+                .doOnError(e -> {
+                    cache.watchStopped();
+                    log.warn("{} change stream failed: {}", service, e.getMessage());
+                })
+                .doOnComplete(cache::watchStopped)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .filter(e -> Status.fromThrowable(e).getCode() != Status.Code.UNIMPLEMENTED))
+                .repeatWhen(completions -> completions.delayElements(Duration.ofSeconds(1)))
+                .subscribe(change -> { },
+                        e -> log.warn("{} does not support WatchChanges; cache '{}' relies on its TTL",
+                                service, cache.getName()));
+    }
+}
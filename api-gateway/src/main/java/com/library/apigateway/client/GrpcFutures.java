@@ -0,0 +1,145 @@
+package com.library.apigateway.client;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Bridges gRPC future and async stubs to {@link CompletableFuture} and Reactor.
+ */
+public final class GrpcFutures {
+
+    private GrpcFutures() {
+    }
+
+    /**
+     * Adapts a future-stub call. The returned future completes on {@code executor},
+     * and cancelling it cancels the underlying RPC.
+     */
+    public static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> listenableFuture, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                listenableFuture.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+
+        Futures.addCallback(listenableFuture, new FutureCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, executor);
+
+        return future;
+    }
+
+    /**
+     * Creates an observer for a server-streaming call that gathers every message and
+     * completes {@code future} with the full list on {@code executor}.
+     */
+    public static <T> StreamObserver<T> collectingObserver(CompletableFuture<List<T>> future, Executor executor) {
+        return new StreamObserver<>() {
+            private final List<T> results = new ArrayList<>();
+
+            @Override
+            public void onNext(T value) {
+                results.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                executor.execute(() -> future.completeExceptionally(t));
+            }
+
+            @Override
+            public void onCompleted() {
+                executor.execute(() -> future.complete(results));
+            }
+        };
+    }
+
+    /**
+     * Bridges a server-streaming call to a {@link Flux} with gRPC flow control: messages are
+     * read from the call only as the subscriber requests them, so a slow subscriber is not
+     * flooded and nothing piles up in the gateway. The server is slowed down only if it
+     * honours {@code isReady()}; otherwise unread messages wait in the transport's flow-control
+     * window and buffers. Cancelling the subscription cancels the RPC.
+     */
+    public static <T> Flux<T> serverStream(Consumer<StreamObserver<T>> call) {
+        return Flux.create(sink -> {
+            FlowControlledObserver<T> observer = new FlowControlledObserver<>(sink);
+            call.accept(observer);
+            // The call only accepts requests once started, which the stub has done by now
+            sink.onRequest(observer::request);
+        });
+    }
+
+    private static final class FlowControlledObserver<T> implements ClientResponseObserver<Object, T> {
+
+        private final FluxSink<T> sink;
+        private ClientCallStreamObserver<Object> requestStream;
+
+        private FlowControlledObserver(FluxSink<T> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<Object> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.disableAutoRequestWithInitial(0);
+            sink.onCancel(() -> requestStream.cancel("Subscriber cancelled", null));
+        }
+
+        void request(long count) {
+            requestStream.request((int) Math.min(count, Integer.MAX_VALUE));
+        }
+
+        @Override
+        public void onNext(T value) {
+            sink.next(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            sink.error(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            sink.complete();
+        }
+    }
+
+    /**
+     * Strips the {@link CompletionException}/{@link ExecutionException} wrappers added by
+     * future composition so callers can inspect the original gRPC status.
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable current = throwable;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
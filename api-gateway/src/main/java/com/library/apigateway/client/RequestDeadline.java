@@ -0,0 +1,57 @@
+package com.library.apigateway.client;
+
+import graphql.GraphQLContext;
+import io.grpc.Deadline;
+import io.grpc.stub.AbstractStub;
+import org.dataloader.BatchLoaderEnvironment;
+
+/**
+ * The deadline of the GraphQL request a downstream call is made for.
+ * <p>
+ * {@link RequestDeadlineInstrumentation} binds it to the thread while a data fetcher runs,
+ * and {@link RequestDeadlineClientInterceptor} applies it to every gRPC call started there.
+ * DataLoader batches run outside any data fetcher, so batch loaders read the deadline from
+ * their {@link BatchLoaderEnvironment} and {@link #apply apply} it to their stub. Other calls,
+ * such as continuations on the resolver executor, fall back to their per-method timeout.
+ */
+public final class RequestDeadline {
+
+    /** GraphQL context key under which the request's {@link Deadline} is stored */
+    public static final String CONTEXT_KEY = RequestDeadline.class.getName();
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /** The deadline in the GraphQL context a DataLoader batch was dispatched from, if any. */
+    public static Deadline of(BatchLoaderEnvironment environment) {
+        return environment.getContext() instanceof GraphQLContext context ? context.get(CONTEXT_KEY) : null;
+    }
+
+    /**
+     * {@code stub} bounded by {@code deadline}, or {@code stub} itself when there is none. The
+     * per-method timeout from the channel's service config still applies when it is sooner.
+     */
+    public static <S extends AbstractStub<S>> S apply(S stub, Deadline deadline) {
+        return deadline == null ? stub : stub.withDeadline(deadline);
+    }
+
+    static Deadline bind(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        return previous;
+    }
+
+    static void restore(Deadline previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.library.apigateway.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.Deadline;
+import io.grpc.MethodDescriptor;
+
+/**
+ * Caps each call's deadline at the current {@link RequestDeadline}, if one is bound. The
+ * per-method timeout from the channel's service config still applies when it is sooner.
+ */
+public class RequestDeadlineClientInterceptor implements ClientInterceptor {
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        Deadline deadline = RequestDeadline.current();
+        if (deadline != null && (callOptions.getDeadline() == null || deadline.isBefore(callOptions.getDeadline()))) {
+            callOptions = callOptions.withDeadline(deadline);
+        }
+        return next.newCall(method, callOptions);
+    }
+}
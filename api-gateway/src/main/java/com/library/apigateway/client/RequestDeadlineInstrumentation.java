@@ -0,0 +1,48 @@
+package com.library.apigateway.client;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.language.OperationDefinition;
+import graphql.schema.DataFetcher;
+import io.grpc.Deadline;
+
+/**
+ * Binds the request's {@link RequestDeadline} while each data fetcher runs. Subscriptions
+ * are left unbounded since their streams outlive the request that opened them; their
+ * deadline is removed from the GraphQL context so DataLoader batches ignore it too.
+ */
+public class RequestDeadlineInstrumentation extends SimplePerformantInstrumentation {
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                          InstrumentationState state) {
+        if (parameters.getExecutionContext().getOperationDefinition().getOperation()
+                == OperationDefinition.Operation.SUBSCRIPTION) {
+            parameters.getExecutionContext().getGraphQLContext().delete(RequestDeadline.CONTEXT_KEY);
+        }
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher,
+                                                InstrumentationFieldFetchParameters parameters,
+                                                InstrumentationState state) {
+        Deadline deadline = parameters.getExecutionContext().getGraphQLContext().get(RequestDeadline.CONTEXT_KEY);
+        if (deadline == null || parameters.getExecutionContext().getOperationDefinition().getOperation()
+                == OperationDefinition.Operation.SUBSCRIPTION) {
+            return dataFetcher;
+        }
+        return environment -> {
+            Deadline previous = RequestDeadline.bind(deadline);
+            try {
+                return dataFetcher.get(environment);
+            } finally {
+                RequestDeadline.restore(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.library.apigateway.client;
+
+import com.google.protobuf.FieldMask;
+import com.google.protobuf.Message;
+import com.library.bookservice.grpc.BookRequest;
+import com.library.bookservice.grpc.SearchRequest;
+import com.library.userservice.grpc.UserRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Maps read requests that book-service and user-service answer identically to the same key,
+ * so that {@link SingleFlight} and the {@link com.library.apigateway.cache.FallbackCache}
+ * treat them as one. Requests of other types are their own key.
+ */
+@Component
+public class RequestKeyNormaliser {
+
+    /** Search types book-service matches case-insensitively; ISBNs, also part of a general search, match exactly */
+    private static final Set<String> CASE_INSENSITIVE_SEARCH_TYPES = Set.of("title", "author", "genre");
+
+    private final boolean canonicalIds;
+    private final boolean caseInsensitiveSearch;
+    private final boolean sortFieldMasks;
+
+    public RequestKeyNormaliser(@Value("${gateway.single-flight.normalise.canonical-ids:true}") boolean canonicalIds,
+                                @Value("${gateway.single-flight.normalise.case-insensitive-search:true}") boolean caseInsensitiveSearch,
+                                @Value("${gateway.single-flight.normalise.sort-field-masks:true}") boolean sortFieldMasks) {
+        this.canonicalIds = canonicalIds;
+        this.caseInsensitiveSearch = caseInsensitiveSearch;
+        this.sortFieldMasks = sortFieldMasks;
+    }
+
+    public Object normalise(Message request) {
+        if (request instanceof BookRequest bookRequest) {
+            return bookRequest.toBuilder()
+                    .setBookId(id(bookRequest.getBookId()))
+                    .setFieldMask(fieldMask(bookRequest.getFieldMask()))
+                    .build();
+        }
+        if (request instanceof SearchRequest searchRequest) {
+            // book-service lower-cases the search type itself
+            String searchType = searchRequest.getSearchType().toLowerCase(Locale.ROOT);
+            String query = searchRequest.getQuery();
+            if (caseInsensitiveSearch && CASE_INSENSITIVE_SEARCH_TYPES.contains(searchType)) {
+                query = query.toLowerCase(Locale.ROOT);
+            }
+            return searchRequest.toBuilder()
+                    .setSearchType(searchType)
+                    .setQuery(query)
+                    .setFieldMask(fieldMask(searchRequest.getFieldMask()))
+                    .build();
+        }
+        if (request instanceof UserRequest userRequest) {
+            return userRequest.toBuilder()
+                    .setUserId(id(userRequest.getUserId()))
+                    .build();
+        }
+        return request;
+    }
+
+    /** The services parse IDs as longs, so "007" and "7" name the same entity */
+    private String id(String value) {
+        if (!canonicalIds || value.isEmpty() || !value.chars().allMatch(Character::isDigit)) {
+            return value;
+        }
+        try {
+            return Long.toString(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+
+    /** Paths in a field mask are a set, so their order does not change the answer */
+    private FieldMask fieldMask(FieldMask fieldMask) {
+        if (!sortFieldMasks || fieldMask.getPathsCount() < 2) {
+            return fieldMask;
+        }
+        return FieldMask.newBuilder()
+                .addAllPaths(fieldMask.getPathsList().stream().distinct().sorted().toList())
+                .build();
+    }
+}
@@ -0,0 +1,11 @@
+package com.library.apigateway.client;
+
+/**
+ * How the service clients talk to the downstream gRPC services.
+ */
+public enum ResolverMode {
+    /** Future/async stubs; resolvers get pending futures and independent fields overlap. */
+    ASYNC,
+    /** Blocking stubs called on the resolver thread; futures are already complete. */
+    BLOCKING
+}
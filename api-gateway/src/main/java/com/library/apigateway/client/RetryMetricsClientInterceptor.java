@@ -0,0 +1,64 @@
+package com.library.apigateway.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Set;
+
+/**
+ * Counts the extra attempts the channel's retry and hedging policies make, as
+ * {@code gateway.grpc.client.attempts} tagged with the method and whether the attempt was
+ * a retry, a hedge or a transparent retry (the request never reached the server).
+ */
+public class RetryMetricsClientInterceptor implements ClientInterceptor {
+
+    private static final String METRIC = "gateway.grpc.client.attempts";
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> hedgedMethods;
+
+    /**
+     * @param hedgedMethods full method names ({@code package.Service/Method}) configured with a
+     *                      hedging rather than a retry policy
+     */
+    public RetryMetricsClientInterceptor(MeterRegistry meterRegistry, Set<String> hedgedMethods) {
+        this.meterRegistry = meterRegistry;
+        this.hedgedMethods = hedgedMethods;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        String methodName = method.getFullMethodName();
+        String policyKind = hedgedMethods.contains(methodName) ? "hedge" : "retry";
+        ClientStreamTracer.Factory tracerFactory = new ClientStreamTracer.Factory() {
+            @Override
+            public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+                if (info.isTransparentRetry()) {
+                    count(methodName, "transparent");
+                } else if (info.getPreviousAttempts() > 0) {
+                    count(methodName, policyKind);
+                }
+                return new ClientStreamTracer() {
+                };
+            }
+        };
+        return next.newCall(method, callOptions.withStreamTracerFactory(tracerFactory));
+    }
+
+    private void count(String method, String kind) {
+        Counter.builder(METRIC)
+                .description("Additional gRPC call attempts made by the channel's retry and hedging policies")
+                .tag("method", method)
+                .tag("kind", kind)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,190 @@
+package com.library.apigateway.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Isolates downstream services from each other with a {@link CircuitBreaker} and a
+ * bulkhead per gRPC service, so that a slow or failing service is rejected fast instead
+ * of tying up the gateway.
+ * <p>
+ * The bulkhead caps a service's in-flight calls; streaming calls without a deadline, i.e.
+ * long-lived streams such as {@code WatchAvailability}, are not counted since they would
+ * hold a slot indefinitely. Rejected calls close immediately with {@code UNAVAILABLE} (circuit open)
+ * or {@code RESOURCE_EXHAUSTED} (bulkhead full), which
+ * {@link com.library.apigateway.cache.FallbackCache} treats like any other outage.
+ */
+@Slf4j
+public class ServiceGuardInterceptor implements ClientInterceptor {
+
+    /**
+     * Outcomes that count against a service; anything else the service answered counts as a
+     * success. Application errors (e.g. UNKNOWN for a missing book) say nothing about its health.
+     */
+    private static final Set<Status.Code> FAILURE_CODES = Set.of(
+            Status.Code.UNAVAILABLE, Status.Code.DEADLINE_EXCEEDED, Status.Code.RESOURCE_EXHAUSTED);
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final Duration openDuration;
+    private final int halfOpenCalls;
+    private final int maxConcurrentCalls;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+    public ServiceGuardInterceptor(int windowSize, int minimumCalls, double failureRateThreshold,
+                                   Duration openDuration, int halfOpenCalls, int maxConcurrentCalls,
+                                   MeterRegistry meterRegistry) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        Guard guard = guards.computeIfAbsent(method.getServiceName(), this::newGuard);
+        boolean bulkheaded = method.getType() == MethodDescriptor.MethodType.UNARY || callOptions.getDeadline() != null;
+
+        if (bulkheaded && !guard.bulkhead.tryAcquire()) {
+            guard.bulkheadRejections.increment();
+            return new RejectedCall<>(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many concurrent calls to " + guard.service));
+        }
+        if (!guard.circuitBreaker.tryAcquire()) {
+            if (bulkheaded) {
+                guard.bulkhead.release();
+            }
+            guard.circuitRejections.increment();
+            return new RejectedCall<>(Status.UNAVAILABLE
+                    .withDescription("Circuit breaker open for " + guard.service));
+        }
+
+        AtomicBoolean finished = new AtomicBoolean();
+        Runnable release = () -> {
+            if (bulkheaded && finished.compareAndSet(false, true)) {
+                guard.bulkhead.release();
+            }
+        };
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                try {
+                    super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                        @Override
+                        public void onClose(Status status, Metadata trailers) {
+                            release.run();
+                            guard.record(status);
+                            super.onClose(status, trailers);
+                        }
+                    }, headers);
+                } catch (RuntimeException e) {
+                    release.run();
+                    guard.circuitBreaker.onIgnored();
+                    throw e;
+                }
+            }
+        };
+    }
+
+    private Guard newGuard(String service) {
+        Guard guard = new Guard(service,
+                new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenCalls),
+                new Semaphore(maxConcurrentCalls),
+                rejections(service, "circuit_open"),
+                rejections(service, "bulkhead_full"));
+        Gauge.builder("gateway.grpc.client.circuit.state", guard.circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("service", service)
+                .register(meterRegistry);
+        Gauge.builder("gateway.grpc.client.bulkhead.available", guard.bulkhead, Semaphore::availablePermits)
+                .description("Remaining concurrent call slots")
+                .tag("service", service)
+                .register(meterRegistry);
+        log.info("Guarding {}: bulkhead of {} calls, circuit opens at {}% failures of the last {} calls",
+                service, maxConcurrentCalls, Math.round(failureRateThreshold * 100), windowSize);
+        return guard;
+    }
+
+    private Counter rejections(String service, String reason) {
+        return Counter.builder("gateway.grpc.client.rejected")
+                .description("Calls rejected without reaching the service")
+                .tag("service", service)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private record Guard(String service, CircuitBreaker circuitBreaker, Semaphore bulkhead,
+                         Counter circuitRejections, Counter bulkheadRejections) {
+
+        void record(Status status) {
+            CircuitBreaker.State before = circuitBreaker.state();
+            if (status.getCode() == Status.Code.CANCELLED) {
+                circuitBreaker.onIgnored();
+            } else if (FAILURE_CODES.contains(status.getCode())) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            CircuitBreaker.State after = circuitBreaker.state();
+            if (after != before) {
+                log.warn("Circuit breaker for {} is now {} (last status {})", service, after, status.getCode());
+            }
+        }
+    }
+
+    /** A call that fails on start without reaching the channel. */
+    private static final class RejectedCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+
+        private final Status status;
+
+        RejectedCall(Status status) {
+            this.status = status;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            responseListener.onClose(status, new Metadata());
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+        }
+
+        @Override
+        public void halfClose() {
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+        }
+    }
+}
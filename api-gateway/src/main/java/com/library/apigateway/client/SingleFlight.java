@@ -0,0 +1,90 @@
+package com.library.apigateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical downstream reads that are in flight at the same time.
+ * <p>
+ * The first caller for a key starts the call; callers arriving before it completes get
+ * the same result instead of starting their own. The key is dropped as soon as the call
+ * completes, so nothing is served that was not fetched for a caller already waiting: this
+ * flattens bursts on hot keys without any staleness. Callers are counted as
+ * {@code gateway.single-flight.calls} tagged {@code leader} or {@code joined}, and
+ * {@code gateway.single-flight.coalescing.ratio} gauges the share that joined.
+ */
+@Component
+@Slf4j
+public class SingleFlight {
+
+    private final boolean enabled;
+    private final Map<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter joined;
+
+    public SingleFlight(@Value("${gateway.single-flight.enabled:true}") boolean enabled, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.leaders = calls(meterRegistry, "leader");
+        this.joined = calls(meterRegistry, "joined");
+        Gauge.builder("gateway.single-flight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .description("Share of reads that joined an identical call already in flight")
+                .register(meterRegistry);
+        log.info("Single-flight coalescing {}", enabled ? "enabled" : "disabled");
+    }
+
+    /**
+     * Returns the in-flight result for {@code key}, or starts {@code call} if there is none.
+     * Each caller gets its own dependent future, so one caller cancelling does not affect
+     * the others or the shared call.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(Object key, Supplier<CompletableFuture<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        CompletableFuture<T> shared = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            joined.increment();
+            return existing.copy();
+        }
+
+        leaders.increment();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, throwable) -> {
+            inFlight.remove(key, shared);
+            if (throwable != null) {
+                shared.completeExceptionally(throwable);
+            } else {
+                shared.complete(value);
+            }
+        });
+        return shared.copy();
+    }
+
+    private double coalescingRatio() {
+        double total = leaders.count() + joined.count();
+        return total == 0 ? 0 : joined.count() / total;
+    }
+
+    private static Counter calls(MeterRegistry meterRegistry, String role) {
+        return Counter.builder("gateway.single-flight.calls")
+                .description("Downstream reads by whether they started a call or joined one in flight")
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,102 @@
+package com.library.apigateway.client;
+
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-backend call metrics, so that load balancing and outlier ejection can be observed:
+ * {@code gateway.grpc.client.subchannel.calls} counts finished attempts by service,
+ * backend address and status, and {@code gateway.grpc.client.subchannel.active} gauges
+ * the attempts in flight on each backend.
+ */
+public class SubchannelMetricsClientInterceptor implements ClientInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+
+    public SubchannelMetricsClientInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        String service = method.getServiceName();
+        ClientStreamTracer.Factory tracerFactory = new ClientStreamTracer.Factory() {
+            @Override
+            public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+                return new AttemptTracer(service);
+            }
+        };
+        return next.newCall(method, callOptions.withStreamTracerFactory(tracerFactory));
+    }
+
+    private AtomicInteger active(String service, String address) {
+        return active.computeIfAbsent(service + '|' + address, key -> {
+            AtomicInteger count = new AtomicInteger();
+            Gauge.builder("gateway.grpc.client.subchannel.active", count, AtomicInteger::get)
+                    .description("Call attempts in flight on a backend")
+                    .tag("service", service)
+                    .tag("address", address)
+                    .register(meterRegistry);
+            return count;
+        });
+    }
+
+    private static String format(SocketAddress address) {
+        if (address instanceof InetSocketAddress inet) {
+            return inet.getHostString() + ':' + inet.getPort();
+        }
+        return String.valueOf(address);
+    }
+
+    /** Follows one attempt; attempts that never reached a backend are not counted. */
+    private final class AttemptTracer extends ClientStreamTracer {
+
+        private final String service;
+        private volatile String address;
+
+        AttemptTracer(String service) {
+            this.service = service;
+        }
+
+        @Override
+        public void streamCreated(Attributes transportAttrs, Metadata headers) {
+            address = format(transportAttrs.get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR));
+            active(service, address).incrementAndGet();
+        }
+
+        @Override
+        public void streamClosed(Status status) {
+            String backend = address;
+            if (backend == null) {
+                return;
+            }
+            active(service, backend).decrementAndGet();
+            Counter.builder("gateway.grpc.client.subchannel.calls")
+                    .description("Call attempts finished on a backend")
+                    .tag("service", service)
+                    .tag("address", backend)
+                    .tag("status", status.getCode().name())
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.library.apigateway.client;
+
+import com.google.protobuf.Message;
+import com.library.apigateway.cache.FallbackCache;
+import com.library.userservice.grpc.BorrowHistoryRequest;
+import com.library.userservice.grpc.BorrowHistoryResponse;
+import com.library.userservice.grpc.GetUserStatsRequest;
+import com.library.userservice.grpc.GetUserStatsResponse;
+import com.library.userservice.grpc.ListUsersRequest;
+import com.library.userservice.grpc.ListUsersResponse;
+import com.library.userservice.grpc.RegisterRequest;
+import com.library.userservice.grpc.UpdateUserStatusRequest;
+import com.library.userservice.grpc.UserChange;
+import com.library.userservice.grpc.UserRequest;
+import com.library.userservice.grpc.UserResponse;
+import com.library.userservice.grpc.UserServiceGrpc;
+import com.library.userservice.grpc.WatchChangesRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over the user-service stubs used by the resolvers. Identical reads
+ * in flight together share one call, and reads are answered from the {@link FallbackCache}
+ * while user-service is unavailable.
+ */
+@Component
+@Slf4j
+public class UserServiceClient {
+
+    private final UserServiceGrpc.UserServiceBlockingStub blockingStub;
+    private final UserServiceGrpc.UserServiceFutureStub futureStub;
+    private final UserServiceGrpc.UserServiceStub asyncStub;
+    private final Executor executor;
+    private final FallbackCache fallbackCache;
+    private final SingleFlight singleFlight;
+    private final RequestKeyNormaliser keyNormaliser;
+    private final ResolverMode mode;
+
+    public UserServiceClient(UserServiceGrpc.UserServiceBlockingStub blockingStub,
+                             UserServiceGrpc.UserServiceFutureStub futureStub,
+                             UserServiceGrpc.UserServiceStub asyncStub,
+                             ClientCallExecutor clientCallExecutor,
+                             FallbackCache fallbackCache,
+                             SingleFlight singleFlight,
+                             RequestKeyNormaliser keyNormaliser,
+                             @Value("${gateway.resolver.mode:async}") ResolverMode mode) {
+        this.blockingStub = blockingStub;
+        this.futureStub = futureStub;
+        this.asyncStub = asyncStub;
+        this.executor = clientCallExecutor.executor();
+        this.fallbackCache = fallbackCache;
+        this.singleFlight = singleFlight;
+        this.keyNormaliser = keyNormaliser;
+        this.mode = mode;
+        log.info("UserServiceClient initialized in {} mode", mode);
+    }
+
+    public CompletableFuture<UserResponse> registerUser(RegisterRequest request) {
+        if (mode == ResolverMode.ASYNC) {
+            return GrpcFutures.toCompletableFuture(futureStub.registerUser(request), executor);
+        }
+        return blocking(() -> blockingStub.registerUser(request));
+    }
+
+    public CompletableFuture<UserResponse> getUser(UserRequest request) {
+        return read(request, () -> {
+            if (mode == ResolverMode.ASYNC) {
+                return GrpcFutures.toCompletableFuture(futureStub.getUser(request), executor);
+            }
+            return blocking(() -> blockingStub.getUser(request));
+        }, UserResponse::getSuccess);
+    }
+
+    public CompletableFuture<GetUserStatsResponse> getUserStats() {
+        GetUserStatsRequest request = GetUserStatsRequest.getDefaultInstance();
+        return read(request, () -> {
+            if (mode == ResolverMode.ASYNC) {
+                return GrpcFutures.toCompletableFuture(futureStub.getUserStats(request), executor);
+            }
+            return blocking(() -> blockingStub.getUserStats(request));
+        }, GetUserStatsResponse::getSuccess);
+    }
+
+    public CompletableFuture<ListUsersResponse> listUsers(ListUsersRequest request) {
+        return read(request, () -> {
+            if (mode == ResolverMode.ASYNC) {
+                return GrpcFutures.toCompletableFuture(futureStub.listUsers(request), executor);
+            }
+            return blocking(() -> blockingStub.listUsers(request));
+        }, ListUsersResponse::getSuccess);
+    }
+
+    public CompletableFuture<UserResponse> updateUserStatus(UpdateUserStatusRequest request) {
+        if (mode == ResolverMode.ASYNC) {
+            return GrpcFutures.toCompletableFuture(futureStub.updateUserStatus(request), executor);
+        }
+        return blocking(() -> blockingStub.updateUserStatus(request));
+    }
+
+    public CompletableFuture<BorrowHistoryResponse> getBorrowHistory(BorrowHistoryRequest request) {
+        return read(request, () -> {
+            if (mode == ResolverMode.ASYNC) {
+                return GrpcFutures.toCompletableFuture(futureStub.getBorrowHistory(request), executor);
+            }
+            return blocking(() -> blockingStub.getBorrowHistory(request));
+        }, BorrowHistoryResponse::getSuccess);
+    }
+
+    /**
+     * IDs of users as registrations and changes to them commit, for as long as the
+     * subscription lasts. Always uses the async stub, whatever the resolver mode.
+     */
+    public Flux<UserChange> watchChanges(WatchChangesRequest request) {
+        return GrpcFutures.serverStream(observer -> asyncStub.watchChanges(request, observer));
+    }
+
+    /**
+     * Joins an identical read already in flight, and answers from the {@link FallbackCache}
+     * if the call fails because the service is unavailable.
+     */
+    private <T> CompletableFuture<T> read(Message request, Supplier<CompletableFuture<T>> call, Predicate<T> cacheable) {
+        Object key = keyNormaliser.normalise(request);
+        return fallbackCache.withFallback(key, () -> singleFlight.execute(key, call), cacheable);
+    }
+
+    private static <T> CompletableFuture<T> blocking(Supplier<T> call) {
+        try {
+            return CompletableFuture.completedFuture(call.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -1,107 +1,166 @@
 package com.library.apigateway.config;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.library.apigateway.cache.FallbackCache;
+import com.library.apigateway.client.ClientCallExecutor;
+import com.library.apigateway.client.GrpcFutures;
+import com.library.apigateway.client.RequestDeadline;
 import com.library.apigateway.dto.Book;
 import com.library.apigateway.dto.User;
 import com.library.apigateway.mapper.BookMapper;
 import com.library.apigateway.mapper.UserMapper;
-import com.library.bookservice.grpc.BookRequest;
-import com.library.bookservice.grpc.BookResponse;
 import com.library.bookservice.grpc.BookServiceGrpc;
-import com.library.userservice.grpc.UserRequest;
-import com.library.userservice.grpc.UserResponse;
+import com.library.bookservice.grpc.GetBooksByIdsRequest;
+import com.library.bookservice.grpc.GetBorrowersBatchRequest;
+import com.library.userservice.grpc.GetUsersRequest;
 import com.library.userservice.grpc.UserServiceGrpc;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.devh.boot.grpc.client.inject.GrpcClient;
-import org.dataloader.BatchLoader;
-import org.dataloader.DataLoader;
-import org.dataloader.DataLoaderOptions;
+import org.dataloader.MappedBatchLoaderWithContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
+/**
+ * Batch functions that fetch users and books from the downstream services.
+ * Keys without a matching entity are simply absent from the returned map,
+ * which the DataLoader resolves to {@code null}. While a service is unavailable,
+ * the entities last loaded for the requested keys are returned from the
+ * {@link FallbackCache} instead.
+ * <p>
+ * Each batch is a single future-stub call completed on the {@link ClientCallExecutor},
+ * whatever the resolver mode, so no thread waits for the round trip. Batches are
+ * dispatched outside any data fetcher, so each call takes the {@link RequestDeadline}
+ * from the batch's GraphQL context rather than from the thread.
+ */
 @Configuration
-@RequiredArgsConstructor
 @Slf4j
 public class DataLoaderConfig {
 
-    @GrpcClient("user-service")
-    private UserServiceGrpc.UserServiceBlockingStub userServiceStub;
-
-    @GrpcClient("book-service")
-    private BookServiceGrpc.BookServiceBlockingStub bookServiceStub;
-
+    private final UserServiceGrpc.UserServiceFutureStub userServiceStub;
+    private final BookServiceGrpc.BookServiceFutureStub bookServiceStub;
     private final UserMapper userMapper;
     private final BookMapper bookMapper;
+    private final FallbackCache fallbackCache;
+    private final Executor executor;
+
+    public DataLoaderConfig(UserServiceGrpc.UserServiceFutureStub userServiceStub,
+                            BookServiceGrpc.BookServiceFutureStub bookServiceStub,
+                            UserMapper userMapper,
+                            BookMapper bookMapper,
+                            FallbackCache fallbackCache,
+                            ClientCallExecutor clientCallExecutor) {
+        this.userServiceStub = userServiceStub;
+        this.bookServiceStub = bookServiceStub;
+        this.userMapper = userMapper;
+        this.bookMapper = bookMapper;
+        this.fallbackCache = fallbackCache;
+        this.executor = clientCallExecutor.executor();
+    }
 
     @Bean
-    public DataLoader<String, User> userDataLoader() {
-        BatchLoader<String, User> batchLoader = userIds -> {
+    public MappedBatchLoaderWithContext<String, User> userBatchLoader() {
+        return (userIds, environment) -> {
             log.debug("Batch loading {} users", userIds.size());
-            
-            return CompletableFuture.supplyAsync(() -> {
-                return userIds.stream()
-                    .map(userId -> {
-                        try {
-                            UserRequest request = UserRequest.newBuilder()
-                                    .setUserId(userId)
-                                    .build();
-                            UserResponse response = userServiceStub.getUser(request);
-                            
-                            if (response.getSuccess() && response.hasUser()) {
-                                return userMapper.toUser(response.getUser());
-                            }
-                            return null;
-                        } catch (Exception e) {
-                            log.error("Error loading user {}: {}", userId, e.getMessage());
-                            return null;
+            GetUsersRequest request = GetUsersRequest.newBuilder()
+                    .addAllUserIds(userIds)
+                    .build();
+
+            return call(() -> RequestDeadline.apply(userServiceStub, RequestDeadline.of(environment)).getUsers(request))
+                    .handle((response, error) -> {
+                        if (error != null) {
+                            log.error("Error batch loading users {}: {}", userIds, error.getMessage());
+                            return FallbackCache.isOutage(error)
+                                    ? fallbackCache.<User>getEntities("user", userIds)
+                                    : Collections.<String, User>emptyMap();
+                        }
+                        if (!response.getSuccess()) {
+                            log.warn("Failed to batch load users {}: {}", userIds, response.getMessage());
+                            return Collections.<String, User>emptyMap();
                         }
-                    })
-                    .collect(Collectors.toList());
-            });
-        };
 
-        return DataLoader.newDataLoader(batchLoader, 
-            DataLoaderOptions.newOptions()
-                .setCachingEnabled(true)
-                .setBatchingEnabled(true)
-        );
+                        Map<String, User> usersById = new HashMap<>();
+                        response.getUsersList().forEach(protoUser ->
+                                usersById.put(protoUser.getId(), userMapper.toUser(protoUser)));
+                        fallbackCache.putEntities("user", usersById);
+                        return usersById;
+                    });
+        };
     }
 
     @Bean
-    public DataLoader<String, Book> bookDataLoader() {
-        BatchLoader<String, Book> batchLoader = bookIds -> {
+    public MappedBatchLoaderWithContext<String, Book> bookBatchLoader() {
+        return (bookIds, environment) -> {
             log.debug("Batch loading {} books", bookIds.size());
-            
-            return CompletableFuture.supplyAsync(() -> {
-                return bookIds.stream()
-                    .map(bookId -> {
-                        try {
-                            BookRequest request = BookRequest.newBuilder()
-                                    .setBookId(bookId)
-                                    .build();
-                            BookResponse response = bookServiceStub.getBook(request);
-                            
-                            if (response.getSuccess() && response.hasBook()) {
-                                return bookMapper.toBook(response.getBook());
-                            }
-                            return null;
-                        } catch (Exception e) {
-                            log.error("Error loading book {}: {}", bookId, e.getMessage());
-                            return null;
+            GetBooksByIdsRequest request = GetBooksByIdsRequest.newBuilder()
+                    .addAllBookIds(bookIds)
+                    .build();
+
+            return call(() -> RequestDeadline.apply(bookServiceStub, RequestDeadline.of(environment)).getBooksByIds(request))
+                    .handle((response, error) -> {
+                        if (error != null) {
+                            log.error("Error batch loading books {}: {}", bookIds, error.getMessage());
+                            return FallbackCache.isOutage(error)
+                                    ? fallbackCache.<Book>getEntities("book", bookIds)
+                                    : Collections.<String, Book>emptyMap();
+                        }
+                        if (!response.getSuccess()) {
+                            log.warn("Failed to batch load books {}: {}", bookIds, response.getMessage());
+                            return Collections.<String, Book>emptyMap();
                         }
-                    })
-                    .collect(Collectors.toList());
-            });
+
+                        Map<String, Book> booksById = new HashMap<>();
+                        response.getBooksList().forEach(protoBook ->
+                                booksById.put(protoBook.getId(), bookMapper.toBook(protoBook)));
+                        fallbackCache.putEntities("book", booksById);
+                        return booksById;
+                    });
+        };
+    }
+
+    @Bean
+    public MappedBatchLoaderWithContext<String, List<String>> borrowerIdsBatchLoader() {
+        return (bookIds, environment) -> {
+            log.debug("Batch loading borrowers for {} books", bookIds.size());
+            GetBorrowersBatchRequest request = GetBorrowersBatchRequest.newBuilder()
+                    .addAllBookIds(bookIds)
+                    .build();
+
+            return call(() -> RequestDeadline.apply(bookServiceStub, RequestDeadline.of(environment)).getBorrowersBatch(request))
+                    .handle((response, error) -> {
+                        if (error != null) {
+                            log.error("Error batch loading borrowers for books {}: {}", bookIds, error.getMessage());
+                            return FallbackCache.isOutage(error)
+                                    ? fallbackCache.<List<String>>getEntities("borrowers", bookIds)
+                                    : Collections.<String, List<String>>emptyMap();
+                        }
+                        if (!response.getSuccess()) {
+                            log.warn("Failed to batch load borrowers for books {}: {}", bookIds, response.getMessage());
+                            return Collections.<String, List<String>>emptyMap();
+                        }
+
+                        // Books without active borrowers are omitted by book-service
+                        Map<String, List<String>> userIdsByBook = new HashMap<>();
+                        bookIds.forEach(bookId -> userIdsByBook.put(bookId, List.of()));
+                        response.getBorrowersList().forEach(borrowers ->
+                                userIdsByBook.put(borrowers.getBookId(), borrowers.getUserIdsList()));
+                        fallbackCache.putEntities("borrowers", userIdsByBook);
+                        return userIdsByBook;
+                    });
         };
+    }
 
-        return DataLoader.newDataLoader(batchLoader, 
-            DataLoaderOptions.newOptions()
-                .setCachingEnabled(true)
-                .setBatchingEnabled(true)
-        );
+    private <T> CompletableFuture<T> call(Supplier<ListenableFuture<T>> call) {
+        try {
+            return GrpcFutures.toCompletableFuture(call.get(), executor);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,28 +1,123 @@
 package com.library.apigateway.config;
 
+import com.library.apigateway.cache.SharedEntityCache;
 import com.library.apigateway.dto.Book;
 import com.library.apigateway.dto.User;
 import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentation;
 import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentationOptions;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.dataloader.DataLoader;
-import org.dataloader.DataLoaderRegistry;
+import org.dataloader.BatchLoaderEnvironment;
+import org.dataloader.MappedBatchLoader;
+import org.dataloader.MappedBatchLoaderWithContext;
+import org.dataloader.stats.SimpleStatisticsCollector;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Registers the DataLoaders with Spring GraphQL's {@link BatchLoaderRegistry}, which
+ * builds a fresh {@link org.dataloader.DataLoaderRegistry} for every GraphQL request.
+ * The per-request DataLoader cache therefore only de-duplicates keys within one
+ * operation; entities are shared across requests through the bounded
+ * {@link SharedEntityCache} beans from {@link EntityCacheConfig} instead.
+ * <p>
+ * Each DataLoader collects statistics, which would otherwise be no-ops, for the
+ * dispatcher's {@code dataloader} extension and
+ * {@link com.library.apigateway.metrics.GraphQlMetricsInstrumentation}.
+ */
 @Configuration
 @RequiredArgsConstructor
 public class DataLoaderRegistryConfig {
 
-    private final DataLoader<String, User> userDataLoader;
-    private final DataLoader<String, Book> bookDataLoader;
+    public static final String USER_DATA_LOADER = "userDataLoader";
+    public static final String BOOK_DATA_LOADER = "bookDataLoader";
+    public static final String BORROWERS_DATA_LOADER = "borrowersDataLoader";
 
-    @Bean
-    public DataLoaderRegistry dataLoaderRegistry() {
-        DataLoaderRegistry registry = new DataLoaderRegistry();
-        registry.register("userDataLoader", userDataLoader);
-        registry.register("bookDataLoader", bookDataLoader);
-        return registry;
+    @Value("${dataloader.user.max-batch-size:100}")
+    private int userMaxBatchSize;
+
+    private final BatchLoaderRegistry batchLoaderRegistry;
+    private final MappedBatchLoaderWithContext<String, User> userBatchLoader;
+    private final MappedBatchLoaderWithContext<String, Book> bookBatchLoader;
+    private final MappedBatchLoaderWithContext<String, List<String>> borrowerIdsBatchLoader;
+    private final SharedEntityCache<User> userEntityCache;
+    private final SharedEntityCache<Book> bookEntityCache;
+
+    @PostConstruct
+    void registerDataLoaders() {
+        batchLoaderRegistry.<String, User>forName(USER_DATA_LOADER)
+                .withOptions(options -> options
+                        .setCachingEnabled(true)
+                        .setBatchingEnabled(true)
+                        .setStatisticsCollector(SimpleStatisticsCollector::new)
+                        .setMaxBatchSize(userMaxBatchSize))
+                .registerMappedBatchLoader((userIds, environment) ->
+                        Mono.fromCompletionStage(() -> users(environment).load(userIds)));
+
+        batchLoaderRegistry.<String, Book>forName(BOOK_DATA_LOADER)
+                .withOptions(options -> options
+                        .setCachingEnabled(true)
+                        .setBatchingEnabled(true)
+                        .setStatisticsCollector(SimpleStatisticsCollector::new))
+                .registerMappedBatchLoader((bookIds, environment) ->
+                        Mono.fromCompletionStage(() -> books(environment).load(bookIds)));
+
+        batchLoaderRegistry.<String, List<User>>forName(BORROWERS_DATA_LOADER)
+                .withOptions(options -> options
+                        .setCachingEnabled(true)
+                        .setBatchingEnabled(true)
+                        .setStatisticsCollector(SimpleStatisticsCollector::new))
+                .registerMappedBatchLoader((bookIds, environment) ->
+                        Mono.fromCompletionStage(() -> borrowers(environment).load(bookIds)));
+    }
+
+    // The environment carries the request's deadline into the downstream calls of its batch
+    private MappedBatchLoader<String, User> users(BatchLoaderEnvironment environment) {
+        return userEntityCache.readThrough(userIds -> userBatchLoader.load(userIds, environment));
+    }
+
+    private MappedBatchLoader<String, Book> books(BatchLoaderEnvironment environment) {
+        return bookEntityCache.readThrough(bookIds -> bookBatchLoader.load(bookIds, environment));
+    }
+
+    /**
+     * Resolves the borrowers of a whole level of books with one GetBorrowersBatch call,
+     * then loads the union of their user IDs with one GetUsers call. Composing here,
+     * rather than chaining into the user DataLoader from the field resolver, keeps the
+     * second hop batched without relying on a later dispatch.
+     */
+    private MappedBatchLoader<String, List<User>> borrowers(BatchLoaderEnvironment environment) {
+        MappedBatchLoader<String, User> users = users(environment);
+        return bookIds -> borrowerIdsBatchLoader.load(bookIds, environment).thenCompose(userIdsByBook -> {
+            Set<String> userIds = new HashSet<>();
+            userIdsByBook.values().forEach(userIds::addAll);
+
+            CompletionStage<Map<String, User>> usersById = userIds.isEmpty()
+                    ? CompletableFuture.completedFuture(Map.of())
+                    : users.load(userIds);
+
+            return usersById.thenApply(loadedUsers -> {
+                Map<String, List<User>> borrowersByBook = new HashMap<>();
+                userIdsByBook.forEach((bookId, borrowerIds) -> borrowersByBook.put(bookId,
+                        borrowerIds.stream()
+                                .map(loadedUsers::get)
+                                .filter(Objects::nonNull)
+                                .toList()));
+                return borrowersByBook;
+            });
+        });
     }
 
     @Bean
@@ -32,4 +127,4 @@ public class DataLoaderRegistryConfig {
                 .includeStatistics(true)
         );
     }
-}
\ No newline at end of file
+}
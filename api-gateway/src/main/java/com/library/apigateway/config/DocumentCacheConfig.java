@@ -0,0 +1,27 @@
+package com.library.apigateway.config;
+
+import com.library.apigateway.cache.PreparsedDocumentCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "graphql.document-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class DocumentCacheConfig {
+
+    @Value("${graphql.document-cache.maximum-size:1000}")
+    private long documentCacheMaximumSize;
+
+    @Bean
+    public PreparsedDocumentCache preparsedDocumentCache(MeterRegistry meterRegistry) {
+        return new PreparsedDocumentCache("gateway.documents", documentCacheMaximumSize, meterRegistry);
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer preparsedDocumentCustomizer(PreparsedDocumentCache preparsedDocumentCache) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(preparsedDocumentCache));
+    }
+}
@@ -0,0 +1,60 @@
+package com.library.apigateway.config;
+
+import com.library.apigateway.cache.FallbackCache;
+import com.library.apigateway.cache.SharedEntityCache;
+import com.library.apigateway.dto.Book;
+import com.library.apigateway.dto.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class EntityCacheConfig {
+
+    @Value("${dataloader.shared-cache.enabled:false}")
+    private boolean sharedCacheEnabled;
+
+    @Value("${dataloader.shared-cache.maximum-size:10000}")
+    private long sharedCacheMaximumSize;
+
+    @Value("${dataloader.shared-cache.ttl:30s}")
+    private Duration sharedCacheTtl;
+
+    @Value("${dataloader.shared-cache.watched-ttl:10m}")
+    private Duration sharedCacheWatchedTtl;
+
+    @Value("${gateway.fallback-cache.enabled:false}")
+    private boolean fallbackCacheEnabled;
+
+    @Value("${gateway.fallback-cache.maximum-size:50000}")
+    private long fallbackCacheMaximumSize;
+
+    @Value("${gateway.fallback-cache.ttl:10m}")
+    private Duration fallbackCacheTtl;
+
+    @Bean
+    public SharedEntityCache<User> userEntityCache(MeterRegistry meterRegistry) {
+        return sharedCacheEnabled
+                ? SharedEntityCache.create("gateway.users", sharedCacheMaximumSize, sharedCacheTtl,
+                        sharedCacheWatchedTtl, meterRegistry)
+                : SharedEntityCache.disabled("gateway.users");
+    }
+
+    @Bean
+    public SharedEntityCache<Book> bookEntityCache(MeterRegistry meterRegistry) {
+        return sharedCacheEnabled
+                ? SharedEntityCache.create("gateway.books", sharedCacheMaximumSize, sharedCacheTtl,
+                        sharedCacheWatchedTtl, meterRegistry)
+                : SharedEntityCache.disabled("gateway.books");
+    }
+
+    @Bean
+    public FallbackCache fallbackCache(MeterRegistry meterRegistry) {
+        return fallbackCacheEnabled
+                ? FallbackCache.create("gateway.fallback", fallbackCacheMaximumSize, fallbackCacheTtl, meterRegistry)
+                : FallbackCache.disabled();
+    }
+}
@@ -1,9 +1,16 @@
 package com.library.apigateway.config;
 
 import com.library.apigateway.exception.CustomDataFetcherExceptionHandler;
+import com.library.apigateway.metrics.GraphQlMetricsInstrumentation;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.AbortExecutionException;
 import graphql.execution.DataFetcherExceptionHandler;
 import graphql.schema.GraphQLScalarType;
 import graphql.scalars.ExtendedScalars;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.graphql.execution.RuntimeWiringConfigurer;
@@ -14,10 +21,28 @@ import graphql.schema.DataFetchingEnvironment;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class GraphQLConfig {
 
+    @Value("${graphql.limits.max-depth:8}")
+    private int maxDepth;
+
+    @Value("${graphql.limits.max-cost:5000}")
+    private int maxCost;
+
+    @Value("${graphql.limits.rpc-weight:10}")
+    private int rpcWeight;
+
+    @Value("${graphql.limits.default-list-size:10}")
+    private int defaultListSize;
+
+    @Value("${graphql.metrics.include-trivial-fields:false}")
+    private boolean metricsIncludeTrivialFields;
+
     @Bean
     public RuntimeWiringConfigurer runtimeWiringConfigurer() {
         return wiringBuilder -> wiringBuilder
@@ -83,4 +108,57 @@ public class GraphQLConfig {
             }
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Rejects documents nested deeper than {@code graphql.limits.max-depth}, which bounds
+     * recursive {@code Book.borrowedBy -> User.borrowedBooks} selections before any RPC is made.
+     */
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation() {
+        return new MaxQueryDepthInstrumentation(maxDepth) {
+            @Override
+            protected AbortExecutionException mkAbortException(int depth, int maxDepth) {
+                return limitExceeded("MAX_DEPTH_EXCEEDED",
+                        String.format("Query depth %d exceeds the maximum of %d", depth, maxDepth),
+                        Map.of("depth", depth, "maxDepth", maxDepth));
+            }
+        };
+    }
+
+    /**
+     * Rejects operations whose static cost, see {@link QueryCostCalculator}, exceeds
+     * {@code graphql.limits.max-cost}. Variables are bound first, so {@code limit}
+     * arguments passed as variables count too.
+     */
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation() {
+        return new MaxQueryComplexityInstrumentation(maxCost, new QueryCostCalculator(rpcWeight, defaultListSize)) {
+            @Override
+            protected AbortExecutionException mkAbortException(int cost, int maxCost) {
+                return limitExceeded("MAX_COST_EXCEEDED",
+                        String.format("Query cost %d exceeds the maximum of %d", cost, maxCost),
+                        Map.of("cost", cost, "maxCost", maxCost));
+            }
+        };
+    }
+
+    /**
+     * Per-field, per-operation and per-DataLoader meters, see
+     * {@link GraphQlMetricsInstrumentation}, exported through {@code /actuator/metrics}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "graphql.metrics.enabled", havingValue = "true", matchIfMissing = true)
+    public GraphQlMetricsInstrumentation graphQlMetricsInstrumentation(MeterRegistry meterRegistry) {
+        return new GraphQlMetricsInstrumentation(meterRegistry, metricsIncludeTrivialFields);
+    }
+
+    private static AbortExecutionException limitExceeded(String code, String message, Map<String, Object> details) {
+        Map<String, Object> extensions = new LinkedHashMap<>(details);
+        extensions.put("code", code);
+        return new AbortExecutionException(List.of(GraphqlErrorBuilder.newError()
+                .errorType(graphql.ErrorType.ExecutionAborted)
+                .message(message)
+                .extensions(extensions)
+                .build()));
+    }
+}
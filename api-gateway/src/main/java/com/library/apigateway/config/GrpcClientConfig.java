@@ -1,37 +1,180 @@
 package com.library.apigateway.config;
 
+import com.library.apigateway.client.AdaptiveConcurrencyLimiter;
+import com.library.apigateway.client.RequestDeadlineClientInterceptor;
+import com.library.apigateway.client.RequestDeadlineInstrumentation;
+import com.library.apigateway.client.RetryMetricsClientInterceptor;
+import com.library.apigateway.client.ServiceGuardInterceptor;
+import com.library.apigateway.client.SubchannelMetricsClientInterceptor;
 import com.library.bookservice.grpc.BookServiceGrpc;
 import com.library.userservice.grpc.UserServiceGrpc;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.NameResolverRegistry;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.devh.boot.grpc.client.nameresolver.StaticNameResolverProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The one channel per downstream service that every stub in the gateway shares.
+ * <p>
+ * A service address may list several replicas ({@code static://host1:6565,host2:6565}) or
+ * name a DNS record ({@code dns:///book-service:6565}); calls are spread over the healthy
+ * replicas by the configured load-balancing policy, replicas reporting NOT_SERVING through
+ * the gRPC health service are skipped, and replicas failing too many calls are ejected for
+ * a while. Each channel also carries a service config with per-method timeouts and a retry
+ * policy for idempotent reads ({@code GetBook}, {@code SearchBooks}, {@code GetUser});
+ * {@code GetBook} can instead be hedged. Calls to each service pass through its own
+ * circuit breaker and bulkhead.
+ * <p>
+ * An address of the form {@code in-process:<name>} connects to an in-process server of that
+ * name instead, with the same service config and interceptors; the benchmarks use this.
+ */
 @Configuration
 @ConditionalOnProperty(name = "test.grpc.client.disabled", havingValue = "false", matchIfMissing = true)
 public class GrpcClientConfig {
 
-    @Value("${grpc.client.book-service.address:localhost:6565}")
+    private static final String BOOK_SERVICE = "book.BookService";
+    private static final String USER_SERVICE = "user.UserService";
+
+    private static final List<String> RETRIED_BOOK_METHODS = List.of("GetBook", "SearchBooks");
+    private static final List<String> RETRIED_USER_METHODS = List.of("GetUser");
+    private static final String HEDGED_BOOK_METHOD = "GetBook";
+
+    private static final String IN_PROCESS_PREFIX = "in-process:";
+
+    private static final List<String> RETRYABLE_STATUS_CODES = List.of("UNAVAILABLE");
+
+    static {
+        // The starter only registers its static:// resolver while creating @GrpcClient
+        // channels, which the gateway does not use
+        NameResolverRegistry.getDefaultRegistry().register(new StaticNameResolverProvider());
+    }
+
+    @Value("${grpc.client.book-service.address:static://localhost:6565}")
     private String bookServiceAddress;
 
-    @Value("${grpc.client.user-service.address:localhost:6566}")
+    @Value("${grpc.client.user-service.address:static://localhost:6566}")
     private String userServiceAddress;
 
+    @Value("${gateway.grpc.load-balancing.policy:round_robin}")
+    private String loadBalancingPolicy;
+
+    @Value("${gateway.grpc.load-balancing.health-check:true}")
+    private boolean healthCheckEnabled;
+
+    @Value("${gateway.grpc.load-balancing.outlier-detection.enabled:true}")
+    private boolean outlierDetectionEnabled;
+
+    @Value("${gateway.grpc.load-balancing.outlier-detection.interval:5s}")
+    private Duration outlierDetectionInterval;
+
+    @Value("${gateway.grpc.load-balancing.outlier-detection.base-ejection-time:30s}")
+    private Duration outlierBaseEjectionTime;
+
+    @Value("${gateway.grpc.load-balancing.outlier-detection.max-ejection-percent:50}")
+    private int outlierMaxEjectionPercent;
+
+    @Value("${gateway.grpc.load-balancing.outlier-detection.failure-percentage-threshold:50}")
+    private int outlierFailurePercentageThreshold;
+
+    @Value("${gateway.grpc.load-balancing.outlier-detection.minimum-hosts:2}")
+    private int outlierMinimumHosts;
+
+    @Value("${gateway.grpc.load-balancing.outlier-detection.request-volume:10}")
+    private int outlierRequestVolume;
+
+    @Value("${gateway.grpc.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${gateway.grpc.retry.initial-backoff:100ms}")
+    private Duration retryInitialBackoff;
+
+    @Value("${gateway.grpc.retry.max-backoff:1s}")
+    private Duration retryMaxBackoff;
+
+    @Value("${gateway.grpc.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${gateway.grpc.hedging.max-attempts:2}")
+    private int hedgingMaxAttempts;
+
+    @Value("${gateway.grpc.hedging.delay:50ms}")
+    private Duration hedgingDelay;
+
+    @Value("${gateway.grpc.circuit-breaker.window-size:20}")
+    private int circuitWindowSize;
+
+    @Value("${gateway.grpc.circuit-breaker.minimum-calls:10}")
+    private int circuitMinimumCalls;
+
+    @Value("${gateway.grpc.circuit-breaker.failure-rate-threshold:0.5}")
+    private double circuitFailureRateThreshold;
+
+    @Value("${gateway.grpc.circuit-breaker.open-duration:10s}")
+    private Duration circuitOpenDuration;
+
+    @Value("${gateway.grpc.circuit-breaker.half-open-calls:3}")
+    private int circuitHalfOpenCalls;
+
+    @Value("${gateway.grpc.bulkhead.max-concurrent-calls:64}")
+    private int bulkheadMaxConcurrentCalls;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    public GrpcClientConfig(Environment environment, MeterRegistry meterRegistry,
+                            AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
     @Bean
     public ManagedChannel bookServiceChannel() {
-        return ManagedChannelBuilder.forTarget(bookServiceAddress.replace("static://", ""))
-                .usePlaintext()
-                .build();
+        List<String> hedged = hedgingEnabled ? List.of(HEDGED_BOOK_METHOD) : List.of();
+        return channel(bookServiceAddress, serviceConfig(BOOK_SERVICE, timeouts("book-service"),
+                RETRIED_BOOK_METHODS, hedged), hedged.stream().map(method -> BOOK_SERVICE + "/" + method).toList());
     }
 
     @Bean
     public ManagedChannel userServiceChannel() {
-        return ManagedChannelBuilder.forTarget(userServiceAddress.replace("static://", ""))
-                .usePlaintext()
-                .build();
+        return channel(userServiceAddress, serviceConfig(USER_SERVICE, timeouts("user-service"),
+                RETRIED_USER_METHODS, List.of()), List.of());
+    }
+
+    @Bean
+    public ServiceGuardInterceptor serviceGuardInterceptor() {
+        return new ServiceGuardInterceptor(circuitWindowSize, circuitMinimumCalls, circuitFailureRateThreshold,
+                circuitOpenDuration, circuitHalfOpenCalls, bulkheadMaxConcurrentCalls, meterRegistry);
+    }
+
+    @Bean
+    public SubchannelMetricsClientInterceptor subchannelMetricsInterceptor() {
+        return new SubchannelMetricsClientInterceptor(meterRegistry);
+    }
+
+    @Bean
+    public RequestDeadlineInstrumentation requestDeadlineInstrumentation() {
+        return new RequestDeadlineInstrumentation();
     }
 
     @Bean
@@ -45,4 +188,125 @@ public class GrpcClientConfig {
     public UserServiceGrpc.UserServiceBlockingStub userServiceBlockingStub() {
         return UserServiceGrpc.newBlockingStub(userServiceChannel());
     }
-}
\ No newline at end of file
+
+    @Bean
+    @ConditionalOnMissingBean
+    public BookServiceGrpc.BookServiceFutureStub bookServiceFutureStub() {
+        return BookServiceGrpc.newFutureStub(bookServiceChannel());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public BookServiceGrpc.BookServiceStub bookServiceStub() {
+        return BookServiceGrpc.newStub(bookServiceChannel());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public UserServiceGrpc.UserServiceFutureStub userServiceFutureStub() {
+        return UserServiceGrpc.newFutureStub(userServiceChannel());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public UserServiceGrpc.UserServiceStub userServiceStub() {
+        return UserServiceGrpc.newStub(userServiceChannel());
+    }
+
+    private ManagedChannel channel(String address, Map<String, ?> serviceConfig, List<String> hedgedMethods) {
+        ManagedChannel channel = channelBuilder(address)
+                .defaultServiceConfig(serviceConfig)
+                .enableRetry()
+                // Interceptors run last-added first: the deadline is set before the guard sees the call
+                .intercept(subchannelMetricsInterceptor(),
+                        new RetryMetricsClientInterceptor(meterRegistry, Set.copyOf(hedgedMethods)),
+                        concurrencyLimiter.latencySampler(),
+                        serviceGuardInterceptor(),
+                        new RequestDeadlineClientInterceptor())
+                .build();
+        // Connect now so the first request does not spend its per-method timeout on it
+        channel.getState(true);
+        return channel;
+    }
+
+    /** Builder for a service address: an in-process name or a {@code static://} or {@code dns:///} target */
+    static ManagedChannelBuilder<?> channelBuilder(String address) {
+        return address.startsWith(IN_PROCESS_PREFIX)
+                ? InProcessChannelBuilder.forName(address.substring(IN_PROCESS_PREFIX.length()))
+                : ManagedChannelBuilder.forTarget(address).usePlaintext();
+    }
+
+    /** Per-method timeouts under {@code gateway.grpc.<service>.timeouts}, keyed by method name */
+    private Map<String, Duration> timeouts(String service) {
+        return Binder.get(environment)
+                .bind("gateway.grpc." + service + ".timeouts", Bindable.mapOf(String.class, Duration.class))
+                .orElse(Map.of());
+    }
+
+    /**
+     * Builds a service config in the JSON-like map form gRPC expects, where numbers are
+     * doubles and durations are strings such as {@code "0.5s"}.
+     */
+    private Map<String, ?> serviceConfig(String service, Map<String, Duration> timeouts,
+                                         List<String> retried, List<String> hedged) {
+        Set<String> methods = new TreeSet<>(timeouts.keySet());
+        methods.addAll(retried);
+        methods.addAll(hedged);
+
+        List<Map<String, ?>> methodConfigs = new ArrayList<>();
+        for (String method : methods) {
+            Map<String, Object> methodConfig = new LinkedHashMap<>();
+            methodConfig.put("name", List.of(Map.of("service", service, "method", method)));
+            if (timeouts.containsKey(method)) {
+                methodConfig.put("timeout", durationString(timeouts.get(method)));
+            }
+            if (hedged.contains(method)) {
+                methodConfig.put("hedgingPolicy", Map.of(
+                        "maxAttempts", (double) hedgingMaxAttempts,
+                        "hedgingDelay", durationString(hedgingDelay),
+                        "nonFatalStatusCodes", RETRYABLE_STATUS_CODES));
+            } else if (retried.contains(method)) {
+                methodConfig.put("retryPolicy", Map.of(
+                        "maxAttempts", (double) retryMaxAttempts,
+                        "initialBackoff", durationString(retryInitialBackoff),
+                        "maxBackoff", durationString(retryMaxBackoff),
+                        "backoffMultiplier", 2.0,
+                        "retryableStatusCodes", RETRYABLE_STATUS_CODES));
+            }
+            methodConfigs.add(methodConfig);
+        }
+
+        Map<String, Object> serviceConfig = new LinkedHashMap<>();
+        serviceConfig.put("loadBalancingConfig", List.of(loadBalancingConfig()));
+        if (healthCheckEnabled) {
+            // The empty service name asks for the server's overall health
+            serviceConfig.put("healthCheckConfig", Map.of("serviceName", ""));
+        }
+        serviceConfig.put("methodConfig", methodConfigs);
+        // Stops retrying and hedging once more than half of recent calls have failed
+        serviceConfig.put("retryThrottling", Map.of("maxTokens", 10.0, "tokenRatio", 0.1));
+        return serviceConfig;
+    }
+
+    /** The balancing policy, wrapped in outlier detection if enabled */
+    private Map<String, ?> loadBalancingConfig() {
+        Map<String, ?> policy = Map.of(loadBalancingPolicy, Map.of());
+        if (!outlierDetectionEnabled) {
+            return policy;
+        }
+        return Map.of("outlier_detection_experimental", Map.of(
+                "interval", durationString(outlierDetectionInterval),
+                "baseEjectionTime", durationString(outlierBaseEjectionTime),
+                "maxEjectionPercentage", (double) outlierMaxEjectionPercent,
+                "failurePercentageEjection", Map.of(
+                        "threshold", (double) outlierFailurePercentageThreshold,
+                        "enforcementPercentage", 100.0,
+                        "minimumHosts", (double) outlierMinimumHosts,
+                        "requestVolume", (double) outlierRequestVolume),
+                "childPolicy", List.of(policy)));
+    }
+
+    private static String durationString(Duration duration) {
+        return BigDecimal.valueOf(duration.toMillis(), 3).toPlainString() + "s";
+    }
+}
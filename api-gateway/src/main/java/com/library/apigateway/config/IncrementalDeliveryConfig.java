@@ -0,0 +1,51 @@
+package com.library.apigateway.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.apigateway.incremental.StreamedItemExecutor;
+import com.library.apigateway.web.IncrementalDeliveryHandler;
+import com.library.apigateway.web.OperationBatchHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.RequestPredicates;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "graphql.incremental-delivery.enabled", havingValue = "true", matchIfMissing = true)
+public class IncrementalDeliveryConfig {
+
+    @Bean
+    public StreamedItemExecutor streamedItemExecutor(GraphQlSource graphQlSource, BatchLoaderRegistry batchLoaderRegistry) {
+        return new StreamedItemExecutor(graphQlSource, batchLoaderRegistry);
+    }
+
+    @Bean
+    public IncrementalDeliveryHandler incrementalDeliveryHandler(WebGraphQlHandler webGraphQlHandler,
+                                                                 StreamedItemExecutor streamedItemExecutor,
+                                                                 ObjectMapper objectMapper) {
+        return new IncrementalDeliveryHandler(webGraphQlHandler, streamedItemExecutor, objectMapper);
+    }
+
+    /** Ahead of Spring GraphQL's own route, which would answer multipart clients with plain JSON */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public RouterFunction<ServerResponse> incrementalDeliveryRouterFunction(IncrementalDeliveryHandler handler,
+                                                                            @Value("${spring.graphql.path:/graphql}") String path) {
+        return RouterFunctions.route()
+                .POST(path, RequestPredicates.contentType(MediaType.APPLICATION_JSON)
+                        .and(IncrementalDeliveryHandler::acceptsMultipart)
+                        .and(request -> !OperationBatchHandler.isBatch(request)), handler::handleRequest)
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.apigateway.config;
+
+import com.library.apigateway.web.OperationBatchHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.RequestPredicates;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "graphql.batching.enabled", havingValue = "true", matchIfMissing = true)
+public class OperationBatchConfig {
+
+    @Bean
+    public OperationBatchHandler operationBatchHandler(WebGraphQlHandler webGraphQlHandler,
+                                                       @Value("${graphql.batching.max-operations:10}") int maxOperations,
+                                                       @Value("${graphql.batching.max-dispatch-delay:10ms}") Duration maxDispatchDelay) {
+        return new OperationBatchHandler(webGraphQlHandler, maxOperations, maxDispatchDelay);
+    }
+
+    /** Ahead of Spring GraphQL's own route, which only reads a single operation per request */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public RouterFunction<ServerResponse> operationBatchRouterFunction(OperationBatchHandler handler,
+                                                                       @Value("${spring.graphql.path:/graphql}") String path) {
+        return RouterFunctions.route()
+                .POST(path, RequestPredicates.contentType(MediaType.APPLICATION_JSON)
+                        .and(OperationBatchHandler::isBatch), handler::handleRequest)
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.library.apigateway.config;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Static cost of a field, computed from the query document before execution.
+ * <p>
+ * Every field costs 1, fields resolved through a gRPC call cost {@code rpcWeight}
+ * instead, and list fields multiply the cost of their selection by the expected list
+ * size. The size comes from a {@code limit} or {@code first} argument on the field or
+ * its parent (directly or inside an {@code input} object) and falls back to
+ * {@code defaultListSize} for unbounded lists such as {@code Book.borrowedBy}.
+ */
+public class QueryCostCalculator implements FieldComplexityCalculator {
+
+    private static final Set<String> ROOT_TYPES = Set.of("Query", "Mutation");
+
+    /** Non-root fields whose resolvers call a backend service */
+    private static final Set<String> RPC_FIELDS = Set.of("Book.borrowedBy", "User.borrowedBooks");
+
+    private static final String LIMIT_ARGUMENT = "limit";
+    private static final String FIRST_ARGUMENT = "first";
+    private static final String INPUT_ARGUMENT = "input";
+
+    private final int rpcWeight;
+    private final int defaultListSize;
+
+    public QueryCostCalculator(int rpcWeight, int defaultListSize) {
+        this.rpcWeight = rpcWeight;
+        this.defaultListSize = defaultListSize;
+    }
+
+    @Override
+    public int calculate(FieldComplexityEnvironment environment, int childComplexity) {
+        int weight = isRpcBacked(environment) ? rpcWeight : 1;
+        int multiplier = isList(environment.getFieldDefinition().getType()) ? listSize(environment) : 1;
+        return saturatedAdd(weight, saturatedMultiply(multiplier, childComplexity));
+    }
+
+    private boolean isRpcBacked(FieldComplexityEnvironment environment) {
+        String parentType = environment.getParentType().getName();
+        return ROOT_TYPES.contains(parentType)
+                || RPC_FIELDS.contains(parentType + "." + environment.getFieldDefinition().getName());
+    }
+
+    private static boolean isList(GraphQLType type) {
+        return GraphQLTypeUtil.unwrapNonNull(type) instanceof GraphQLList;
+    }
+
+    private int listSize(FieldComplexityEnvironment environment) {
+        Integer limit = limitArgument(environment.getArguments());
+        if (limit == null && environment.getParentEnvironment() != null) {
+            limit = limitArgument(environment.getParentEnvironment().getArguments());
+        }
+        return limit != null && limit > 0 ? limit : defaultListSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Integer limitArgument(Map<String, Object> arguments) {
+        if (arguments == null) {
+            return null;
+        }
+        if (arguments.get(LIMIT_ARGUMENT) instanceof Integer limit) {
+            return limit;
+        }
+        if (arguments.get(FIRST_ARGUMENT) instanceof Integer first) {
+            return first;
+        }
+        if (arguments.get(INPUT_ARGUMENT) instanceof Map<?, ?> input
+                && ((Map<String, Object>) input).get(LIMIT_ARGUMENT) instanceof Integer limit) {
+            return limit;
+        }
+        return null;
+    }
+
+    private static int saturatedAdd(int a, int b) {
+        long sum = (long) a + b;
+        return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+
+    private static int saturatedMultiply(int a, int b) {
+        long product = (long) a * b;
+        return product > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) product;
+    }
+}
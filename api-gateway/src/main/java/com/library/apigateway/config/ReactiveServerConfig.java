@@ -0,0 +1,72 @@
+package com.library.apigateway.config;
+
+import com.library.apigateway.client.ResolverMode;
+import com.library.apigateway.web.OperationBatchHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reactive stack, enabled by the {@code reactive} profile: GraphQL is served by WebFlux on
+ * Netty event loops. In async resolver mode the service clients and the DataLoader batch
+ * loaders both use the future and async stubs, so no downstream call holds a thread; the
+ * blocking resolver mode is refused because its clients call blocking stubs directly.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveServerConfig {
+
+    public ReactiveServerConfig(@Value("${gateway.resolver.mode:async}") ResolverMode mode) {
+        if (mode == ResolverMode.BLOCKING) {
+            throw new IllegalStateException(
+                    "gateway.resolver.mode=blocking would block Netty event loops; use async with the reactive stack");
+        }
+        log.info("Serving GraphQL on the reactive stack");
+    }
+
+    /** Tomcat is also on the classpath for the servlet stack, and Spring Boot would prefer it */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /** Reactive counterpart of the servlet route in {@link OperationBatchConfig} */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @ConditionalOnProperty(name = "graphql.batching.enabled", havingValue = "true", matchIfMissing = true)
+    public RouterFunction<ServerResponse> reactiveOperationBatchRouterFunction(OperationBatchHandler handler,
+                                                                               @Value("${spring.graphql.path:/graphql}") String path) {
+        return RouterFunctions.route()
+                .POST(path, RequestPredicates.contentType(MediaType.APPLICATION_JSON)
+                        .and(request -> request.attribute(OperationBatchHandler.BATCH_ATTRIBUTE).isPresent()),
+                        request -> request.bodyToMono(new ParameterizedTypeReference<List<Map<String, Object>>>() {})
+                                .flatMap(bodies -> {
+                                    Map<String, Object> rejection = handler.rejection(bodies);
+                                    if (rejection != null) {
+                                        return ServerResponse.badRequest().bodyValue(rejection);
+                                    }
+                                    return handler.execute(bodies, request.uri(), request.headers().asHttpHeaders(),
+                                                    request.attributes())
+                                            .flatMap(results -> ServerResponse.ok()
+                                                    .contentType(MediaType.APPLICATION_JSON)
+                                                    .bodyValue(results));
+                                }))
+                .build();
+    }
+}
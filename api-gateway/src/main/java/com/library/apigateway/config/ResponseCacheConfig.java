@@ -0,0 +1,55 @@
+package com.library.apigateway.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.apigateway.cache.PreparsedDocumentCache;
+import com.library.apigateway.cache.ResponseCache;
+import com.library.apigateway.cache.ResponseCacheInterceptor;
+import com.library.apigateway.cache.ResponseCacheTagInstrumentation;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+public class ResponseCacheConfig {
+
+    @Value("${graphql.response-cache.enabled:false}")
+    private boolean responseCacheEnabled;
+
+    @Value("${graphql.response-cache.maximum-size:10000}")
+    private long responseCacheMaximumSize;
+
+    @Bean
+    public ResponseCache responseCache(Environment environment, MeterRegistry meterRegistry) {
+        if (!responseCacheEnabled) {
+            return ResponseCache.disabled();
+        }
+        // Root query fields that may be cached, with their TTL
+        Map<String, Duration> ttlByRootField = Binder.get(environment)
+                .bind("graphql.response-cache.ttl", Bindable.mapOf(String.class, Duration.class))
+                .orElse(Map.of());
+        return ResponseCache.create("gateway.responses", responseCacheMaximumSize, ttlByRootField, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "graphql.response-cache.enabled", havingValue = "true")
+    public ResponseCacheInterceptor responseCacheInterceptor(ResponseCache responseCache,
+                                                             ObjectProvider<PreparsedDocumentCache> preparsedDocumentCache,
+                                                             ObjectMapper objectMapper) {
+        return new ResponseCacheInterceptor(responseCache, preparsedDocumentCache, objectMapper, 1000);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "graphql.response-cache.enabled", havingValue = "true")
+    public ResponseCacheTagInstrumentation responseCacheTagInstrumentation() {
+        return new ResponseCacheTagInstrumentation();
+    }
+}
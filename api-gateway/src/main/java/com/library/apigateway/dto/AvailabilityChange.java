@@ -0,0 +1,23 @@
+package com.library.apigateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityChange {
+    private String bookId;
+    private Integer availableCopies;
+    private Integer totalCopies;
+    private LocalDateTime changedAt;
+
+    public Boolean getIsAvailable() {
+        return availableCopies != null && availableCopies > 0;
+    }
+}
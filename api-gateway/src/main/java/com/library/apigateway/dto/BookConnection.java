@@ -0,0 +1,17 @@
+package com.library.apigateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookConnection {
+    private List<BookEdge> edges;
+    private PageInfo pageInfo;
+}
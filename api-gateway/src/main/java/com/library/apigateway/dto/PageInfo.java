@@ -0,0 +1,17 @@
+package com.library.apigateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageInfo {
+    private Boolean hasNextPage;
+    private Boolean hasPreviousPage;
+    private String startCursor;
+    private String endCursor;
+}
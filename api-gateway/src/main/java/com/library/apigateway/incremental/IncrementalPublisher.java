@@ -0,0 +1,178 @@
+package com.library.apigateway.incremental;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the subsequent payloads of one incrementally delivered request.
+ * <p>
+ * Resolvers find the publisher in the GraphQL context under {@link #CONTEXT_KEY} and open
+ * an {@link ItemStream} for each {@code @stream} they honour. Items are completed as they
+ * arrive and published in order as {@code {"incremental": [{"items": [...], "path": [...]}]}}
+ * payloads; once the initial execution and every stream have finished, a final
+ * {@code {"hasNext": false}} closes the response.
+ */
+@Slf4j
+public class IncrementalPublisher {
+
+    public static final String CONTEXT_KEY = IncrementalPublisher.class.getName();
+
+    private final StreamedItemExecutor itemExecutor;
+    private final Map<String, Object> variables;
+    private final Sinks.Many<Map<String, Object>> payloads = Sinks.many().unicast().onBackpressureBuffer();
+    private final List<Disposable> sources = new CopyOnWriteArrayList<>();
+    // The initial execution plus one per open stream
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private volatile boolean streaming;
+
+    public IncrementalPublisher(StreamedItemExecutor itemExecutor, Map<String, Object> variables) {
+        this.itemExecutor = itemExecutor;
+        this.variables = variables;
+    }
+
+    /** The publisher of the current request, or {@code null} when it is not delivered incrementally. */
+    public static IncrementalPublisher from(DataFetchingEnvironment environment) {
+        return environment.getGraphQlContext().get(CONTEXT_KEY);
+    }
+
+    public ItemStream openStream(StreamDirective directive, DataFetchingEnvironment environment) {
+        streaming = true;
+        pending.incrementAndGet();
+        List<Object> listPath = new ArrayList<>(environment.getExecutionStepInfo().getPath().toList());
+        listPath.add(directive.resultKey());
+        return new ItemStream(directive, environment, listPath);
+    }
+
+    /** Whether any stream was opened, i.e. subsequent payloads follow the initial one. */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /** Called once the initial payload is complete. */
+    public void executionFinished() {
+        release();
+    }
+
+    public Flux<Map<String, Object>> subsequentPayloads() {
+        return payloads.asFlux().doOnCancel(this::cancel);
+    }
+
+    private void cancel() {
+        log.debug("Incremental response cancelled, stopping {} stream(s)", sources.size());
+        sources.forEach(Disposable::dispose);
+    }
+
+    private synchronized void emit(Map<String, Object> incremental) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("incremental", List.of(incremental));
+        payload.put("hasNext", true);
+        payloads.tryEmitNext(payload);
+    }
+
+    private synchronized void release() {
+        if (pending.decrementAndGet() == 0) {
+            if (streaming) {
+                payloads.tryEmitNext(Map.of("hasNext", false));
+            }
+            payloads.tryEmitComplete();
+        }
+    }
+
+    /**
+     * Items of one streamed list beyond those sent in the initial payload. Calls must be
+     * serialised, as they are when driven by a single gRPC response stream.
+     */
+    public final class ItemStream {
+
+        private final StreamDirective directive;
+        private final DataFetchingEnvironment environment;
+        private final List<Object> listPath;
+        private CompletableFuture<Void> published = CompletableFuture.completedFuture(null);
+        private int nextIndex;
+
+        private ItemStream(StreamDirective directive, DataFetchingEnvironment environment, List<Object> listPath) {
+            this.directive = directive;
+            this.environment = environment;
+            this.listPath = listPath;
+            this.nextIndex = directive.initialCount();
+        }
+
+        /** Ties the source of the items to the response, so a disconnecting client stops it. */
+        public void attach(Disposable source) {
+            sources.add(source);
+        }
+
+        /** Completes {@code item} concurrently with earlier ones but publishes it after them. */
+        public void item(Object item) {
+            List<Object> itemPath = path(nextIndex++);
+            CompletableFuture<ExecutionResult> result = itemExecutor.execute(directive, item, environment, variables);
+            published = published.thenCombine(result, (previous, executionResult) -> {
+                emit(itemsPayload(itemPath, executionResult.getData(), executionResult.getErrors().stream()
+                        .map(error -> withPathPrefix(error, itemPath))
+                        .toList()));
+                return null;
+            });
+        }
+
+        public void complete() {
+            published.whenComplete((ignored, error) -> release());
+        }
+
+        public void fail(Throwable error) {
+            log.warn("Stream {} failed after {} item(s): {}", listPath, nextIndex, error.getMessage());
+            List<Object> itemPath = path(nextIndex);
+            published.whenComplete((ignored, publishError) -> {
+                emit(itemsPayload(itemPath, null, List.of(GraphqlErrorBuilder.newError()
+                        .message("Stream interrupted: " + error.getMessage())
+                        .path(listPath)
+                        .build()
+                        .toSpecification())));
+                release();
+            });
+        }
+
+        private List<Object> path(int index) {
+            List<Object> path = new ArrayList<>(listPath);
+            path.add(index);
+            return path;
+        }
+
+        private Map<String, Object> itemsPayload(List<Object> itemPath, Object data, List<Map<String, Object>> errors) {
+            Map<String, Object> incremental = new LinkedHashMap<>();
+            incremental.put("items", data != null ? List.of(data) : null);
+            incremental.put("path", itemPath);
+            if (directive.label() != null) {
+                incremental.put("label", directive.label());
+            }
+            if (!errors.isEmpty()) {
+                incremental.put("errors", errors);
+            }
+            return incremental;
+        }
+    }
+
+    /** Item errors carry paths relative to the item; clients expect them from the operation root. */
+    private static Map<String, Object> withPathPrefix(GraphQLError error, List<Object> itemPath) {
+        Map<String, Object> specification = new LinkedHashMap<>(error.toSpecification());
+        if (error.getPath() != null && !error.getPath().isEmpty()) {
+            List<Object> path = new ArrayList<>(itemPath);
+            path.addAll(error.getPath());
+            specification.put("path", path);
+        }
+        return specification;
+    }
+}
@@ -0,0 +1,121 @@
+package com.library.apigateway.incremental;
+
+import graphql.language.Argument;
+import graphql.language.BooleanValue;
+import graphql.language.Directive;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.IntValue;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.language.StringValue;
+import graphql.language.Value;
+import graphql.language.VariableReference;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An enabled {@code @stream} on a list field selected directly below the field being
+ * resolved, e.g. {@code searchBooks { books @stream(initialCount: 5) { title } }}.
+ *
+ * @param resultKey     response key of the streamed list (its alias, if any)
+ * @param itemType      object type of the list items
+ * @param itemSelection selection set applied to each streamed item
+ */
+public record StreamDirective(String label, int initialCount, String resultKey,
+                              GraphQLObjectType itemType, SelectionSet itemSelection) {
+
+    public static final String NAME = "stream";
+
+    /**
+     * The {@code @stream} on child field {@code fieldName}, or {@code null} when it is absent,
+     * disabled with {@code if: false}, or the field is not a list of objects.
+     */
+    public static StreamDirective find(DataFetchingEnvironment environment, String fieldName) {
+        List<Field> children = new ArrayList<>();
+        for (Field field : environment.getMergedField().getFields()) {
+            collect(field.getSelectionSet(), fieldName, environment.getFragmentsByName(), children);
+        }
+
+        Field streamed = children.stream()
+                .filter(child -> !child.getDirectives(NAME).isEmpty())
+                .findFirst()
+                .orElse(null);
+        if (streamed == null) {
+            return null;
+        }
+        Directive directive = streamed.getDirectives(NAME).get(0);
+        Map<String, Object> variables = environment.getVariables();
+        if (Boolean.FALSE.equals(argument(directive, "if", variables))) {
+            return null;
+        }
+
+        GraphQLType parentType = GraphQLTypeUtil.unwrapAll(environment.getFieldType());
+        if (!(parentType instanceof GraphQLFieldsContainer container)
+                || !(GraphQLTypeUtil.unwrapAll(container.getFieldDefinition(fieldName).getType())
+                        instanceof GraphQLObjectType itemType)) {
+            return null;
+        }
+
+        // Same-keyed selections of the field are merged, as in normal execution
+        String resultKey = streamed.getResultKey();
+        List<Selection> itemSelections = new ArrayList<>();
+        children.stream()
+                .filter(child -> child.getResultKey().equals(resultKey) && child.getSelectionSet() != null)
+                .forEach(child -> itemSelections.addAll(child.getSelectionSet().getSelections()));
+
+        Object initialCount = argument(directive, "initialCount", variables);
+        return new StreamDirective(
+                (String) argument(directive, "label", variables),
+                initialCount instanceof Integer count ? Math.max(0, count) : 0,
+                resultKey,
+                itemType,
+                SelectionSet.newSelectionSet().selections(itemSelections).build());
+    }
+
+    private static void collect(SelectionSet selectionSet, String fieldName,
+                                Map<String, FragmentDefinition> fragments, List<Field> into) {
+        if (selectionSet == null) {
+            return;
+        }
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field field && field.getName().equals(fieldName)) {
+                into.add(field);
+            } else if (selection instanceof InlineFragment inlineFragment) {
+                collect(inlineFragment.getSelectionSet(), fieldName, fragments, into);
+            } else if (selection instanceof FragmentSpread spread && fragments.containsKey(spread.getName())) {
+                collect(fragments.get(spread.getName()).getSelectionSet(), fieldName, fragments, into);
+            }
+        }
+    }
+
+    private static Object argument(Directive directive, String name, Map<String, Object> variables) {
+        Argument argument = directive.getArgument(name);
+        if (argument == null) {
+            return null;
+        }
+        Value<?> value = argument.getValue();
+        if (value instanceof VariableReference variable) {
+            return variables.get(variable.getName());
+        }
+        if (value instanceof IntValue intValue) {
+            return intValue.getValue().intValue();
+        }
+        if (value instanceof BooleanValue booleanValue) {
+            return booleanValue.isValue();
+        }
+        if (value instanceof StringValue stringValue) {
+            return stringValue.getValue();
+        }
+        return null;
+    }
+}
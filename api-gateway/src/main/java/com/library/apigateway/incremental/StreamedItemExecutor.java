@@ -0,0 +1,99 @@
+package com.library.apigateway.incremental;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.GraphQL;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.language.Definition;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.dataloader.DataLoaderRegistry;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.graphql.execution.GraphQlSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Completes the selection set of a streamed list item against the item itself.
+ * <p>
+ * Each item type gets a copy of the gateway schema rooted at that type, sharing its code
+ * registry, so the item's fields resolve through the same data fetchers and DataLoaders as
+ * in the full operation. The selection was validated with the original operation, so the
+ * synthetic document is handed to graphql-java without being parsed or validated again.
+ */
+@Slf4j
+public class StreamedItemExecutor {
+
+    private static final String DOCUMENT_KEY = StreamedItemExecutor.class.getName() + ".document";
+    private static final String QUERY_PLACEHOLDER = "# streamed item";
+
+    private final GraphQlSource graphQlSource;
+    private final BatchLoaderRegistry batchLoaderRegistry;
+    private final Map<String, GraphQL> graphQlByItemType = new ConcurrentHashMap<>();
+
+    public StreamedItemExecutor(GraphQlSource graphQlSource, BatchLoaderRegistry batchLoaderRegistry) {
+        this.graphQlSource = graphQlSource;
+        this.batchLoaderRegistry = batchLoaderRegistry;
+    }
+
+    /**
+     * Executes {@code stream.itemSelection()} with {@code item} as the root object. The
+     * returned future never fails; errors are reported in the result instead.
+     *
+     * @param environment the environment of the field that opened the stream, for its
+     *                    fragments and variable definitions
+     * @param variables   the raw request variables
+     */
+    public CompletableFuture<ExecutionResult> execute(StreamDirective stream, Object item,
+                                                      DataFetchingEnvironment environment,
+                                                      Map<String, Object> variables) {
+        List<Definition> definitions = new ArrayList<>(environment.getFragmentsByName().values());
+        definitions.add(OperationDefinition.newOperationDefinition()
+                .operation(OperationDefinition.Operation.QUERY)
+                .variableDefinitions(environment.getOperationDefinition().getVariableDefinitions())
+                .selectionSet(stream.itemSelection())
+                .build());
+        Document document = Document.newDocument().definitions(definitions).build();
+
+        DataLoaderRegistry dataLoaderRegistry = new DataLoaderRegistry();
+        ExecutionInput executionInput = ExecutionInput.newExecutionInput()
+                .query(QUERY_PLACEHOLDER)
+                .root(item)
+                .variables(variables)
+                .graphQLContext(Map.of(DOCUMENT_KEY, document))
+                .dataLoaderRegistry(dataLoaderRegistry)
+                .build();
+        batchLoaderRegistry.registerDataLoaders(dataLoaderRegistry, executionInput.getGraphQLContext());
+
+        return graphQl(stream.itemType().getName())
+                .executeAsync(executionInput)
+                .exceptionally(error -> {
+                    log.error("Failed to complete streamed {} item", stream.itemType().getName(), error);
+                    return ExecutionResultImpl.newExecutionResult()
+                            .addError(GraphqlErrorBuilder.newError().message("Failed to complete streamed item").build())
+                            .build();
+                });
+    }
+
+    private GraphQL graphQl(String itemTypeName) {
+        return graphQlByItemType.computeIfAbsent(itemTypeName, typeName -> {
+            GraphQLSchema schema = graphQlSource.schema();
+            GraphQLSchema itemSchema = GraphQLSchema.newSchema(schema)
+                    .query(schema.getObjectType(typeName))
+                    .build();
+            return GraphQL.newGraphQL(itemSchema)
+                    .preparsedDocumentProvider((executionInput, parseAndValidate) ->
+                            new PreparsedDocumentEntry(executionInput.getGraphQLContext().<Document>get(DOCUMENT_KEY)))
+                    .build();
+        });
+    }
+}
@@ -1,12 +1,38 @@
 package com.library.apigateway.mapper;
 
+import com.google.protobuf.FieldMask;
+import com.library.apigateway.dto.AvailabilityChange;
 import com.library.apigateway.dto.Book;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
 import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Component
 public class BookMapper {
 
+    /** Proto Book fields needed to resolve each GraphQL Book field */
+    private static final Map<String, String> PROTO_FIELDS = Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("title", "title"),
+            Map.entry("author", "author"),
+            Map.entry("isbn", "isbn"),
+            Map.entry("publisher", "publisher"),
+            Map.entry("publicationYear", "publication_year"),
+            Map.entry("genre", "genre"),
+            Map.entry("totalCopies", "total_copies"),
+            Map.entry("availableCopies", "available_copies"),
+            Map.entry("description", "description"),
+            Map.entry("language", "language"),
+            Map.entry("pages", "pages"),
+            Map.entry("isAvailable", "available_copies"),
+            Map.entry("borrowedBy", "id"));
+
     public Book toBook(com.library.bookservice.grpc.Book protoBook) {
         if (protoBook == null) {
             return null;
@@ -28,4 +54,33 @@ public class BookMapper {
                 .borrowedBy(new ArrayList<>())
                 .build();
     }
-}
\ No newline at end of file
+
+    public AvailabilityChange toAvailabilityChange(com.library.bookservice.grpc.AvailabilityChange protoChange) {
+        return AvailabilityChange.builder()
+                .bookId(protoChange.getBookId())
+                .availableCopies(protoChange.getAvailableCopies())
+                .totalCopies(protoChange.getTotalCopies())
+                .changedAt(LocalDateTime.ofEpochSecond(protoChange.getChangedAt(), 0, ZoneOffset.UTC))
+                .build();
+    }
+
+    /**
+     * Field mask covering the Book fields selected under {@code bookPath} (e.g. {@code "books"}
+     * or {@code "edges/node"}), so book-service reads only those columns. Falls back to an
+     * empty mask, meaning every field, when a selected field has no known proto source.
+     */
+    public FieldMask toFieldMask(DataFetchingFieldSelectionSet selectionSet, String bookPath) {
+        Set<String> paths = new TreeSet<>(Set.of("id"));
+        for (SelectedField field : selectionSet.getFields(bookPath + "/*")) {
+            if (field.getName().startsWith("__")) {
+                continue;
+            }
+            String path = PROTO_FIELDS.get(field.getName());
+            if (path == null) {
+                return FieldMask.getDefaultInstance();
+            }
+            paths.add(path);
+        }
+        return FieldMask.newBuilder().addAllPaths(paths).build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.library.apigateway.metrics;
+
+import com.library.apigateway.web.SharedDataLoaderRegistry;
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.GraphQLNamedType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.dataloader.DataLoaderRegistry;
+import org.dataloader.stats.Statistics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exports where GraphQL execution time goes as Micrometer meters.
+ * <ul>
+ *   <li>{@code gateway.graphql.field} times every non-trivial data fetcher per field
+ *   coordinate ({@code Query.searchBooks}, {@code Book.borrowedBy}) until its value is
+ *   available, so time spent waiting on a DataLoader batch is included.</li>
+ *   <li>{@code gateway.graphql.operation} times whole operations by type, with
+ *   {@code gateway.graphql.operation.fields} and {@code gateway.graphql.operation.batches}
+ *   counting the fields fetched and DataLoader batches dispatched by each.</li>
+ *   <li>{@code gateway.dataloader.*} records, per DataLoader, the keys loaded, the keys
+ *   answered from the per-request cache, and the size of the batches sent, read from the
+ *   loaders' statistics when the operation ends.</li>
+ * </ul>
+ * DataLoaders shared by a batched request are reported once across its operations.
+ * Property fetchers are not timed unless {@code graphql.metrics.include-trivial-fields}
+ * is set: they make up most fields and cost nothing worth measuring.
+ */
+public class GraphQlMetricsInstrumentation extends SimplePerformantInstrumentation {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean includeTrivialFields;
+    private final Map<String, Timer> fieldTimers = new ConcurrentHashMap<>();
+    private final Map<String, LoaderMeters> loaderMeters = new ConcurrentHashMap<>();
+
+    public GraphQlMetricsInstrumentation(MeterRegistry meterRegistry, boolean includeTrivialFields) {
+        this.meterRegistry = meterRegistry;
+        this.includeTrivialFields = includeTrivialFields;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new OperationState();
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        OperationState operation = (OperationState) state;
+        DataLoaderRegistry dataLoaders = parameters.getExecutionInput().getDataLoaderRegistry();
+        long started = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> {
+            String outcome = throwable != null || result == null || !result.getErrors().isEmpty() ? "error" : "success";
+            Timer.builder("gateway.graphql.operation")
+                    .description("GraphQL operation execution time")
+                    .tag("operation", operation.type)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            summary("gateway.graphql.operation.fields", "Non-trivial fields fetched per operation", operation.type)
+                    .record(operation.fields.get());
+            summary("gateway.graphql.operation.batches", "DataLoader batches dispatched per operation", operation.type)
+                    .record(recordDataLoaders(dataLoaders));
+        });
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ((OperationState) state).type = parameters.getExecutionContext().getOperationDefinition()
+                .getOperation().name().toLowerCase();
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters,
+                                                          InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher() && !includeTrivialFields) {
+            return super.beginFieldFetch(parameters, state);
+        }
+        ((OperationState) state).fields.incrementAndGet();
+        String coordinate = ((GraphQLNamedType) parameters.getExecutionStepInfo().getObjectType()).getName()
+                + "." + parameters.getExecutionStepInfo().getFieldDefinition().getName();
+        long started = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((value, throwable) ->
+                fieldTimer(coordinate, throwable == null ? "success" : "error")
+                        .record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+    }
+
+    private Timer fieldTimer(String coordinate, String outcome) {
+        return fieldTimers.computeIfAbsent(coordinate + "|" + outcome, key -> Timer.builder("gateway.graphql.field")
+                .description("Data fetcher time per field coordinate, including DataLoader waits")
+                .tag("field", coordinate)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private DistributionSummary summary(String name, String description, String operationType) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("operation", operationType)
+                .register(meterRegistry);
+    }
+
+    /** Records each DataLoader's statistics for one operation and returns the batches it dispatched */
+    private long recordDataLoaders(DataLoaderRegistry dataLoaders) {
+        if (dataLoaders == null) {
+            return 0;
+        }
+        long batches = 0;
+        for (String name : dataLoaders.getKeys()) {
+            Statistics statistics = dataLoaders instanceof SharedDataLoaderRegistry.OperationRegistry operation
+                    ? operation.shared().takeStatistics(name)
+                    : dataLoaders.getDataLoader(name).getStatistics();
+            if (statistics.getLoadCount() == 0) {
+                continue;
+            }
+            loaderMeters.computeIfAbsent(name, this::loaderMeters).record(statistics);
+            batches += statistics.getBatchInvokeCount();
+        }
+        return batches;
+    }
+
+    private LoaderMeters loaderMeters(String name) {
+        LoaderMeters meters = new LoaderMeters(
+                Counter.builder("gateway.dataloader.loads")
+                        .description("Keys requested from the DataLoader")
+                        .tag("loader", name)
+                        .register(meterRegistry),
+                Counter.builder("gateway.dataloader.cache.hits")
+                        .description("Keys answered from the DataLoader's per-request cache")
+                        .tag("loader", name)
+                        .register(meterRegistry),
+                DistributionSummary.builder("gateway.dataloader.batch.size")
+                        .description("Keys per batch, averaged over each operation's batches")
+                        .tag("loader", name)
+                        .register(meterRegistry));
+        Gauge.builder("gateway.dataloader.cache.hit.ratio", meters, LoaderMeters::hitRatio)
+                .description("Share of keys answered from the DataLoader's per-request cache")
+                .tag("loader", name)
+                .register(meterRegistry);
+        return meters;
+    }
+
+    private static class OperationState implements InstrumentationState {
+        private volatile String type = "unknown";
+        private final AtomicInteger fields = new AtomicInteger();
+    }
+
+    private record LoaderMeters(Counter loads, Counter cacheHits, DistributionSummary batchSize) {
+
+        void record(Statistics statistics) {
+            loads.increment(statistics.getLoadCount());
+            cacheHits.increment(statistics.getCacheHitCount());
+            if (statistics.getBatchInvokeCount() > 0) {
+                batchSize.record((double) statistics.getBatchLoadCount() / statistics.getBatchInvokeCount());
+            }
+        }
+
+        double hitRatio() {
+            double total = loads.count();
+            return total == 0 ? 0 : cacheHits.count() / total;
+        }
+    }
+}
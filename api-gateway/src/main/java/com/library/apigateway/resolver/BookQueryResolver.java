@@ -1,11 +1,17 @@
 package com.library.apigateway.resolver;
 
+import com.library.apigateway.client.BookServiceClient;
+import com.library.apigateway.client.GrpcFutures;
 import com.library.apigateway.dto.*;
+import com.library.apigateway.exception.ValidationException;
 import com.library.apigateway.mapper.BookMapper;
 import com.library.apigateway.dto.BookResponse;
 import com.library.bookservice.grpc.*;
+import com.library.apigateway.incremental.IncrementalPublisher;
+import com.library.apigateway.incremental.StreamDirective;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import io.grpc.StatusRuntimeException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.Argument;
@@ -13,7 +19,7 @@ import org.springframework.stereotype.Controller;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import com.library.apigateway.dto.BookSearchInput;
 import com.library.apigateway.enums.SearchType;
 
@@ -21,185 +27,288 @@ import com.library.apigateway.enums.SearchType;
 @Slf4j
 public class BookQueryResolver {
 
-    private final BookServiceGrpc.BookServiceBlockingStub bookServiceStub;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final BookServiceClient bookServiceClient;
     private final BookMapper bookMapper;
     
-    public BookQueryResolver(BookServiceGrpc.BookServiceBlockingStub bookServiceStub, BookMapper bookMapper) {
-        this.bookServiceStub = bookServiceStub;
+    public BookQueryResolver(BookServiceClient bookServiceClient, BookMapper bookMapper) {
+        this.bookServiceClient = bookServiceClient;
         this.bookMapper = bookMapper;
-        log.info("BookQueryResolver initialized with bookServiceStub: {} mapper: {}", bookServiceStub, bookMapper);
+        log.info("BookQueryResolver initialized with bookServiceClient: {} mapper: {}", bookServiceClient, bookMapper);
     }
 
     @QueryMapping
-    public BookResponse book(@Argument("id") String id) {
-        System.out.println("RESOLVER METHOD CALLED: book() with id: " + id);
+    public CompletableFuture<BookResponse> book(@Argument("id") String id, DataFetchingFieldSelectionSet selectionSet) {
         log.info("Fetching book with id: {}", id);
         
-        try {
-            BookRequest request = BookRequest.newBuilder()
-                    .setBookId(id)
-                    .build();
-            
-            com.library.bookservice.grpc.BookResponse grpcResponse = bookServiceStub.getBook(request);
-            
-            return BookResponse.builder()
-                    .success(grpcResponse.getSuccess())
-                    .message(grpcResponse.getMessage())
-                    .book(grpcResponse.hasBook() ? bookMapper.toBook(grpcResponse.getBook()) : null)
-                    .build();
-                    
-        } catch (StatusRuntimeException e) {
-            log.error("gRPC error while fetching book: {}", e.getMessage());
-            return BookResponse.builder()
-                    .success(false)
-                    .message("Service temporarily unavailable: " + e.getStatus().getDescription())
-                    .build();
-        } catch (Exception e) {
-            log.error("Unexpected error while fetching book", e);
-            return BookResponse.builder()
-                    .success(false)
-                    .message("An unexpected error occurred")
-                    .build();
-        }
+        BookRequest request = BookRequest.newBuilder()
+                .setBookId(id)
+                .setFieldMask(bookMapper.toFieldMask(selectionSet, "book"))
+                .build();
+        
+        return bookServiceClient.getBook(request)
+                .thenApply(grpcResponse -> BookResponse.builder()
+                        .success(grpcResponse.getSuccess())
+                        .message(grpcResponse.getMessage())
+                        .book(grpcResponse.hasBook() ? bookMapper.toBook(grpcResponse.getBook()) : null)
+                        .build())
+                .exceptionally(throwable -> {
+                    Throwable e = GrpcFutures.unwrap(throwable);
+                    if (e instanceof StatusRuntimeException grpcException) {
+                        log.error("gRPC error while fetching book: {}", grpcException.getMessage());
+                        return BookResponse.builder()
+                                .success(false)
+                                .message("Service temporarily unavailable: " + grpcException.getStatus().getDescription())
+                                .build();
+                    }
+                    log.error("Unexpected error while fetching book", e);
+                    return BookResponse.builder()
+                            .success(false)
+                            .message("An unexpected error occurred")
+                            .build();
+                });
     }
     
     @QueryMapping
     public String testQuery() {
-        System.out.println("TEST QUERY CALLED");
+        log.debug("testQuery called");
         return "Hello World from GraphQL";
     }
 
     @QueryMapping
-    public BooksResponse books() {
+    public CompletableFuture<BooksResponse> books(DataFetchingEnvironment environment) {
         BookSearchInput input = BookSearchInput.builder()
             .query("")
             .searchType(SearchType.ALL)
             .limit(50)
             .offset(0)
             .build();
-        return searchBooks(input);
+        return searchBooks(input, environment);
     }
 
     @QueryMapping
-    public BooksResponse searchBooks(@Argument("input") BookSearchInput input) {
+    public CompletableFuture<BooksResponse> searchBooks(@Argument("input") BookSearchInput input,
+                                                        DataFetchingEnvironment environment) {
         log.info("Searching books with input: {}", input);
         
-        try {
-            String query = input.getQuery() != null ? input.getQuery() : "";
-            String searchType = input.getSearchType() != null ? input.getSearchType().name().toLowerCase() : "all";
-            Integer limit = input.getLimit() != null ? input.getLimit() : 10;
-            Integer offset = input.getOffset() != null ? input.getOffset() : 0;
-            
-            SearchRequest request = SearchRequest.newBuilder()
-                    .setQuery(query)
-                    .setSearchType(searchType)
-                    .setLimit(limit)
-                    .setOffset(offset)
-                    .build();
-            
-            List<com.library.apigateway.dto.Book> books = new ArrayList<>();
-            
-            // Use server streaming to collect all results
-            bookServiceStub.searchBooks(request).forEachRemaining(grpcResponse -> {
-                if (grpcResponse.getSuccess() && grpcResponse.hasBook()) {
-                    books.add(bookMapper.toBook(grpcResponse.getBook()));
-                }
-            });
-            
-            return BooksResponse.builder()
-                    .success(true)
-                    .message("Books retrieved successfully")
-                    .books(books)
-                    .totalCount(books.size())
-                    .build();
+        String query = input.getQuery() != null ? input.getQuery() : "";
+        String searchType = input.getSearchType() != null ? input.getSearchType().name().toLowerCase() : "all";
+        Integer limit = input.getLimit() != null ? input.getLimit() : 10;
+        Integer offset = input.getOffset() != null ? input.getOffset() : 0;
+        
+        SearchRequest request = SearchRequest.newBuilder()
+                .setQuery(query)
+                .setSearchType(searchType)
+                .setLimit(limit)
+                .setOffset(offset)
+                .setFieldMask(bookMapper.toFieldMask(environment.getSelectionSet(), "books"))
+                .build();
+        
+        IncrementalPublisher publisher = IncrementalPublisher.from(environment);
+        StreamDirective stream = publisher != null ? StreamDirective.find(environment, "books") : null;
+        if (stream != null) {
+            return streamBooks(request, stream.initialCount(), publisher.openStream(stream, environment))
+                    .exceptionally(this::searchFailed);
+        }
+
+        // Server streaming results are gathered by the async stub without holding a thread
+        return bookServiceClient.searchBooks(request)
+                .thenApply(grpcResponses -> {
+                    List<com.library.apigateway.dto.Book> books = new ArrayList<>(grpcResponses.size());
+                    grpcResponses.forEach(grpcResponse -> {
+                        if (grpcResponse.getSuccess() && grpcResponse.hasBook()) {
+                            books.add(bookMapper.toBook(grpcResponse.getBook()));
+                        }
+                    });
                     
-        } catch (StatusRuntimeException e) {
-            log.error("gRPC error while searching books: {}", e.getMessage());
-            return BooksResponse.builder()
-                    .success(false)
-                    .message("Service temporarily unavailable: " + e.getStatus().getDescription())
-                    .books(new ArrayList<>())
-                    .totalCount(0)
-                    .build();
-        } catch (Exception e) {
-            log.error("Unexpected error while searching books", e);
+                    return BooksResponse.builder()
+                            .success(true)
+                            .message("Books retrieved successfully")
+                            .books(books)
+                            .totalCount(books.size())
+                            .build();
+                })
+                .exceptionally(this::searchFailed);
+    }
+
+    /**
+     * {@code books @stream}: answers with the first {@code initialCount} books as soon as
+     * they arrive and hands every later one to {@code stream} as book-service sends it.
+     * {@code totalCount} then counts only the books in the initial payload.
+     */
+    private CompletableFuture<BooksResponse> streamBooks(SearchRequest request, int initialCount,
+                                                         IncrementalPublisher.ItemStream stream) {
+        CompletableFuture<BooksResponse> initial = new CompletableFuture<>();
+        List<com.library.apigateway.dto.Book> initialBooks = new ArrayList<>(initialCount);
+        Runnable completeInitial = () -> initial.complete(BooksResponse.builder()
+                .success(true)
+                .message("Books retrieved successfully")
+                .books(List.copyOf(initialBooks))
+                .totalCount(initialBooks.size())
+                .build());
+        if (initialCount == 0) {
+            completeInitial.run();
+        }
+
+        stream.attach(bookServiceClient.streamBooks(request)
+                .filter(grpcResponse -> grpcResponse.getSuccess() && grpcResponse.hasBook())
+                .map(grpcResponse -> bookMapper.toBook(grpcResponse.getBook()))
+                .subscribe(book -> {
+                    if (initial.isDone()) {
+                        stream.item(book);
+                        return;
+                    }
+                    initialBooks.add(book);
+                    if (initialBooks.size() == initialCount) {
+                        completeInitial.run();
+                    }
+                }, error -> {
+                    if (initial.completeExceptionally(error)) {
+                        stream.complete();
+                    } else {
+                        stream.fail(GrpcFutures.unwrap(error));
+                    }
+                }, () -> {
+                    completeInitial.run();
+                    stream.complete();
+                }));
+        return initial;
+    }
+
+    private BooksResponse searchFailed(Throwable throwable) {
+        Throwable e = GrpcFutures.unwrap(throwable);
+        if (e instanceof StatusRuntimeException grpcException) {
+            log.error("gRPC error while searching books: {}", grpcException.getMessage());
             return BooksResponse.builder()
                     .success(false)
-                    .message("An unexpected error occurred")
+                    .message("Service temporarily unavailable: " + grpcException.getStatus().getDescription())
                     .books(new ArrayList<>())
                     .totalCount(0)
                     .build();
         }
+        log.error("Unexpected error while searching books", e);
+        return BooksResponse.builder()
+                .success(false)
+                .message("An unexpected error occurred")
+                .books(new ArrayList<>())
+                .totalCount(0)
+                .build();
     }
 
+    /**
+     * Keyset-paginated search. One extra row is requested to tell whether another page
+     * follows; {@code after} is passed through to book-service untouched.
+     */
     @QueryMapping
-    public BooksResponse availableBooks(@Argument Integer limit, @Argument Integer offset) {
+    public CompletableFuture<BookConnection> searchBooksConnection(@Argument String query, @Argument SearchType searchType,
+                                                                   @Argument Integer first, @Argument String after,
+                                                                   DataFetchingFieldSelectionSet selectionSet) {
+        log.info("Searching books connection - query: {}, type: {}, first: {}, after: {}", query, searchType, first, after);
+
+        int pageSize = Math.max(1, Math.min(first != null ? first : 20, MAX_PAGE_SIZE));
+        SearchRequest.Builder requestBuilder = SearchRequest.newBuilder()
+                .setQuery(query != null ? query : "")
+                .setSearchType(searchType != null ? searchType.name().toLowerCase() : "all")
+                .setLimit(pageSize + 1)
+                .setFieldMask(bookMapper.toFieldMask(selectionSet, "edges/node"));
+        if (after != null && !after.isEmpty()) {
+            requestBuilder.setAfter(after);
+        }
+
+        return bookServiceClient.searchBooks(requestBuilder.build())
+                .thenApply(grpcResponses -> {
+                    List<BookEdge> edges = new ArrayList<>(pageSize);
+                    for (com.library.bookservice.grpc.BookResponse grpcResponse : grpcResponses) {
+                        if (!grpcResponse.getSuccess()) {
+                            throw new ValidationException(grpcResponse.getMessage());
+                        }
+                        if (grpcResponse.hasBook()) {
+                            edges.add(BookEdge.builder()
+                                    .cursor(grpcResponse.getCursor())
+                                    .node(bookMapper.toBook(grpcResponse.getBook()))
+                                    .build());
+                        }
+                    }
+
+                    boolean hasNextPage = edges.size() > pageSize;
+                    List<BookEdge> page = hasNextPage ? edges.subList(0, pageSize) : edges;
+                    return BookConnection.builder()
+                            .edges(page)
+                            .pageInfo(PageInfo.builder()
+                                    .hasNextPage(hasNextPage)
+                                    .hasPreviousPage(after != null && !after.isEmpty())
+                                    .startCursor(page.isEmpty() ? null : page.get(0).getCursor())
+                                    .endCursor(page.isEmpty() ? null : page.get(page.size() - 1).getCursor())
+                                    .build())
+                            .build();
+                });
+    }
+
+    @QueryMapping
+    public CompletableFuture<BooksResponse> availableBooks(@Argument Integer limit, @Argument Integer offset,
+                                                           DataFetchingEnvironment environment) {
         BookSearchInput input = BookSearchInput.builder()
             .query("")
             .searchType(SearchType.ALL)
             .limit(limit != null ? limit : 10)
             .offset(offset != null ? offset : 0)
             .build();
-        return searchBooks(input);
+        return searchBooks(input, environment);
     }
 
     @QueryMapping
-    public BooksResponse booksByGenre(@Argument String genre, @Argument Integer limit, @Argument Integer offset) {
+    public CompletableFuture<BooksResponse> booksByGenre(@Argument String genre, @Argument Integer limit, @Argument Integer offset,
+                                                         DataFetchingEnvironment environment) {
         BookSearchInput input = BookSearchInput.builder()
             .query(genre)
             .searchType(SearchType.GENRE)
             .limit(limit != null ? limit : 10)
             .offset(offset != null ? offset : 0)
             .build();
-        return searchBooks(input);
+        return searchBooks(input, environment);
     }
 
     @QueryMapping
-    public BooksResponse booksByAuthor(@Argument String author, @Argument Integer limit, @Argument Integer offset) {
+    public CompletableFuture<BooksResponse> booksByAuthor(@Argument String author, @Argument Integer limit, @Argument Integer offset,
+                                                          DataFetchingEnvironment environment) {
         BookSearchInput input = BookSearchInput.builder()
             .query(author)
             .searchType(SearchType.AUTHOR)
             .limit(limit != null ? limit : 10)
             .offset(offset != null ? offset : 0)
             .build();
-        return searchBooks(input);
+        return searchBooks(input, environment);
     }
 
     @QueryMapping
-    public Integer totalBooks() {
-        // Get all books and count them
-        BooksResponse response = books();
-        return response.getTotalCount();
+    public CompletableFuture<Integer> totalBooks() {
+        // Counted by book-service, independent of catalog size
+        return bookServiceClient.getCatalogStats()
+                .thenApply(stats -> stats.getSuccess() ? Math.toIntExact(stats.getTotalBooks()) : 0)
+                .exceptionally(e -> {
+                    log.error("Error counting books", e);
+                    return 0;
+                });
     }
 
     @QueryMapping
-    public Integer totalAvailableBooks() {
-        try {
-            // Search for available books only
-            BooksResponse response = availableBooks(1000, 0); // Large limit to get all
-            return Math.toIntExact(response.getBooks().stream()
-                    .filter(book -> book.getIsAvailable())
-                    .count());
-        } catch (Exception e) {
-            log.error("Error counting available books", e);
-            return 0;
-        }
+    public CompletableFuture<Integer> totalAvailableBooks() {
+        return bookServiceClient.getCatalogStats()
+                .thenApply(stats -> stats.getSuccess() ? Math.toIntExact(stats.getAvailableBooks()) : 0)
+                .exceptionally(e -> {
+                    log.error("Error counting available books", e);
+                    return 0;
+                });
     }
 
     @QueryMapping
-    public List<String> bookGenres() {
-        try {
-            // Get all books and extract unique genres
-            BooksResponse response = books();
-            return response.getBooks().stream()
-                    .map(com.library.apigateway.dto.Book::getGenre)
-                    .filter(genre -> genre != null && !genre.trim().isEmpty())
-                    .distinct()
-                    .sorted()
-                    .toList();
-        } catch (Exception e) {
-            log.error("Error fetching book genres", e);
-            return new ArrayList<>();
-        }
+    public CompletableFuture<List<String>> bookGenres() {
+        return bookServiceClient.getCatalogStats()
+                .thenApply(stats -> stats.getSuccess() ? List.copyOf(stats.getGenresList()) : List.<String>of())
+                .exceptionally(e -> {
+                    log.error("Error fetching book genres", e);
+                    return new ArrayList<>();
+                });
     }
-}
\ No newline at end of file
+}
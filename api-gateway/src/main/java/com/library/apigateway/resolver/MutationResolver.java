@@ -1,5 +1,10 @@
 package com.library.apigateway.resolver;
 
+import com.library.apigateway.cache.ResponseCache;
+import com.library.apigateway.cache.SharedEntityCache;
+import com.library.apigateway.client.BookServiceClient;
+import com.library.apigateway.client.GrpcFutures;
+import com.library.apigateway.client.UserServiceClient;
 import com.library.apigateway.dto.*;
 import com.library.apigateway.exception.ServiceUnavailableException;
 import com.library.apigateway.exception.ValidationException;
@@ -8,6 +13,7 @@ import com.library.apigateway.mapper.UserMapper;
 import com.library.apigateway.validation.InputValidator;
 import com.library.bookservice.grpc.*;
 import com.library.userservice.grpc.*;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import io.grpc.StatusRuntimeException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,79 +25,86 @@ import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @Slf4j
 public class MutationResolver {
 
-    private final BookServiceGrpc.BookServiceBlockingStub bookServiceStub;
-    private final UserServiceGrpc.UserServiceBlockingStub userServiceStub;
+    private final BookServiceClient bookServiceClient;
+    private final UserServiceClient userServiceClient;
     private final BookMapper bookMapper;
     private final UserMapper userMapper;
     private final InputValidator inputValidator;
+    private final SharedEntityCache<com.library.apigateway.dto.Book> bookEntityCache;
+    private final SharedEntityCache<com.library.apigateway.dto.User> userEntityCache;
+    private final ResponseCache responseCache;
 
-    public MutationResolver(BookServiceGrpc.BookServiceBlockingStub bookServiceStub,
-                          UserServiceGrpc.UserServiceBlockingStub userServiceStub,
+    public MutationResolver(BookServiceClient bookServiceClient,
+                          UserServiceClient userServiceClient,
                           BookMapper bookMapper, 
                           UserMapper userMapper,
-                          InputValidator inputValidator) {
-        this.bookServiceStub = bookServiceStub;
-        this.userServiceStub = userServiceStub;
+                          InputValidator inputValidator,
+                          SharedEntityCache<com.library.apigateway.dto.Book> bookEntityCache,
+                          SharedEntityCache<com.library.apigateway.dto.User> userEntityCache,
+                          ResponseCache responseCache) {
+        this.bookServiceClient = bookServiceClient;
+        this.userServiceClient = userServiceClient;
         this.bookMapper = bookMapper;
         this.userMapper = userMapper;
         this.inputValidator = inputValidator;
+        this.bookEntityCache = bookEntityCache;
+        this.userEntityCache = userEntityCache;
+        this.responseCache = responseCache;
     }
 
     @MutationMapping
-    public com.library.apigateway.dto.UserResponse registerUser(@Argument("input") @Valid UserInput input) {
+    public CompletableFuture<com.library.apigateway.dto.UserResponse> registerUser(@Argument("input") @Valid UserInput input) {
         log.info("Registering new user with input: {}", input);
         
         // Validate input
         inputValidator.validate(input);
         
-        try {
-            String username = input.getUsername();
-            String email = input.getEmail();
-            String firstName = input.getFirstName();
-            String lastName = input.getLastName();
-            String phone = input.getPhone();
-            String address = input.getAddress();
-            String membershipType = input.getMembershipType().name();
-            
-            RegisterRequest.Builder requestBuilder = RegisterRequest.newBuilder()
-                    .setUsername(username)
-                    .setEmail(email)
-                    .setFirstName(firstName)
-                    .setLastName(lastName)
-                    .setMembershipType(membershipType != null ? membershipType : "BASIC");
-            
-            if (phone != null) {
-                requestBuilder.setPhone(phone);
-            }
-            if (address != null) {
-                requestBuilder.setAddress(address);
-            }
-            
-            com.library.userservice.grpc.UserResponse grpcResponse = 
-                    userServiceStub.registerUser(requestBuilder.build());
-            
-            return com.library.apigateway.dto.UserResponse.builder()
-                    .success(grpcResponse.getSuccess())
-                    .message(grpcResponse.getMessage())
-                    .user(grpcResponse.hasUser() ? userMapper.toUser(grpcResponse.getUser()) : null)
-                    .build();
-                    
-        } catch (StatusRuntimeException e) {
-            log.error("gRPC error while registering user: status={}, description={}", 
-                     e.getStatus().getCode(), e.getStatus().getDescription());
-            
-            // Let the GraphQL error handler process this
-            throw new ServiceUnavailableException("UserService", e);
-            
-        } catch (Exception e) {
-            log.error("Unexpected error while registering user", e);
-            throw new RuntimeException("Failed to register user", e);
+        String username = input.getUsername();
+        String email = input.getEmail();
+        String firstName = input.getFirstName();
+        String lastName = input.getLastName();
+        String phone = input.getPhone();
+        String address = input.getAddress();
+        String membershipType = input.getMembershipType().name();
+        
+        RegisterRequest.Builder requestBuilder = RegisterRequest.newBuilder()
+                .setUsername(username)
+                .setEmail(email)
+                .setFirstName(firstName)
+                .setLastName(lastName)
+                .setMembershipType(membershipType != null ? membershipType : "BASIC");
+        
+        if (phone != null) {
+            requestBuilder.setPhone(phone);
+        }
+        if (address != null) {
+            requestBuilder.setAddress(address);
         }
+        
+        return userServiceClient.registerUser(requestBuilder.build())
+                .thenApply(grpcResponse -> com.library.apigateway.dto.UserResponse.builder()
+                        .success(grpcResponse.getSuccess())
+                        .message(grpcResponse.getMessage())
+                        .user(grpcResponse.hasUser() ? userMapper.toUser(grpcResponse.getUser()) : null)
+                        .build())
+                .exceptionally(throwable -> {
+                    Throwable e = GrpcFutures.unwrap(throwable);
+                    if (e instanceof StatusRuntimeException grpcException) {
+                        log.error("gRPC error while registering user: status={}, description={}", 
+                                 grpcException.getStatus().getCode(), grpcException.getStatus().getDescription());
+                        
+                        // Let the GraphQL error handler process this
+                        throw new ServiceUnavailableException("UserService", grpcException);
+                    }
+                    log.error("Unexpected error while registering user", e);
+                    throw new RuntimeException("Failed to register user", e);
+                });
     }
 
     @MutationMapping
@@ -106,170 +119,148 @@ public class MutationResolver {
     }
 
     @MutationMapping
-    public com.library.apigateway.dto.UserResponse suspendUser(@Argument String id) {
+    public CompletableFuture<com.library.apigateway.dto.UserResponse> suspendUser(@Argument String id) {
         log.info("Suspending user {}", id);
-        
-        // Note: This would require implementing user status management in user-service
-        return com.library.apigateway.dto.UserResponse.builder()
-                .success(false)
-                .message("User suspension functionality not yet implemented")
-                .build();
+        return updateUserStatus(id, "SUSPENDED");
     }
 
     @MutationMapping
-    public com.library.apigateway.dto.UserResponse activateUser(@Argument String id) {
+    public CompletableFuture<com.library.apigateway.dto.UserResponse> activateUser(@Argument String id) {
         log.info("Activating user {}", id);
-        
-        // Note: This would require implementing user status management in user-service
-        return com.library.apigateway.dto.UserResponse.builder()
-                .success(false)
-                .message("User activation functionality not yet implemented")
-                .build();
+        return updateUserStatus(id, "ACTIVE");
     }
 
     @MutationMapping
-    public com.library.apigateway.dto.BorrowResponse borrowBook(@Argument("input") BorrowBookInput input) {
+    public CompletableFuture<com.library.apigateway.dto.BorrowResponse> borrowBook(@Argument("input") BorrowBookInput input,
+                                                                                  DataFetchingFieldSelectionSet selectionSet) {
         log.info("Processing borrow book request with input: {}", input);
         
-        try {
-            String bookId = input.getBookId();
-            String userId = input.getUserId();
-            LocalDateTime dueDate = input.getDueDate();
-            
-            // Default due date to 14 days from now if not provided
-            if (dueDate == null) {
-                dueDate = LocalDateTime.now().plusDays(14);
-            }
-            
-            BorrowRequest request = BorrowRequest.newBuilder()
-                    .setBookId(bookId)
-                    .setUserId(userId)
-                    .setBorrowDate(LocalDateTime.now().toEpochSecond(ZoneOffset.UTC))
-                    .setDueDate(dueDate.toEpochSecond(ZoneOffset.UTC))
-                    .build();
-            
-            com.library.bookservice.grpc.BorrowResponse grpcResponse = 
-                    bookServiceStub.borrowBook(request);
-            
-            com.library.apigateway.dto.BorrowResponse.BorrowResponseBuilder responseBuilder = com.library.apigateway.dto.BorrowResponse.builder()
-                    .success(grpcResponse.getSuccess())
-                    .message(grpcResponse.getMessage());
-            
-            if (grpcResponse.getSuccess()) {
-                responseBuilder.transactionId(grpcResponse.getTransactionId())
-                              .dueDate(LocalDateTime.ofEpochSecond(grpcResponse.getDueDate(), 0, ZoneOffset.UTC));
-                
-                // Optionally fetch book and user details to include in response
-                try {
-                    BookRequest bookRequest = BookRequest.newBuilder().setBookId(bookId).build();
-                    com.library.bookservice.grpc.BookResponse bookResponse = bookServiceStub.getBook(bookRequest);
-                    if (bookResponse.getSuccess() && bookResponse.hasBook()) {
-                        responseBuilder.book(bookMapper.toBook(bookResponse.getBook()));
+        String bookId = input.getBookId();
+        String userId = input.getUserId();
+        LocalDateTime dueDate = input.getDueDate();
+        
+        // Default due date to 14 days from now if not provided
+        if (dueDate == null) {
+            dueDate = LocalDateTime.now().plusDays(14);
+        }
+        
+        BorrowRequest request = BorrowRequest.newBuilder()
+                .setBookId(bookId)
+                .setUserId(userId)
+                .setBorrowDate(LocalDateTime.now().toEpochSecond(ZoneOffset.UTC))
+                .setDueDate(dueDate.toEpochSecond(ZoneOffset.UTC))
+                .build();
+        
+        // A borrow does not change the user, so it is fetched alongside, and only if selected
+        CompletableFuture<com.library.apigateway.dto.User> user = fetchUserIfSelected(userId, selectionSet);
+        
+        return bookServiceClient.borrowBook(request)
+                .thenCompose(grpcResponse -> {
+                    com.library.apigateway.dto.BorrowResponse.BorrowResponseBuilder responseBuilder = com.library.apigateway.dto.BorrowResponse.builder()
+                            .success(grpcResponse.getSuccess())
+                            .message(grpcResponse.getMessage());
+                    
+                    if (!grpcResponse.getSuccess()) {
+                        // The mutation's own failure is the answer; the user fetched alongside is not needed
+                        user.cancel(false);
+                        return CompletableFuture.completedFuture(responseBuilder.build());
                     }
-                } catch (Exception e) {
-                    log.warn("Could not fetch book details for response", e);
-                }
-                
-                try {
-                    UserRequest userRequest = UserRequest.newBuilder().setUserId(userId).build();
-                    com.library.userservice.grpc.UserResponse userResponse = userServiceStub.getUser(userRequest);
-                    if (userResponse.getSuccess() && userResponse.hasUser()) {
-                        responseBuilder.user(userMapper.toUser(userResponse.getUser()));
+                    
+                    // Availability and borrow counts changed; drop the cached copies
+                    bookEntityCache.invalidate(bookId);
+                    userEntityCache.invalidate(userId);
+                    responseCache.invalidateTags(ResponseCache.bookTag(bookId), ResponseCache.userTag(userId),
+                            ResponseCache.rootFieldTag("availableBooks"));
+                    
+                    responseBuilder.transactionId(grpcResponse.getTransactionId())
+                                  .dueDate(LocalDateTime.ofEpochSecond(grpcResponse.getDueDate(), 0, ZoneOffset.UTC));
+                    
+                    return updatedBook(grpcResponse.hasBook() ? grpcResponse.getBook() : null, bookId, selectionSet)
+                            .thenCombine(user, (book, borrower) -> responseBuilder.book(book).user(borrower).build());
+                })
+                .exceptionally(throwable -> {
+                    Throwable e = GrpcFutures.unwrap(throwable);
+                    if (e instanceof StatusRuntimeException grpcException) {
+                        log.error("gRPC error while borrowing book: {}", grpcException.getMessage());
+                        return com.library.apigateway.dto.BorrowResponse.builder()
+                                .success(false)
+                                .message("Service temporarily unavailable: " + grpcException.getStatus().getDescription())
+                                .build();
                     }
-                } catch (Exception e) {
-                    log.warn("Could not fetch user details for response", e);
-                }
-            }
-            
-            return responseBuilder.build();
-            
-        } catch (StatusRuntimeException e) {
-            log.error("gRPC error while borrowing book: {}", e.getMessage());
-            return com.library.apigateway.dto.BorrowResponse.builder()
-                    .success(false)
-                    .message("Service temporarily unavailable: " + e.getStatus().getDescription())
-                    .build();
-        } catch (Exception e) {
-            log.error("Unexpected error while borrowing book", e);
-            return com.library.apigateway.dto.BorrowResponse.builder()
-                    .success(false)
-                    .message("An unexpected error occurred")
-                    .build();
-        }
+                    log.error("Unexpected error while borrowing book", e);
+                    return com.library.apigateway.dto.BorrowResponse.builder()
+                            .success(false)
+                            .message("An unexpected error occurred")
+                            .build();
+                });
     }
 
     @MutationMapping
-    public com.library.apigateway.dto.ReturnResponse returnBook(@Argument("input") ReturnBookInput input) {
+    public CompletableFuture<com.library.apigateway.dto.ReturnResponse> returnBook(@Argument("input") ReturnBookInput input,
+                                                                                  DataFetchingFieldSelectionSet selectionSet) {
         log.info("Processing return book request with input: {}", input);
         
-        try {
-            String bookId = input.getBookId();
-            String userId = input.getUserId();
-            LocalDateTime returnDate = input.getReturnDate();
-            
-            // Default return date to now if not provided
-            if (returnDate == null) {
-                returnDate = LocalDateTime.now();
-            }
-            
-            com.library.bookservice.grpc.ReturnRequest request = 
-                    com.library.bookservice.grpc.ReturnRequest.newBuilder()
-                    .setBookId(bookId)
-                    .setUserId(userId)
-                    .setReturnDate(returnDate.toEpochSecond(ZoneOffset.UTC))
-                    .build();
-            
-            com.library.bookservice.grpc.ReturnResponse grpcResponse = 
-                    bookServiceStub.returnBook(request);
-            
-            com.library.apigateway.dto.ReturnResponse.ReturnResponseBuilder responseBuilder = com.library.apigateway.dto.ReturnResponse.builder()
-                    .success(grpcResponse.getSuccess())
-                    .message(grpcResponse.getMessage());
-            
-            if (grpcResponse.getSuccess()) {
-                responseBuilder.transactionId(grpcResponse.getTransactionId())
-                              .returnDate(LocalDateTime.ofEpochSecond(grpcResponse.getReturnDate(), 0, ZoneOffset.UTC))
-                              .fineAmount((float) grpcResponse.getFineAmount());
-                
-                // Optionally fetch book and user details to include in response
-                try {
-                    BookRequest bookRequest = BookRequest.newBuilder().setBookId(bookId).build();
-                    com.library.bookservice.grpc.BookResponse bookResponse = bookServiceStub.getBook(bookRequest);
-                    if (bookResponse.getSuccess() && bookResponse.hasBook()) {
-                        responseBuilder.book(bookMapper.toBook(bookResponse.getBook()));
+        String bookId = input.getBookId();
+        String userId = input.getUserId();
+        LocalDateTime returnDate = input.getReturnDate();
+        
+        // Default return date to now if not provided
+        if (returnDate == null) {
+            returnDate = LocalDateTime.now();
+        }
+        
+        com.library.bookservice.grpc.ReturnRequest request = 
+                com.library.bookservice.grpc.ReturnRequest.newBuilder()
+                .setBookId(bookId)
+                .setUserId(userId)
+                .setReturnDate(returnDate.toEpochSecond(ZoneOffset.UTC))
+                .build();
+        
+        // A return does not change the user, so it is fetched alongside, and only if selected
+        CompletableFuture<com.library.apigateway.dto.User> user = fetchUserIfSelected(userId, selectionSet);
+        
+        return bookServiceClient.returnBook(request)
+                .thenCompose(grpcResponse -> {
+                    com.library.apigateway.dto.ReturnResponse.ReturnResponseBuilder responseBuilder = com.library.apigateway.dto.ReturnResponse.builder()
+                            .success(grpcResponse.getSuccess())
+                            .message(grpcResponse.getMessage());
+                    
+                    if (!grpcResponse.getSuccess()) {
+                        // The mutation's own failure is the answer; the user fetched alongside is not needed
+                        user.cancel(false);
+                        return CompletableFuture.completedFuture(responseBuilder.build());
                     }
-                } catch (Exception e) {
-                    log.warn("Could not fetch book details for response", e);
-                }
-                
-                try {
-                    UserRequest userRequest = UserRequest.newBuilder().setUserId(userId).build();
-                    com.library.userservice.grpc.UserResponse userResponse = userServiceStub.getUser(userRequest);
-                    if (userResponse.getSuccess() && userResponse.hasUser()) {
-                        responseBuilder.user(userMapper.toUser(userResponse.getUser()));
+                    
+                    // Availability and borrow counts changed; drop the cached copies
+                    bookEntityCache.invalidate(bookId);
+                    userEntityCache.invalidate(userId);
+                    responseCache.invalidateTags(ResponseCache.bookTag(bookId), ResponseCache.userTag(userId),
+                            ResponseCache.rootFieldTag("availableBooks"));
+                    
+                    responseBuilder.transactionId(grpcResponse.getTransactionId())
+                                  .returnDate(LocalDateTime.ofEpochSecond(grpcResponse.getReturnDate(), 0, ZoneOffset.UTC))
+                                  .fineAmount((float) grpcResponse.getFineAmount());
+                    
+                    return updatedBook(grpcResponse.hasBook() ? grpcResponse.getBook() : null, bookId, selectionSet)
+                            .thenCombine(user, (book, borrower) -> responseBuilder.book(book).user(borrower).build());
+                })
+                .exceptionally(throwable -> {
+                    Throwable e = GrpcFutures.unwrap(throwable);
+                    if (e instanceof StatusRuntimeException grpcException) {
+                        log.error("gRPC error while returning book: {}", grpcException.getMessage());
+                        return com.library.apigateway.dto.ReturnResponse.builder()
+                                .success(false)
+                                .message("Service temporarily unavailable: " + grpcException.getStatus().getDescription())
+                                .fineAmount(0.0f)
+                                .build();
                     }
-                } catch (Exception e) {
-                    log.warn("Could not fetch user details for response", e);
-                }
-            }
-            
-            return responseBuilder.build();
-            
-        } catch (StatusRuntimeException e) {
-            log.error("gRPC error while returning book: {}", e.getMessage());
-            return com.library.apigateway.dto.ReturnResponse.builder()
-                    .success(false)
-                    .message("Service temporarily unavailable: " + e.getStatus().getDescription())
-                    .fineAmount(0.0f)
-                    .build();
-        } catch (Exception e) {
-            log.error("Unexpected error while returning book", e);
-            return com.library.apigateway.dto.ReturnResponse.builder()
-                    .success(false)
-                    .message("An unexpected error occurred")
-                    .fineAmount(0.0f)
-                    .build();
-        }
+                    log.error("Unexpected error while returning book", e);
+                    return com.library.apigateway.dto.ReturnResponse.builder()
+                            .success(false)
+                            .message("An unexpected error occurred")
+                            .fineAmount(0.0f)
+                            .build();
+                });
     }
 
     @MutationMapping
@@ -282,4 +273,84 @@ public class MutationResolver {
                 .message("Fine payment functionality not yet implemented")
                 .build();
     }
-}
\ No newline at end of file
+
+    private CompletableFuture<com.library.apigateway.dto.UserResponse> updateUserStatus(String userId, String status) {
+        UpdateUserStatusRequest request = UpdateUserStatusRequest.newBuilder()
+                .setUserId(userId)
+                .setStatus(status)
+                .build();
+
+        return userServiceClient.updateUserStatus(request)
+                .thenApply(grpcResponse -> {
+                    if (grpcResponse.getSuccess()) {
+                        userEntityCache.invalidate(userId);
+                        responseCache.invalidateTags(ResponseCache.userTag(userId));
+                    }
+                    return com.library.apigateway.dto.UserResponse.builder()
+                            .success(grpcResponse.getSuccess())
+                            .message(grpcResponse.getMessage())
+                            .user(grpcResponse.hasUser() ? userMapper.toUser(grpcResponse.getUser()) : null)
+                            .build();
+                })
+                .exceptionally(throwable -> {
+                    Throwable e = GrpcFutures.unwrap(throwable);
+                    if (e instanceof StatusRuntimeException grpcException) {
+                        log.error("gRPC error while updating user status: {}", grpcException.getMessage());
+                        return com.library.apigateway.dto.UserResponse.builder()
+                                .success(false)
+                                .message("Service temporarily unavailable: " + grpcException.getStatus().getDescription())
+                                .build();
+                    }
+                    log.error("Unexpected error while updating user status", e);
+                    return com.library.apigateway.dto.UserResponse.builder()
+                            .success(false)
+                            .message("An unexpected error occurred")
+                            .build();
+                });
+    }
+
+    /** The book sent back by borrow/return, or fetched if book-service predates that and it is selected. */
+    private CompletableFuture<com.library.apigateway.dto.Book> updatedBook(com.library.bookservice.grpc.Book book, String bookId,
+                                                                           DataFetchingFieldSelectionSet selectionSet) {
+        if (book != null) {
+            return CompletableFuture.completedFuture(bookMapper.toBook(book));
+        }
+        return selectionSet.contains("book") ? fetchBook(bookId) : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * The user for a borrow/return response, started before the mutation completes. It never
+     * fails, so it cannot replace the mutation's own outcome; a user that could not be
+     * fetched is {@code null}.
+     */
+    private CompletableFuture<com.library.apigateway.dto.User> fetchUserIfSelected(String userId,
+                                                                                   DataFetchingFieldSelectionSet selectionSet) {
+        return selectionSet.contains("user") ? fetchUser(userId) : CompletableFuture.completedFuture(null);
+    }
+
+    private CompletableFuture<com.library.apigateway.dto.Book> fetchBook(String bookId) {
+        BookRequest bookRequest = BookRequest.newBuilder().setBookId(bookId).build();
+        return bookServiceClient.getBook(bookRequest)
+                .thenApply(bookResponse -> bookResponse.getSuccess() && bookResponse.hasBook()
+                        ? bookMapper.toBook(bookResponse.getBook())
+                        : null)
+                .exceptionally(e -> {
+                    log.warn("Could not fetch book details for response", e);
+                    return null;
+                });
+    }
+
+    private CompletableFuture<com.library.apigateway.dto.User> fetchUser(String userId) {
+        UserRequest userRequest = UserRequest.newBuilder().setUserId(userId).build();
+        // Composed rather than called directly, so a call rejected up front fails the future instead of throwing
+        return CompletableFuture.completedFuture(userRequest)
+                .thenCompose(userServiceClient::getUser)
+                .thenApply(userResponse -> userResponse.getSuccess() && userResponse.hasUser()
+                        ? userMapper.toUser(userResponse.getUser())
+                        : null)
+                .exceptionally(e -> {
+                    log.warn("Could not fetch user details for response", e);
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,30 @@
+package com.library.apigateway.resolver;
+
+import com.library.apigateway.client.AvailabilityFeed;
+import com.library.apigateway.dto.AvailabilityChange;
+import com.library.apigateway.mapper.BookMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Set;
+
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class SubscriptionResolver {
+
+    private final AvailabilityFeed availabilityFeed;
+    private final BookMapper bookMapper;
+
+    @SubscriptionMapping
+    public Flux<AvailabilityChange> bookAvailabilityChanged(@Argument List<String> bookIds) {
+        log.debug("Subscribing to availability changes for books: {}", bookIds != null ? bookIds : "all");
+        Set<String> watched = bookIds != null ? Set.copyOf(bookIds) : Set.of();
+        return availabilityFeed.changes(watched).map(bookMapper::toAvailabilityChange);
+    }
+}
@@ -1,5 +1,6 @@
 package com.library.apigateway.resolver;
 
+import com.library.apigateway.config.DataLoaderRegistryConfig;
 import com.library.apigateway.dto.Book;
 import com.library.apigateway.dto.User;
 import graphql.schema.DataFetchingEnvironment;
@@ -22,7 +23,7 @@ public class UserFieldResolver {
     public CompletableFuture<List<Book>> borrowedBooks(User user, DataFetchingEnvironment environment) {
         log.debug("Fetching borrowed books for user: {}", user.getId());
         
-        DataLoader<String, Book> bookDataLoader = environment.getDataLoader("bookDataLoader");
+        DataLoader<String, Book> bookDataLoader = environment.getDataLoader(DataLoaderRegistryConfig.BOOK_DATA_LOADER);
         
         try {
             List<String> borrowedBookIds = user.getBorrowedBookIds();
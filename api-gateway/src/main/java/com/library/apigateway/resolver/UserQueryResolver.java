@@ -1,5 +1,7 @@
 package com.library.apigateway.resolver;
 
+import com.library.apigateway.client.GrpcFutures;
+import com.library.apigateway.client.UserServiceClient;
 import com.library.apigateway.dto.*;
 import com.library.apigateway.mapper.UserMapper;
 import com.library.userservice.grpc.*;
@@ -13,61 +15,56 @@ import org.springframework.stereotype.Controller;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @Slf4j
 public class UserQueryResolver {
 
-    private final UserServiceGrpc.UserServiceBlockingStub userServiceStub;
+    private final UserServiceClient userServiceClient;
     private final UserMapper userMapper;
 
-    public UserQueryResolver(UserServiceGrpc.UserServiceBlockingStub userServiceStub, 
+    public UserQueryResolver(UserServiceClient userServiceClient, 
                            UserMapper userMapper) {
-        this.userServiceStub = userServiceStub;
+        this.userServiceClient = userServiceClient;
         this.userMapper = userMapper;
     }
 
     @QueryMapping
-    public com.library.apigateway.dto.UserResponse user(@Argument String id) {
+    public CompletableFuture<com.library.apigateway.dto.UserResponse> user(@Argument String id) {
         log.info("Fetching user with id: {}", id);
         
-        try {
-            UserRequest request = UserRequest.newBuilder()
-                    .setUserId(id)
-                    .build();
-            
-            com.library.userservice.grpc.UserResponse grpcResponse = userServiceStub.getUser(request);
-            
-            return com.library.apigateway.dto.UserResponse.builder()
-                    .success(grpcResponse.getSuccess())
-                    .message(grpcResponse.getMessage())
-                    .user(grpcResponse.hasUser() ? userMapper.toUser(grpcResponse.getUser()) : null)
-                    .build();
-                    
-        } catch (StatusRuntimeException e) {
-            log.error("gRPC error while fetching user: {}", e.getMessage());
-            return com.library.apigateway.dto.UserResponse.builder()
-                    .success(false)
-                    .message("Service temporarily unavailable: " + e.getStatus().getDescription())
-                    .build();
-        } catch (Exception e) {
-            log.error("Unexpected error while fetching user", e);
-            return com.library.apigateway.dto.UserResponse.builder()
-                    .success(false)
-                    .message("An unexpected error occurred")
-                    .build();
-        }
+        UserRequest request = UserRequest.newBuilder()
+                .setUserId(id)
+                .build();
+        
+        return userServiceClient.getUser(request)
+                .thenApply(grpcResponse -> com.library.apigateway.dto.UserResponse.builder()
+                        .success(grpcResponse.getSuccess())
+                        .message(grpcResponse.getMessage())
+                        .user(grpcResponse.hasUser() ? userMapper.toUser(grpcResponse.getUser()) : null)
+                        .build())
+                .exceptionally(throwable -> {
+                    Throwable e = GrpcFutures.unwrap(throwable);
+                    if (e instanceof StatusRuntimeException grpcException) {
+                        log.error("gRPC error while fetching user: {}", grpcException.getMessage());
+                        return com.library.apigateway.dto.UserResponse.builder()
+                                .success(false)
+                                .message("Service temporarily unavailable: " + grpcException.getStatus().getDescription())
+                                .build();
+                    }
+                    log.error("Unexpected error while fetching user", e);
+                    return com.library.apigateway.dto.UserResponse.builder()
+                            .success(false)
+                            .message("An unexpected error occurred")
+                            .build();
+                });
     }
 
     @QueryMapping
-    public List<com.library.apigateway.dto.User> users() {
-        log.info("Fetching all users");
-        
-        // Note: This is a simplified implementation since user-service doesn't have a "get all users" method
-        // In a real implementation, you might want to add this method to the user service
-        // For now, returning an empty list with a log message
-        log.warn("Get all users not implemented in user-service gRPC interface");
-        return new ArrayList<>();
+    public CompletableFuture<List<com.library.apigateway.dto.User>> users(@Argument Integer limit, @Argument Integer offset) {
+        log.info("Fetching users - limit: {}, offset: {}", limit, offset);
+        return listUsers("", limit, offset);
     }
 
     @QueryMapping
@@ -95,12 +92,9 @@ public class UserQueryResolver {
     }
 
     @QueryMapping
-    public List<com.library.apigateway.dto.User> activeUsers() {
-        log.info("Fetching active users");
-        
-        // Note: This would require adding a getActiveUsers method to the user service
-        log.warn("Get active users not implemented in user-service gRPC interface");
-        return new ArrayList<>();
+    public CompletableFuture<List<com.library.apigateway.dto.User>> activeUsers(@Argument Integer limit, @Argument Integer offset) {
+        log.info("Fetching active users - limit: {}, offset: {}", limit, offset);
+        return listUsers("ACTIVE", limit, offset);
     }
 
     @QueryMapping
@@ -113,55 +107,53 @@ public class UserQueryResolver {
     }
 
     @QueryMapping
-    public com.library.apigateway.dto.BorrowHistoryResponse borrowHistory(@Argument("input") Map<String, Object> input) {
+    public CompletableFuture<com.library.apigateway.dto.BorrowHistoryResponse> borrowHistory(@Argument("input") Map<String, Object> input) {
         log.info("Fetching borrow history with input: {}", input);
         
-        try {
-            String userId = (String) input.get("userId");
-            String statusFilter = (String) input.get("statusFilter");
-            Integer limit = (Integer) input.getOrDefault("limit", 10);
-            Integer offset = (Integer) input.getOrDefault("offset", 0);
-            
-            BorrowHistoryRequest.Builder requestBuilder = BorrowHistoryRequest.newBuilder()
-                    .setUserId(userId)
-                    .setLimit(limit)
-                    .setOffset(offset);
-            
-            if (statusFilter != null && !statusFilter.isEmpty()) {
-                requestBuilder.setStatusFilter(statusFilter);
-            }
-            
-            com.library.userservice.grpc.BorrowHistoryResponse grpcResponse = 
-                    userServiceStub.getBorrowHistory(requestBuilder.build());
-            
-            return com.library.apigateway.dto.BorrowHistoryResponse.builder()
-                    .success(grpcResponse.getSuccess())
-                    .message(grpcResponse.getMessage())
-                    .history(userMapper.toBorrowRecords(grpcResponse.getHistoryList()))
-                    .totalCount(grpcResponse.getTotalCount())
-                    .build();
-                    
-        } catch (StatusRuntimeException e) {
-            log.error("gRPC error while fetching borrow history: {}", e.getMessage());
-            return com.library.apigateway.dto.BorrowHistoryResponse.builder()
-                    .success(false)
-                    .message("Service temporarily unavailable: " + e.getStatus().getDescription())
-                    .history(new ArrayList<>())
-                    .totalCount(0)
-                    .build();
-        } catch (Exception e) {
-            log.error("Unexpected error while fetching borrow history", e);
-            return com.library.apigateway.dto.BorrowHistoryResponse.builder()
-                    .success(false)
-                    .message("An unexpected error occurred")
-                    .history(new ArrayList<>())
-                    .totalCount(0)
-                    .build();
+        String userId = (String) input.get("userId");
+        String statusFilter = (String) input.get("statusFilter");
+        Integer limit = (Integer) input.getOrDefault("limit", 10);
+        Integer offset = (Integer) input.getOrDefault("offset", 0);
+        
+        BorrowHistoryRequest.Builder requestBuilder = BorrowHistoryRequest.newBuilder()
+                .setUserId(userId)
+                .setLimit(limit)
+                .setOffset(offset);
+        
+        if (statusFilter != null && !statusFilter.isEmpty()) {
+            requestBuilder.setStatusFilter(statusFilter);
         }
+        
+        return userServiceClient.getBorrowHistory(requestBuilder.build())
+                .thenApply(grpcResponse -> com.library.apigateway.dto.BorrowHistoryResponse.builder()
+                        .success(grpcResponse.getSuccess())
+                        .message(grpcResponse.getMessage())
+                        .history(userMapper.toBorrowRecords(grpcResponse.getHistoryList()))
+                        .totalCount(grpcResponse.getTotalCount())
+                        .build())
+                .exceptionally(throwable -> {
+                    Throwable e = GrpcFutures.unwrap(throwable);
+                    if (e instanceof StatusRuntimeException grpcException) {
+                        log.error("gRPC error while fetching borrow history: {}", grpcException.getMessage());
+                        return com.library.apigateway.dto.BorrowHistoryResponse.builder()
+                                .success(false)
+                                .message("Service temporarily unavailable: " + grpcException.getStatus().getDescription())
+                                .history(new ArrayList<>())
+                                .totalCount(0)
+                                .build();
+                    }
+                    log.error("Unexpected error while fetching borrow history", e);
+                    return com.library.apigateway.dto.BorrowHistoryResponse.builder()
+                            .success(false)
+                            .message("An unexpected error occurred")
+                            .history(new ArrayList<>())
+                            .totalCount(0)
+                            .build();
+                });
     }
 
     @QueryMapping
-    public com.library.apigateway.dto.BorrowHistoryResponse userBorrowHistory(@Argument String userId, @Argument Integer limit, @Argument Integer offset) {
+    public CompletableFuture<com.library.apigateway.dto.BorrowHistoryResponse> userBorrowHistory(@Argument String userId, @Argument Integer limit, @Argument Integer offset) {
         return borrowHistory(Map.of(
             "userId", userId,
             "limit", limit != null ? limit : 10,
@@ -184,20 +176,46 @@ public class UserQueryResolver {
     }
 
     @QueryMapping
-    public Integer totalUsers() {
-        log.info("Counting total users");
-        
-        // Note: This would require adding a count method to the user service
-        log.warn("Count total users not implemented in user-service gRPC interface");
-        return 0;
+    public CompletableFuture<Integer> totalUsers() {
+        // Counted by user-service from in-memory counters
+        return userServiceClient.getUserStats()
+                .thenApply(stats -> stats.getSuccess() ? Math.toIntExact(stats.getTotalUsers()) : 0)
+                .exceptionally(e -> {
+                    log.error("Error counting users", e);
+                    return 0;
+                });
     }
 
     @QueryMapping
-    public Integer totalActiveUsers() {
-        log.info("Counting active users");
-        
-        // Note: This would require adding a count active users method to the user service
-        log.warn("Count active users not implemented in user-service gRPC interface");
-        return 0;
+    public CompletableFuture<Integer> totalActiveUsers() {
+        return userServiceClient.getUserStats()
+                .thenApply(stats -> stats.getSuccess() ? Math.toIntExact(stats.getActiveUsers()) : 0)
+                .exceptionally(e -> {
+                    log.error("Error counting active users", e);
+                    return 0;
+                });
+    }
+
+    private CompletableFuture<List<com.library.apigateway.dto.User>> listUsers(String statusFilter, Integer limit, Integer offset) {
+        ListUsersRequest request = ListUsersRequest.newBuilder()
+                .setStatusFilter(statusFilter)
+                .setLimit(limit != null ? limit : 20)
+                .setOffset(offset != null ? offset : 0)
+                .build();
+
+        return userServiceClient.listUsers(request)
+                .<List<com.library.apigateway.dto.User>>thenApply(grpcResponse -> {
+                    if (!grpcResponse.getSuccess()) {
+                        log.warn("Failed to list users: {}", grpcResponse.getMessage());
+                        return new ArrayList<>();
+                    }
+                    return grpcResponse.getUsersList().stream()
+                            .map(userMapper::toUser)
+                            .toList();
+                })
+                .exceptionally(e -> {
+                    log.error("Error listing users", e);
+                    return new ArrayList<>();
+                });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package com.library.apigateway.web;
+
+import com.library.apigateway.client.AdaptiveConcurrencyLimiter;
+import graphql.ErrorType;
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.GraphqlErrorBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sheds GraphQL requests beyond the {@link AdaptiveConcurrencyLimiter} limit before they
+ * are executed. A shed request gets an immediate {@code SERVICE_UNAVAILABLE} error with a
+ * {@code Retry-After} header and a matching {@code retryAfterSeconds} extension, rather
+ * than queueing behind requests that are already waiting on slow services. Shed requests
+ * are counted as {@code gateway.concurrency.rejected}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class ConcurrencyLimitInterceptor implements WebGraphQlInterceptor {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long retryAfterSeconds;
+    private final Counter rejected;
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter,
+                                       @Value("${gateway.concurrency-limit.retry-after:1s}") Duration retryAfter,
+                                       MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.rejected = Counter.builder("gateway.concurrency.rejected")
+                .description("GraphQL requests shed because the concurrency limit was reached")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            log.debug("Shedding request at concurrency limit {}", limiter.limit());
+            return Mono.just(overloaded(request));
+        }
+        return chain.next(request).doFinally(signal -> limiter.release());
+    }
+
+    private WebGraphQlResponse overloaded(WebGraphQlRequest request) {
+        ExecutionResult result = ExecutionResultImpl.newExecutionResult()
+                .addError(GraphqlErrorBuilder.newError()
+                        .message("Gateway is overloaded, retry after " + retryAfterSeconds + "s")
+                        .errorType(ErrorType.ExecutionAborted)
+                        .extensions(Map.of(
+                                "errorCode", "SERVICE_UNAVAILABLE",
+                                "retryAfterSeconds", retryAfterSeconds,
+                                "timestamp", System.currentTimeMillis()))
+                        .build())
+                .build();
+        WebGraphQlResponse response = new WebGraphQlResponse(
+                new DefaultExecutionGraphQlResponse(request.toExecutionInput(), result));
+        response.getResponseHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return response;
+    }
+}
@@ -0,0 +1,106 @@
+package com.library.apigateway.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.apigateway.incremental.IncrementalPublisher;
+import com.library.apigateway.incremental.StreamedItemExecutor;
+import jakarta.servlet.ServletException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.http.MediaType;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.IdGenerator;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serves GraphQL requests that accept {@code multipart/mixed} using incremental delivery:
+ * the initial result is written as soon as it is complete and each {@code @stream}ed item
+ * follows as its own part, in the format of the 2022-08-24 {@code @defer}/{@code @stream}
+ * proposal used by Apollo and graphql-js clients.
+ * <p>
+ * {@code @defer} is accepted but executed eagerly, which the proposal allows, so deferred
+ * fragments arrive with the initial payload.
+ */
+@Slf4j
+public class IncrementalDeliveryHandler {
+
+    public static final MediaType MULTIPART_MIXED = MediaType.parseMediaType(
+            "multipart/mixed; boundary=\"-\"; deferSpec=20220824");
+
+    private static final byte[] PART_HEADER = "\r\n---\r\nContent-Type: application/json; charset=utf-8\r\n\r\n"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TERMINATOR = "\r\n-----\r\n".getBytes(StandardCharsets.UTF_8);
+
+    private final WebGraphQlHandler graphQlHandler;
+    private final StreamedItemExecutor itemExecutor;
+    private final ObjectMapper objectMapper;
+    private final IdGenerator idGenerator = new AlternativeJdkIdGenerator();
+
+    public IncrementalDeliveryHandler(WebGraphQlHandler graphQlHandler, StreamedItemExecutor itemExecutor,
+                                      ObjectMapper objectMapper) {
+        this.graphQlHandler = graphQlHandler;
+        this.itemExecutor = itemExecutor;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Only an explicit {@code multipart/mixed} counts; wildcards keep the plain JSON transport. */
+    public static boolean acceptsMultipart(ServerRequest request) {
+        return request.headers().accept().stream()
+                .anyMatch(type -> "multipart".equals(type.getType()) && "mixed".equals(type.getSubtype()));
+    }
+
+    public ServerResponse handleRequest(ServerRequest serverRequest) throws ServletException, IOException {
+        Map<String, Object> body = serverRequest.body(new ParameterizedTypeReference<>() {});
+        @SuppressWarnings("unchecked")
+        Map<String, Object> variables = body.get("variables") instanceof Map<?, ?> map
+                ? (Map<String, Object>) map
+                : Map.of();
+
+        IncrementalPublisher publisher = new IncrementalPublisher(itemExecutor, variables);
+        Map<String, Object> attributes = new HashMap<>(serverRequest.attributes());
+        attributes.put(IncrementalPublisher.CONTEXT_KEY, publisher);
+
+        WebGraphQlRequest request = new WebGraphQlRequest(serverRequest.uri(), serverRequest.headers().asHttpHeaders(),
+                null, attributes, body, idGenerator.generateId().toString(), LocaleContextHolder.getLocale());
+        request.configureExecutionInput((executionInput, builder) -> builder
+                .graphQLContext(context -> context.put(IncrementalPublisher.CONTEXT_KEY, publisher))
+                .build());
+
+        Flux<byte[]> parts = graphQlHandler.handleRequest(request)
+                .flatMapMany(response -> {
+                    publisher.executionFinished();
+                    Map<String, Object> initial = new LinkedHashMap<>(response.toMap());
+                    initial.put("hasNext", publisher.isStreaming());
+                    return Flux.concat(Mono.just(initial), publisher.subsequentPayloads());
+                })
+                .map(this::part)
+                .concatWith(Mono.just(TERMINATOR));
+
+        return ServerResponse.ok().contentType(MULTIPART_MIXED).body(parts);
+    }
+
+    private byte[] part(Map<String, Object> payload) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(payload);
+            byte[] part = new byte[PART_HEADER.length + json.length];
+            System.arraycopy(PART_HEADER, 0, part, 0, PART_HEADER.length);
+            System.arraycopy(json, 0, part, PART_HEADER.length, json.length);
+            return part;
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
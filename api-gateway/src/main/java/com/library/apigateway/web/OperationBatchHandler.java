@@ -0,0 +1,108 @@
+package com.library.apigateway.web;
+
+import jakarta.servlet.ServletException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.AlternativeJdkIdGenerator;
+import org.springframework.util.IdGenerator;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves a JSON array of GraphQL operations posted in one request, as sent by Apollo's
+ * batch HTTP link. The operations run concurrently, each through the usual interceptor
+ * chain, over one {@link SharedDataLoaderRegistry} so keys requested by any of them go
+ * into the same batches; results are returned as an array in request order.
+ * <p>
+ * An operation that cannot be read gets an error result in its place rather than
+ * failing the batch.
+ */
+@Slf4j
+public class OperationBatchHandler {
+
+    /** Set by {@link PersistedQueryRequestFilter} when the request body is a JSON array */
+    public static final String BATCH_ATTRIBUTE = OperationBatchHandler.class.getName() + ".batch";
+
+    private final WebGraphQlHandler graphQlHandler;
+    private final int maxOperations;
+    private final Duration maxDispatchDelay;
+    private final IdGenerator idGenerator = new AlternativeJdkIdGenerator();
+
+    public OperationBatchHandler(WebGraphQlHandler graphQlHandler, int maxOperations, Duration maxDispatchDelay) {
+        this.graphQlHandler = graphQlHandler;
+        this.maxOperations = maxOperations;
+        this.maxDispatchDelay = maxDispatchDelay;
+    }
+
+    /** Whether a servlet request carries a batch; reactive routes check the exchange attribute directly */
+    public static boolean isBatch(ServerRequest request) {
+        return request.attribute(BATCH_ATTRIBUTE).isPresent();
+    }
+
+    public ServerResponse handleRequest(ServerRequest serverRequest) throws ServletException, IOException {
+        List<Map<String, Object>> bodies = serverRequest.body(new ParameterizedTypeReference<>() {});
+        Map<String, Object> rejection = rejection(bodies);
+        if (rejection != null) {
+            return ServerResponse.badRequest().contentType(MediaType.APPLICATION_JSON).body(rejection);
+        }
+        return ServerResponse.async(execute(bodies, serverRequest.uri(), serverRequest.headers().asHttpHeaders(),
+                serverRequest.attributes())
+                .map(results -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(results)));
+    }
+
+    /** The error to answer with if the batch is empty or too large, otherwise {@code null} */
+    public Map<String, Object> rejection(List<Map<String, Object>> bodies) {
+        if (!bodies.isEmpty() && bodies.size() <= maxOperations) {
+            return null;
+        }
+        return error(String.format("A batch must contain between 1 and %d operations, got %d",
+                maxOperations, bodies.size()));
+    }
+
+    /** Runs the operations over shared DataLoaders; used by both the servlet and reactive routes */
+    public Mono<List<Map<String, Object>>> execute(List<Map<String, Object>> bodies, URI uri, HttpHeaders headers,
+                                                   Map<String, Object> attributes) {
+        SharedDataLoaderRegistry dataLoaders = new SharedDataLoaderRegistry(bodies.size(), maxDispatchDelay);
+        return Flux.fromIterable(bodies)
+                .flatMapSequential(body -> execute(body, uri, headers, attributes, dataLoaders.newOperationRegistry()),
+                        bodies.size())
+                .collectList();
+    }
+
+    private Mono<Map<String, Object>> execute(Map<String, Object> body, URI uri, HttpHeaders headers,
+                                              Map<String, Object> attributes,
+                                              SharedDataLoaderRegistry.OperationRegistry dataLoaders) {
+        return Mono.defer(() -> {
+                    WebGraphQlRequest request = new WebGraphQlRequest(uri, headers, null, attributes, body,
+                            idGenerator.generateId().toString(), LocaleContextHolder.getLocale());
+                    request.configureExecutionInput((executionInput, builder) -> builder
+                            .dataLoaderRegistry(dataLoaders)
+                            .build());
+                    return graphQlHandler.handleRequest(request);
+                })
+                .map(WebGraphQlResponse::toMap)
+                .onErrorResume(e -> {
+                    log.debug("Batched operation failed: {}", e.getMessage());
+                    return Mono.just(error(e.getMessage()));
+                })
+                .doFinally(signal -> dataLoaders.finished());
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Map.of("errors", List.of(Map.of("message", String.valueOf(message))));
+    }
+}
@@ -0,0 +1,58 @@
+package com.library.apigateway.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+
+/**
+ * Gives hash-only automatic persisted query operations the graphql-java persisted-query
+ * marker as their query, for the servlet and reactive request filters alike.
+ */
+@Slf4j
+final class PersistedQueryMarker {
+
+    /** The body to pass on, and whether it holds a batch of operations */
+    record MarkedBody(byte[] body, boolean batch) {
+    }
+
+    private final ObjectMapper objectMapper;
+
+    PersistedQueryMarker(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    MarkedBody mark(byte[] body) {
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            boolean batch = json instanceof ArrayNode;
+            boolean marked = false;
+            if (batch) {
+                for (JsonNode operation : json) {
+                    marked |= markOperation(operation);
+                }
+            } else {
+                marked = markOperation(json);
+            }
+            return new MarkedBody(marked ? objectMapper.writeValueAsBytes(json) : body, batch);
+        } catch (IOException e) {
+            // Leave malformed bodies for Spring GraphQL to reject
+            log.debug("Could not inspect GraphQL request body: {}", e.getMessage());
+            return new MarkedBody(body, false);
+        }
+    }
+
+    private static boolean markOperation(JsonNode operation) {
+        if (!(operation instanceof ObjectNode json)
+                || json.hasNonNull("query")
+                || !json.path("extensions").has("persistedQuery")) {
+            return false;
+        }
+        json.put("query", PersistedQuerySupport.PERSISTED_QUERY_MARKER);
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package com.library.apigateway.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Lets hash-only automatic persisted query requests through Spring GraphQL, which
+ * rejects a POST without a {@code query}. Such bodies get the graphql-java
+ * persisted-query marker as their query; the document itself is then looked up by
+ * hash in {@link com.library.apigateway.cache.PreparsedDocumentCache}. The same applies
+ * to each operation of a batched request, which is marked for {@link OperationBatchHandler}.
+ * {@link ReactivePersistedQueryFilter} does the same on the reactive stack.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PersistedQueryRequestFilter extends OncePerRequestFilter {
+
+    private final PersistedQueryMarker marker;
+    private final String graphqlPath;
+
+    public PersistedQueryRequestFilter(ObjectMapper objectMapper,
+                                       @Value("${spring.graphql.path:/graphql}") String graphqlPath) {
+        this.marker = new PersistedQueryMarker(objectMapper);
+        this.graphqlPath = graphqlPath;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !graphqlPath.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        PersistedQueryMarker.MarkedBody marked = marker.mark(StreamUtils.copyToByteArray(request.getInputStream()));
+        if (marked.batch()) {
+            request.setAttribute(OperationBatchHandler.BATCH_ATTRIBUTE, Boolean.TRUE);
+        }
+        filterChain.doFilter(new CachedBodyRequest(request, marked.body()), response);
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /** The whole body is already in memory, so it is available at once */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException | RuntimeException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.library.apigateway.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link PersistedQueryRequestFilter}: marks hash-only persisted
+ * query operations and batched bodies before Spring GraphQL reads the request.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersistedQueryFilter implements WebFilter {
+
+    private final PersistedQueryMarker marker;
+    private final String graphqlPath;
+
+    public ReactivePersistedQueryFilter(ObjectMapper objectMapper,
+                                        @Value("${spring.graphql.path:/graphql}") String graphqlPath) {
+        this.marker = new PersistedQueryMarker(objectMapper);
+        this.graphqlPath = graphqlPath;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.POST
+                || !graphqlPath.equals(request.getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        return DataBufferUtils.join(request.getBody())
+                .map(ReactivePersistedQueryFilter::bytes)
+                .defaultIfEmpty(new byte[0])
+                .flatMap(body -> {
+                    PersistedQueryMarker.MarkedBody marked = marker.mark(body);
+                    if (marked.batch()) {
+                        exchange.getAttributes().put(OperationBatchHandler.BATCH_ATTRIBUTE, Boolean.TRUE);
+                    }
+                    return chain.filter(exchange.mutate().request(new CachedBodyRequest(exchange, marked.body())).build());
+                });
+    }
+
+    private static byte[] bytes(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static final class CachedBodyRequest extends ServerHttpRequestDecorator {
+
+        private final ServerWebExchange exchange;
+        private final byte[] body;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        CachedBodyRequest(ServerWebExchange exchange, byte[] body) {
+            super(exchange.getRequest());
+            this.exchange = exchange;
+            this.body = body;
+            headers.putAll(super.getHeaders());
+            headers.setContentLength(body.length);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+        }
+    }
+}
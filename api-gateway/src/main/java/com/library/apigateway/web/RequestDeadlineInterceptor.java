@@ -0,0 +1,55 @@
+package com.library.apigateway.web;
+
+import com.library.apigateway.client.RequestDeadline;
+import io.grpc.Deadline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts each GraphQL request's downstream time budget and stores the resulting
+ * {@link RequestDeadline} in the GraphQL context. Clients may shorten the budget, but not
+ * extend it, with an {@value #TIMEOUT_HEADER} header in milliseconds.
+ */
+@Component
+@Slf4j
+public class RequestDeadlineInterceptor implements WebGraphQlInterceptor {
+
+    static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final Duration requestBudget;
+
+    public RequestDeadlineInterceptor(@Value("${gateway.grpc.request-budget:5s}") Duration requestBudget) {
+        this.requestBudget = requestBudget;
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        Deadline deadline = Deadline.after(budgetFor(request).toMillis(), TimeUnit.MILLISECONDS);
+        request.configureExecutionInput((executionInput, builder) -> builder
+                .graphQLContext(context -> context.put(RequestDeadline.CONTEXT_KEY, deadline))
+                .build());
+        return chain.next(request);
+    }
+
+    private Duration budgetFor(WebGraphQlRequest request) {
+        String timeout = request.getHeaders().getFirst(TIMEOUT_HEADER);
+        if (timeout == null) {
+            return requestBudget;
+        }
+        try {
+            Duration requested = Duration.ofMillis(Long.parseLong(timeout.trim()));
+            return requested.isNegative() || requested.compareTo(requestBudget) > 0 ? requestBudget : requested;
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring malformed {} header: {}", TIMEOUT_HEADER, timeout);
+            return requestBudget;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.library.apigateway.web;
+
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+import org.dataloader.stats.Statistics;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataLoaders shared by the operations of one batched HTTP request, so keys requested by
+ * any of them are de-duplicated and loaded in the same batches.
+ * <p>
+ * Spring GraphQL registers fresh DataLoaders into each operation's registry; the
+ * {@link OperationRegistry} handed to each operation swaps them for the shared instance
+ * of the same name. Dispatches are held until every unfinished operation has asked for
+ * one, so keys from all of them go out together. An operation still waiting on a plain
+ * gRPC call would stall the others, so a held dispatch is released after
+ * {@code maxDispatchDelay} regardless.
+ */
+public class SharedDataLoaderRegistry {
+
+    private final Map<String, DataLoader<?, ?>> sharedLoaders = new ConcurrentHashMap<>();
+    private final Map<String, Statistics> reportedStatistics = new HashMap<>();
+    private final Set<OperationRegistry> waiting = new HashSet<>();
+    private final Executor delayedDispatch;
+    private int unfinished;
+    private long generation;
+
+    public SharedDataLoaderRegistry(int operations, Duration maxDispatchDelay) {
+        this.unfinished = operations;
+        this.delayedDispatch = CompletableFuture.delayedExecutor(maxDispatchDelay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /** A registry for one operation of the batch; it must be {@link OperationRegistry#finished() finished} */
+    public OperationRegistry newOperationRegistry() {
+        return new OperationRegistry();
+    }
+
+    private void requestDispatch(OperationRegistry operation) {
+        synchronized (this) {
+            waiting.add(operation);
+            if (waiting.size() < unfinished) {
+                if (waiting.size() == 1) {
+                    long held = generation;
+                    CompletableFuture.runAsync(() -> dispatchIfStillHeld(held), delayedDispatch);
+                }
+                return;
+            }
+            release();
+        }
+        dispatch();
+    }
+
+    private void finish(OperationRegistry operation) {
+        synchronized (this) {
+            unfinished--;
+            waiting.remove(operation);
+            if (waiting.isEmpty() || waiting.size() < unfinished) {
+                return;
+            }
+            release();
+        }
+        dispatch();
+    }
+
+    private void dispatchIfStillHeld(long held) {
+        synchronized (this) {
+            if (generation != held || waiting.isEmpty()) {
+                return;
+            }
+            release();
+        }
+        dispatch();
+    }
+
+    /** Ends the current hold; callers dispatch outside the lock since batch loaders may complete inline */
+    private void release() {
+        waiting.clear();
+        generation++;
+    }
+
+    private void dispatch() {
+        sharedLoaders.values().forEach(DataLoader::dispatch);
+    }
+
+    /**
+     * Statistics of the named shared DataLoader accumulated since the last call, so that
+     * each operation reports only what has not already been reported for the batch.
+     */
+    public synchronized Statistics takeStatistics(String name) {
+        Statistics current = sharedLoaders.get(name).getStatistics();
+        Statistics previous = reportedStatistics.put(name, current);
+        if (previous == null) {
+            return current;
+        }
+        return new Statistics(
+                current.getLoadCount() - previous.getLoadCount(),
+                current.getLoadErrorCount() - previous.getLoadErrorCount(),
+                current.getBatchInvokeCount() - previous.getBatchInvokeCount(),
+                current.getBatchLoadCount() - previous.getBatchLoadCount(),
+                current.getBatchLoadExceptionCount() - previous.getBatchLoadExceptionCount(),
+                current.getCacheHitCount() - previous.getCacheHitCount());
+    }
+
+    /** One operation's view of the shared DataLoaders */
+    public class OperationRegistry extends DataLoaderRegistry {
+
+        private boolean finished;
+
+        public SharedDataLoaderRegistry shared() {
+            return SharedDataLoaderRegistry.this;
+        }
+
+        @Override
+        public DataLoaderRegistry register(String key, DataLoader<?, ?> dataLoader) {
+            return super.register(key, sharedLoaders.computeIfAbsent(key, name -> dataLoader));
+        }
+
+        @Override
+        public void dispatchAll() {
+            requestDispatch(this);
+        }
+
+        @Override
+        public int dispatchAllWithCount() {
+            requestDispatch(this);
+            return 0;
+        }
+
+        public void finished() {
+            synchronized (SharedDataLoaderRegistry.this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+            }
+            finish(this);
+        }
+    }
+}
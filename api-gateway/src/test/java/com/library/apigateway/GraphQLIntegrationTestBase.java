@@ -16,7 +16,9 @@ import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Map;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, 
@@ -37,6 +39,12 @@ public abstract class GraphQLIntegrationTestBase {
 
     @Autowired
     protected UserServiceGrpc.UserServiceBlockingStub userServiceBlockingStub;
+
+    @Autowired
+    protected BookServiceGrpc.BookServiceFutureStub bookServiceFutureStub;
+
+    @Autowired
+    protected UserServiceGrpc.UserServiceFutureStub userServiceFutureStub;
     
     // Aliases for backward compatibility
     protected BookServiceGrpc.BookServiceBlockingStub bookServiceStub;
@@ -50,7 +58,10 @@ public abstract class GraphQLIntegrationTestBase {
         bookServiceStub = bookServiceBlockingStub;
         userServiceStub = userServiceBlockingStub;
         // Reset mocks before each test
-        reset(bookServiceStub, userServiceStub);
+        reset(bookServiceStub, userServiceStub, bookServiceFutureStub, userServiceFutureStub);
+        // Batch loaders bound their calls by the request deadline on a copy of the stub
+        when(bookServiceFutureStub.withDeadline(any())).thenReturn(bookServiceFutureStub);
+        when(userServiceFutureStub.withDeadline(any())).thenReturn(userServiceFutureStub);
     }
 
     protected MvcResult executeGraphQLQuery(String query) throws Exception {
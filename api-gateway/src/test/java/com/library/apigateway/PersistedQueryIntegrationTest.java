@@ -0,0 +1,75 @@
+package com.library.apigateway;
+
+import com.library.apigateway.cache.PreparsedDocumentCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+public class PersistedQueryIntegrationTest extends GraphQLIntegrationTestBase {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUnknownHashIsNotFound() throws Exception {
+        String query = "query PersistedNotFound { testQuery }";
+
+        Map<String, Object> error = firstError(executePersistedQuery(null, PreparsedDocumentCache.sha256(query)));
+
+        assertThat(error.get("message")).isEqualTo("PersistedQueryNotFound");
+        assertThat((Map<String, Object>) error.get("extensions")).containsEntry("code", "PERSISTED_QUERY_NOT_FOUND");
+    }
+
+    @Test
+    public void testQueryWithHashRegistersItForHashOnlyRequests() throws Exception {
+        String query = "query PersistedRegister { testQuery }";
+        String hash = PreparsedDocumentCache.sha256(query);
+
+        MvcResult registered = executePersistedQuery(query, hash);
+        assertThat(hasErrors(registered)).isFalse();
+        assertThat(extractData(registered, "data.testQuery")).isEqualTo("Hello World from GraphQL");
+
+        MvcResult hit = executePersistedQuery(null, hash);
+        assertThat(hasErrors(hit)).isFalse();
+        assertThat(extractData(hit, "data.testQuery")).isEqualTo("Hello World from GraphQL");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMismatchedHashIsRejected() throws Exception {
+        String query = "query PersistedMismatch { testQuery }";
+
+        Map<String, Object> error = firstError(executePersistedQuery(query, PreparsedDocumentCache.sha256("{ testQuery }")));
+
+        assertThat(error.get("message")).isEqualTo("PersistedQueryIdInvalid");
+        assertThat((Map<String, Object>) error.get("extensions")).containsEntry("code", "PERSISTED_QUERY_ID_INVALID");
+    }
+
+    private MvcResult executePersistedQuery(String query, String hash) throws Exception {
+        Map<String, Object> request = new HashMap<>();
+        if (query != null) {
+            request.put("query", query);
+        }
+        request.put("extensions", Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)));
+
+        MvcResult result = mockMvc.perform(post(GRAPHQL_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)).andReturn() : result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> firstError(MvcResult result) throws Exception {
+        Map<String, Object> response = objectMapper.readValue(result.getResponse().getContentAsString(), Map.class);
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) response.get("errors");
+        assertThat(errors).isNotEmpty();
+        return errors.get(0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.library.apigateway.cache;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FallbackCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FallbackCache cache = FallbackCache.create("test.fallback", 100, Duration.ofMinutes(1), meterRegistry);
+
+    @ParameterizedTest
+    @EnumSource(value = Status.Code.class, names = {"UNAVAILABLE", "DEADLINE_EXCEEDED", "RESOURCE_EXHAUSTED"})
+    public void testServesLastAnswerDuringOutage(Status.Code code) {
+        cache.withFallback("request", () -> CompletableFuture.completedFuture("answer"), answer -> true).join();
+
+        String served = cache.withFallback("request", () -> failed(code), answer -> true).join();
+
+        assertThat(served).isEqualTo("answer");
+        assertThat(meterRegistry.get("gateway.fallback.served").counter().count()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Status.Code.class, names = {"NOT_FOUND", "INVALID_ARGUMENT", "INTERNAL", "CANCELLED"})
+    public void testPassesOnOtherFailures(Status.Code code) {
+        cache.withFallback("request", () -> CompletableFuture.completedFuture("answer"), answer -> true).join();
+
+        assertThatThrownBy(() -> cache.withFallback("request", () -> failed(code), answer -> true).join())
+                .hasCauseInstanceOf(StatusRuntimeException.class);
+    }
+
+    @Test
+    public void testUncacheableAnswerIsNotServed() {
+        cache.withFallback("request", () -> CompletableFuture.completedFuture(List.of("not found")),
+                answers -> answers.isEmpty()).join();
+
+        assertThatThrownBy(() -> cache.<List<String>>withFallback("request",
+                () -> failed(Status.Code.UNAVAILABLE), answers -> answers.isEmpty()).join())
+                .hasCauseInstanceOf(StatusRuntimeException.class);
+    }
+
+    @Test
+    public void testEntitiesServedByTypeAndId() {
+        cache.putEntities("book", Map.of("1", "Dune", "2", "Emma"));
+
+        assertThat(cache.<String>getEntities("book", List.of("1", "3"))).containsOnly(Map.entry("1", "Dune"));
+        assertThat(cache.<String>getEntities("user", List.of("1"))).isEmpty();
+        assertThat(FallbackCache.isOutage(Status.UNAVAILABLE.asRuntimeException())).isTrue();
+        assertThat(FallbackCache.isOutage(Status.NOT_FOUND.asRuntimeException())).isFalse();
+    }
+
+    @Test
+    public void testDisabledCacheNeverFallsBack() {
+        FallbackCache disabled = FallbackCache.disabled();
+        disabled.withFallback("request", () -> CompletableFuture.completedFuture("answer"), answer -> true).join();
+
+        assertThatThrownBy(() -> disabled.withFallback("request", () -> failed(Status.Code.UNAVAILABLE),
+                answer -> true).join())
+                .hasCauseInstanceOf(StatusRuntimeException.class);
+    }
+
+    private static <T> CompletableFuture<T> failed(Status.Code code) {
+        return CompletableFuture.failedFuture(Status.fromCode(code).asRuntimeException());
+    }
+}
@@ -0,0 +1,117 @@
+package com.library.apigateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private final ResponseCache cache = ResponseCache.create("test.response", 100,
+            Map.of("book", Duration.ofSeconds(30), "books", Duration.ofSeconds(10)), new SimpleMeterRegistry());
+
+    @Test
+    public void testInvalidateTagsDropsOnlyTaggedEntries() {
+        cache.put("book-1", data("Dune"), TTL, Set.of(ResponseCache.bookTag("1")), cache.generation());
+        cache.put("book-2", data("Emma"), TTL, Set.of(ResponseCache.bookTag("2")), cache.generation());
+
+        cache.invalidateTags(ResponseCache.bookTag("1"));
+
+        assertThat(cache.get("book-1")).isNull();
+        assertThat(cache.get("book-2")).isEqualTo(data("Emma"));
+    }
+
+    @Test
+    public void testResultComputedAcrossInvalidationIsNotStored() {
+        long startedAt = cache.generation();
+
+        cache.invalidateTags(ResponseCache.bookTag("1"));
+        cache.put("book-1", data("Dune"), TTL, Set.of(ResponseCache.bookTag("1")), startedAt);
+
+        assertThat(cache.get("book-1")).isNull();
+
+        // Stored again once computed after the invalidation
+        cache.put("book-1", data("Dune"), TTL, Set.of(ResponseCache.bookTag("1")), cache.generation());
+        assertThat(cache.get("book-1")).isEqualTo(data("Dune"));
+    }
+
+    @Test
+    public void testResultComputedAcrossUnrelatedInvalidationIsNotStored() {
+        long startedAt = cache.generation();
+
+        // The execution cannot tell which entities a mutation touched before its result is tagged
+        cache.invalidateTags(ResponseCache.userTag("7"));
+        cache.put("book-1", data("Dune"), TTL, Set.of(ResponseCache.bookTag("1")), startedAt);
+
+        assertThat(cache.get("book-1")).isNull();
+    }
+
+    @Test
+    public void testConcurrentInvalidationIsNeverMissed() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            String key = "book-" + i;
+            long startedAt = cache.generation();
+            CountDownLatch start = new CountDownLatch(1);
+            Thread invalidation = new Thread(() -> {
+                awaitQuietly(start);
+                cache.invalidateTags(ResponseCache.bookTag("1"));
+            });
+            invalidation.start();
+
+            start.countDown();
+            cache.put(key, data("Dune"), TTL, Set.of(ResponseCache.bookTag("1")), startedAt);
+            invalidation.join();
+
+            assertThat(cache.get(key)).as("iteration %d", i).isNull();
+        }
+    }
+
+    @Test
+    public void testInvalidateAllDropsEverything() {
+        long startedAt = cache.generation();
+        cache.put("book-1", data("Dune"), TTL, Set.of(ResponseCache.bookTag("1")), startedAt);
+
+        cache.invalidateAll();
+        cache.put("book-2", data("Emma"), TTL, Set.of(ResponseCache.bookTag("2")), startedAt);
+
+        assertThat(cache.get("book-1")).isNull();
+        assertThat(cache.get("book-2")).isNull();
+    }
+
+    @Test
+    public void testTtlIsShortestOfRootFields() {
+        assertThat(cache.ttlFor(List.of("book", "books"))).isEqualTo(Duration.ofSeconds(10));
+        assertThat(cache.ttlFor(List.of("book"))).isEqualTo(Duration.ofSeconds(30));
+        assertThat(cache.ttlFor(List.of("book", "user"))).isNull();
+    }
+
+    @Test
+    public void testDisabledCacheNeverStores() {
+        ResponseCache disabled = ResponseCache.disabled();
+        disabled.put("book-1", data("Dune"), TTL, Set.of(ResponseCache.bookTag("1")), disabled.generation());
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.get("book-1")).isNull();
+        assertThat(disabled.ttlFor(List.of("book"))).isNull();
+    }
+
+    private static Map<String, Object> data(String title) {
+        return Map.of("book", Map.of("title", title));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
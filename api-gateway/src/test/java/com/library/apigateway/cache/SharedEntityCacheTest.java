@@ -0,0 +1,93 @@
+package com.library.apigateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dataloader.MappedBatchLoader;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SharedEntityCacheTest {
+
+    @Test
+    public void testReadThroughOnlyLoadsMisses() {
+        SharedEntityCache<String> cache = SharedEntityCache.create(
+                "test.entities", 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        List<Set<String>> batches = new ArrayList<>();
+        MappedBatchLoader<String, String> loader = cache.readThrough(keys -> {
+            batches.add(Set.copyOf(keys));
+            Map<String, String> values = new HashMap<>();
+            keys.stream().filter(key -> !key.equals("missing")).forEach(key -> values.put(key, "value-" + key));
+            return CompletableFuture.completedFuture(values);
+        });
+
+        Map<String, String> first = loader.load(Set.of("1", "2", "missing")).toCompletableFuture().join();
+        Map<String, String> second = loader.load(Set.of("1", "3")).toCompletableFuture().join();
+
+        assertThat(first).containsOnlyKeys("1", "2");
+        assertThat(second).containsEntry("1", "value-1").containsEntry("3", "value-3");
+        assertThat(batches).containsExactly(Set.of("1", "2", "missing"), Set.of("3"));
+    }
+
+    @Test
+    public void testInvalidateForcesReload() {
+        SharedEntityCache<String> cache = SharedEntityCache.create(
+                "test.entities", 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        cache.putAll(Map.of("42", "stale"));
+
+        cache.invalidate("42");
+
+        assertThat(cache.getAllPresent(Set.of("42"))).isEmpty();
+    }
+
+    @Test
+    public void testLoadInFlightDuringInvalidationIsNotStored() {
+        SharedEntityCache<String> cache = SharedEntityCache.create(
+                "test.entities", 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        CompletableFuture<Map<String, String>> pending = new CompletableFuture<>();
+        MappedBatchLoader<String, String> loader = cache.readThrough(keys -> pending);
+
+        CompletableFuture<Map<String, String>> result = loader.load(Set.of("42")).toCompletableFuture();
+        cache.invalidate("42");
+        pending.complete(Map.of("42", "stale"));
+
+        assertThat(result.join()).containsEntry("42", "stale");
+        assertThat(cache.getAllPresent(Set.of("42"))).isEmpty();
+    }
+
+    @Test
+    public void testWatchStartAndStopDropEntries() {
+        SharedEntityCache<String> cache = SharedEntityCache.create(
+                "test.entities", 100, Duration.ofSeconds(30), Duration.ofMinutes(10), new SimpleMeterRegistry());
+        cache.putAll(Map.of("1", "before-watch"));
+
+        cache.watchStarted();
+        assertThat(cache.isWatched()).isTrue();
+        assertThat(cache.getAllPresent(Set.of("1"))).isEmpty();
+
+        cache.putAll(Map.of("2", "watched"));
+        cache.watchStopped();
+
+        assertThat(cache.isWatched()).isFalse();
+        assertThat(cache.getAllPresent(Set.of("2"))).isEmpty();
+    }
+
+    @Test
+    public void testDisabledCacheDelegatesEveryLoad() {
+        SharedEntityCache<String> cache = SharedEntityCache.disabled("test.entities");
+        MappedBatchLoader<String, String> delegate = keys -> CompletableFuture.completedFuture(Map.of());
+
+        cache.putAll(Map.of("1", "value"));
+
+        assertThat(cache.isEnabled()).isFalse();
+        assertThat(cache.readThrough(delegate)).isSameAs(delegate);
+        assertThat(cache.getAllPresent(Set.of("1"))).isEmpty();
+    }
+}
@@ -0,0 +1,122 @@
+package com.library.apigateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long STEADY_RTT = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testInitialLimitIsClampedToBounds() {
+        assertThat(limiter(1000, 10, 500).limit()).isEqualTo(500);
+        assertThat(limiter(1, 10, 500).limit()).isEqualTo(10);
+    }
+
+    @Test
+    public void testRequestsBeyondLimitAreShed() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 10, 500);
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release();
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void testOverloadCutsLimitDownToMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(100, 10, 500);
+
+        limiter.onSample(STEADY_RTT, true);
+        assertThat(limiter.limit()).isEqualTo(90);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(STEADY_RTT, true);
+        }
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    public void testLimitDoesNotGrowWhileMostlyIdle() {
+        AdaptiveConcurrencyLimiter limiter = limiter(100, 10, 500);
+        acquire(limiter, 49);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(STEADY_RTT, false);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(100);
+    }
+
+    @Test
+    public void testLimitDoesNotGrowWhileIdleWithMildlyRaisedLatency() {
+        AdaptiveConcurrencyLimiter limiter = limiter(100, 10, 500);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(STEADY_RTT, false);
+        }
+
+        // Latency just above tolerance gives a gradient a little under one
+        for (int i = 0; i < 30; i++) {
+            limiter.onSample(STEADY_RTT * 16 / 10, false);
+        }
+
+        assertThat(limiter.limit()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    public void testLimitGrowsUnderLoadUpToMaximum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(480, 10, 500);
+        acquire(limiter, 300);
+
+        limiter.onSample(STEADY_RTT, false);
+        assertThat(limiter.limit()).isGreaterThan(480);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(STEADY_RTT, false);
+        }
+        assertThat(limiter.limit()).isEqualTo(500);
+    }
+
+    @Test
+    public void testRisingLatencyShrinksLimitButNotBelowMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(100, 10, 500);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(STEADY_RTT, false);
+        }
+
+        limiter.onSample(STEADY_RTT * 10, false);
+        assertThat(limiter.limit()).isLessThan(100);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.onSample(STEADY_RTT * 50, false);
+        }
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    public void testDisabledLimiterAdmitsEverything() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(false, 10, 10, 10, 1.5,
+                new SimpleMeterRegistry());
+
+        acquire(limiter, 100);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimiter(true, initialLimit, minLimit, maxLimit, 1.5, new SimpleMeterRegistry());
+    }
+
+    private static void acquire(AdaptiveConcurrencyLimiter limiter, int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+    }
+}
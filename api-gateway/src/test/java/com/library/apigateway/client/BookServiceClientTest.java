@@ -0,0 +1,161 @@
+package com.library.apigateway.client;
+
+import com.library.apigateway.cache.FallbackCache;
+import com.library.apigateway.mapper.BookMapper;
+import com.library.apigateway.resolver.BookQueryResolver;
+import com.library.bookservice.grpc.Book;
+import com.library.bookservice.grpc.BookRequest;
+import com.library.bookservice.grpc.BookResponse;
+import com.library.bookservice.grpc.BookServiceGrpc;
+import com.library.bookservice.grpc.SearchRequest;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link BookServiceClient} against an in-process book-service, in both resolver modes.
+ */
+public class BookServiceClientTest {
+
+    private static final String UNAVAILABLE_BOOK_ID = "503";
+
+    private Server server;
+    private ManagedChannel channel;
+    private ClientCallExecutor executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new FakeBookService())
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        executor = new ClientCallExecutor(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        executor.destroy();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResolverMode.class)
+    public void testGetBookReturnsResponse(ResolverMode mode) {
+        BookResponse response = client(mode).getBook(BookRequest.newBuilder().setBookId("7").build()).join();
+
+        assertThat(response.getSuccess()).isTrue();
+        assertThat(response.getBook().getId()).isEqualTo("7");
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResolverMode.class)
+    public void testGetBookFailsWithGrpcStatus(ResolverMode mode) {
+        BookRequest request = BookRequest.newBuilder().setBookId(UNAVAILABLE_BOOK_ID).build();
+
+        assertThatThrownBy(() -> client(mode).getBook(request).join())
+                .isInstanceOf(CompletionException.class)
+                .satisfies(e -> assertThat(GrpcFutures.unwrap(e))
+                        .isInstanceOfSatisfying(StatusRuntimeException.class, grpc ->
+                                assertThat(grpc.getStatus().getCode()).isEqualTo(Status.Code.UNAVAILABLE)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResolverMode.class)
+    public void testGrpcErrorMapsToUnsuccessfulPayload(ResolverMode mode) {
+        BookQueryResolver resolver = new BookQueryResolver(client(mode), new BookMapper());
+        DataFetchingFieldSelectionSet selectionSet = mock(DataFetchingFieldSelectionSet.class);
+        when(selectionSet.getFields(anyString())).thenReturn(List.of());
+
+        com.library.apigateway.dto.BookResponse found = resolver.book("7", selectionSet).join();
+        com.library.apigateway.dto.BookResponse failed = resolver.book(UNAVAILABLE_BOOK_ID, selectionSet).join();
+
+        assertThat(found.getSuccess()).isTrue();
+        assertThat(found.getBook().getId()).isEqualTo("7");
+        assertThat(failed.getSuccess()).isFalse();
+        assertThat(failed.getMessage()).contains("book-service down");
+        assertThat(failed.getBook()).isNull();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResolverMode.class)
+    public void testSearchBooksGathersStream(ResolverMode mode) {
+        List<BookResponse> responses = client(mode).searchBooks(SearchRequest.newBuilder().setLimit(3).build()).join();
+
+        assertThat(responses).extracting(response -> response.getBook().getId()).containsExactly("0", "1", "2");
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResolverMode.class)
+    public void testStreamBooksEmitsEachResult(ResolverMode mode) {
+        List<BookResponse> responses = client(mode).streamBooks(SearchRequest.newBuilder().setLimit(3).build())
+                .collectList()
+                .block();
+
+        assertThat(responses).extracting(response -> response.getBook().getId()).containsExactly("0", "1", "2");
+    }
+
+    private BookServiceClient client(ResolverMode mode) {
+        return new BookServiceClient(
+                BookServiceGrpc.newBlockingStub(channel),
+                BookServiceGrpc.newFutureStub(channel),
+                BookServiceGrpc.newStub(channel),
+                executor,
+                FallbackCache.disabled(),
+                new SingleFlight(false, new SimpleMeterRegistry()),
+                new RequestKeyNormaliser(true, true, true),
+                mode);
+    }
+
+    private static final class FakeBookService extends BookServiceGrpc.BookServiceImplBase {
+
+        @Override
+        public void getBook(BookRequest request, StreamObserver<BookResponse> responseObserver) {
+            if (request.getBookId().equals(UNAVAILABLE_BOOK_ID)) {
+                responseObserver.onError(Status.UNAVAILABLE.withDescription("book-service down").asRuntimeException());
+                return;
+            }
+            responseObserver.onNext(response(request.getBookId()));
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void searchBooks(SearchRequest request, StreamObserver<BookResponse> responseObserver) {
+            for (int i = 0; i < request.getLimit(); i++) {
+                responseObserver.onNext(response(Integer.toString(i)));
+            }
+            responseObserver.onCompleted();
+        }
+
+        private static BookResponse response(String bookId) {
+            return BookResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("Book found")
+                    .setBook(Book.newBuilder().setId(bookId).setTitle("Title " + bookId).setTotalCopies(1))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.library.apigateway.client;
+
+import com.library.apigateway.cache.ResponseCache;
+import com.library.apigateway.cache.SharedEntityCache;
+import com.library.apigateway.dto.Book;
+import com.library.apigateway.dto.User;
+import com.library.bookservice.grpc.BookChange;
+import com.library.bookservice.grpc.WatchChangesRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EntityChangeFeedTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SharedEntityCache<Book> bookCache = SharedEntityCache.create(
+            "test.books", 100, Duration.ofSeconds(30), Duration.ofMinutes(10), meterRegistry);
+    private final BookServiceClient bookServiceClient = mock(BookServiceClient.class);
+
+    private EntityChangeFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        feed.stop();
+    }
+
+    @Test
+    public void testSingleReplicaStreamWatchesCache() {
+        feed = start("static://localhost:6565", BookChange.getDefaultInstance());
+
+        assertThat(bookCache.isWatched()).isTrue();
+    }
+
+    @Test
+    public void testMultiReplicaStreamKeepsPlainTtlButStillInvalidates() {
+        bookCache.putAll(Map.of("1", new Book(), "2", new Book()));
+
+        feed = start("static://book-1:6565,book-2:6565", BookChange.getDefaultInstance(),
+                BookChange.newBuilder().setBookId("1").setChangedAt(System.currentTimeMillis()).build());
+
+        assertThat(bookCache.isWatched()).isFalse();
+        assertThat(bookCache.getAllPresent(List.of("1", "2"))).containsOnlyKeys("2");
+    }
+
+    @Test
+    public void testOnlySingleHostAddressesAreSingleReplica() {
+        assertThat(EntityChangeFeed.isSingleReplica("static://localhost:6565")).isTrue();
+        assertThat(EntityChangeFeed.isSingleReplica("in-process:book-service")).isTrue();
+        assertThat(EntityChangeFeed.isSingleReplica("static://book-1:6565,book-2:6565")).isFalse();
+        assertThat(EntityChangeFeed.isSingleReplica("dns:///book-service:6565")).isFalse();
+    }
+
+    private EntityChangeFeed start(String bookServiceAddress, BookChange... changes) {
+        // The registration message carries no book ID; the stream then stays open
+        when(bookServiceClient.watchChanges(any(WatchChangesRequest.class)))
+                .thenReturn(Flux.concat(Flux.just(changes), Flux.never()));
+        EntityChangeFeed changeFeed = new EntityChangeFeed(bookServiceClient, mock(UserServiceClient.class),
+                bookCache, SharedEntityCache.<User>disabled("test.users"), ResponseCache.disabled(), meterRegistry,
+                true, bookServiceAddress, "static://localhost:6566");
+        changeFeed.start();
+        return changeFeed;
+    }
+}
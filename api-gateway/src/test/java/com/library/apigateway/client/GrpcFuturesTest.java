@@ -0,0 +1,85 @@
+package com.library.apigateway.client;
+
+import com.google.common.util.concurrent.SettableFuture;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GrpcFuturesTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void testToCompletableFutureCompletesWithResult() {
+        SettableFuture<String> listenableFuture = SettableFuture.create();
+        CompletableFuture<String> future = GrpcFutures.toCompletableFuture(listenableFuture, DIRECT);
+
+        assertThat(future).isNotDone();
+        listenableFuture.set("book");
+
+        assertThat(future.join()).isEqualTo("book");
+    }
+
+    @Test
+    public void testToCompletableFuturePassesOnFailure() {
+        SettableFuture<String> listenableFuture = SettableFuture.create();
+        CompletableFuture<String> future = GrpcFutures.toCompletableFuture(listenableFuture, DIRECT);
+
+        listenableFuture.setException(Status.UNAVAILABLE.asRuntimeException());
+
+        assertThatThrownBy(future::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(StatusRuntimeException.class);
+    }
+
+    @Test
+    public void testCancellingCompletableFutureCancelsCall() {
+        SettableFuture<String> listenableFuture = SettableFuture.create();
+        CompletableFuture<String> future = GrpcFutures.toCompletableFuture(listenableFuture, DIRECT);
+
+        future.cancel(true);
+
+        assertThat(listenableFuture.isCancelled()).isTrue();
+    }
+
+    @Test
+    public void testCollectingObserverGathersEveryMessage() {
+        CompletableFuture<List<String>> future = new CompletableFuture<>();
+        StreamObserver<String> observer = GrpcFutures.collectingObserver(future, DIRECT);
+
+        observer.onNext("first");
+        observer.onNext("second");
+        assertThat(future).isNotDone();
+        observer.onCompleted();
+
+        assertThat(future.join()).containsExactly("first", "second");
+    }
+
+    @Test
+    public void testCollectingObserverFailsOnError() {
+        CompletableFuture<List<String>> future = new CompletableFuture<>();
+        StreamObserver<String> observer = GrpcFutures.collectingObserver(future, DIRECT);
+
+        observer.onNext("first");
+        observer.onError(Status.DEADLINE_EXCEEDED.asRuntimeException());
+
+        assertThatThrownBy(future::join).hasCauseInstanceOf(StatusRuntimeException.class);
+    }
+
+    @Test
+    public void testUnwrapStripsFutureWrappers() {
+        StatusRuntimeException cause = Status.UNAVAILABLE.asRuntimeException();
+
+        assertThat(GrpcFutures.unwrap(new CompletionException(new ExecutionException(cause)))).isSameAs(cause);
+        assertThat(GrpcFutures.unwrap(cause)).isSameAs(cause);
+    }
+}
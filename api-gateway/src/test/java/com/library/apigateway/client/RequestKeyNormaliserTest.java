@@ -0,0 +1,72 @@
+package com.library.apigateway.client;
+
+import com.google.protobuf.FieldMask;
+import com.library.bookservice.grpc.BookRequest;
+import com.library.bookservice.grpc.SearchRequest;
+import com.library.userservice.grpc.UserRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestKeyNormaliserTest {
+
+    private final RequestKeyNormaliser normaliser = new RequestKeyNormaliser(true, true, true);
+
+    @Test
+    public void testEquivalentIdsShareKey() {
+        assertThat(normaliser.normalise(book("007"))).isEqualTo(normaliser.normalise(book("7")));
+        assertThat(normaliser.normalise(UserRequest.newBuilder().setUserId("0042").build()))
+                .isEqualTo(normaliser.normalise(UserRequest.newBuilder().setUserId("42").build()));
+    }
+
+    @Test
+    public void testDifferentIdsKeepDifferentKeys() {
+        assertThat(normaliser.normalise(book("7"))).isNotEqualTo(normaliser.normalise(book("70")));
+        assertThat(normaliser.normalise(book("abc"))).isNotEqualTo(normaliser.normalise(book("ABC")));
+    }
+
+    @Test
+    public void testCaseInsensitiveSearchTypesShareKey() {
+        assertThat(normaliser.normalise(search("Dune", "TITLE")))
+                .isEqualTo(normaliser.normalise(search("dune", "title")));
+    }
+
+    @Test
+    public void testIsbnSearchesAreNotMergedAcrossDifferentIsbns() {
+        Object first = normaliser.normalise(search("978-0-441-17271-9", "isbn"));
+        Object upperCase = normaliser.normalise(search("978-0-441-17271-X", "isbn"));
+        Object lowerCase = normaliser.normalise(search("978-0-441-17271-x", "isbn"));
+
+        assertThat(first).isNotEqualTo(upperCase);
+        // ISBNs match exactly, so their case is kept, in typed and general searches alike
+        assertThat(upperCase).isNotEqualTo(lowerCase);
+        assertThat(normaliser.normalise(search("978-0-441-17271-X", "")))
+                .isNotEqualTo(normaliser.normalise(search("978-0-441-17271-x", "")));
+    }
+
+    @Test
+    public void testFieldMaskOrderDoesNotMatter() {
+        BookRequest titleFirst = book("7").toBuilder()
+                .setFieldMask(FieldMask.newBuilder().addPaths("title").addPaths("author")).build();
+        BookRequest authorFirst = book("7").toBuilder()
+                .setFieldMask(FieldMask.newBuilder().addPaths("author").addPaths("title").addPaths("title")).build();
+
+        assertThat(normaliser.normalise(titleFirst)).isEqualTo(normaliser.normalise(authorFirst));
+    }
+
+    @Test
+    public void testDisabledNormalisationKeepsRequest() {
+        RequestKeyNormaliser off = new RequestKeyNormaliser(false, false, false);
+
+        assertThat(off.normalise(book("007"))).isNotEqualTo(off.normalise(book("7")));
+        assertThat(off.normalise(search("Dune", "title"))).isNotEqualTo(off.normalise(search("dune", "title")));
+    }
+
+    private static BookRequest book(String id) {
+        return BookRequest.newBuilder().setBookId(id).build();
+    }
+
+    private static SearchRequest search(String query, String searchType) {
+        return SearchRequest.newBuilder().setQuery(query).setSearchType(searchType).setLimit(10).build();
+    }
+}
@@ -0,0 +1,156 @@
+package com.library.apigateway.client;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.library.bookservice.grpc.BookRequest;
+import com.library.bookservice.grpc.BookResponse;
+import com.library.bookservice.grpc.BookServiceGrpc;
+import io.grpc.Channel;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ServiceGuardInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /** Calls the fake service has received but not yet answered */
+    private final Queue<StreamObserver<BookResponse>> pending = new ConcurrentLinkedQueue<>();
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new BookServiceGrpc.BookServiceImplBase() {
+                    @Override
+                    public void getBook(BookRequest request, StreamObserver<BookResponse> responseObserver) {
+                        if (request.getBookId().equals("down")) {
+                            responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                            return;
+                        }
+                        pending.add(responseObserver);
+                    }
+                })
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void testBulkheadRejectsCallsBeyondLimit() throws Exception {
+        BookServiceGrpc.BookServiceFutureStub stub = stub(guard(1, Duration.ofMinutes(1)));
+
+        ListenableFuture<BookResponse> first = stub.getBook(request("1"));
+        ListenableFuture<BookResponse> second = stub.getBook(request("2"));
+
+        assertThat(first).isNotDone();
+        assertThat(statusOf(second)).isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+        assertThat(rejected("bulkhead_full")).isEqualTo(1);
+
+        answerPending();
+        assertThat(first.get(5, TimeUnit.SECONDS).getSuccess()).isTrue();
+        awaitAvailablePermits(1);
+        assertThat(stub.getBook(request("3"))).isNotDone();
+    }
+
+    @Test
+    public void testCancelledCallReleasesItsPermit() throws Exception {
+        BookServiceGrpc.BookServiceFutureStub stub = stub(guard(1, Duration.ofMinutes(1)));
+
+        ListenableFuture<BookResponse> first = stub.getBook(request("1"));
+        first.cancel(true);
+        awaitAvailablePermits(1);
+        pending.clear();
+
+        ListenableFuture<BookResponse> next = stub.getBook(request("2"));
+        assertThat(next).isNotDone();
+        answerPending();
+        assertThat(next.get(5, TimeUnit.SECONDS).getSuccess()).isTrue();
+        assertThat(rejected("bulkhead_full")).isZero();
+    }
+
+    @Test
+    public void testOpenCircuitRejectsWithoutReachingService() throws Exception {
+        BookServiceGrpc.BookServiceFutureStub stub = stub(guard(10, Duration.ofMinutes(1)));
+
+        // Window of 4 with at least 2 calls, opening at 50% failures
+        assertThat(statusOf(stub.getBook(request("down")))).isEqualTo(Status.Code.UNAVAILABLE);
+        assertThat(statusOf(stub.getBook(request("down")))).isEqualTo(Status.Code.UNAVAILABLE);
+
+        assertThat(statusOf(stub.getBook(request("1")))).isEqualTo(Status.Code.UNAVAILABLE);
+        assertThat(pending).isEmpty();
+        assertThat(rejected("circuit_open")).isEqualTo(1);
+    }
+
+    private ServiceGuardInterceptor guard(int maxConcurrentCalls, Duration openDuration) {
+        return new ServiceGuardInterceptor(4, 2, 0.5, openDuration, 1, maxConcurrentCalls, meterRegistry);
+    }
+
+    private BookServiceGrpc.BookServiceFutureStub stub(ServiceGuardInterceptor interceptor) {
+        Channel intercepted = ClientInterceptors.intercept(channel, interceptor);
+        return BookServiceGrpc.newFutureStub(intercepted);
+    }
+
+    private void answerPending() {
+        StreamObserver<BookResponse> call;
+        while ((call = pending.poll()) != null) {
+            call.onNext(BookResponse.newBuilder().setSuccess(true).build());
+            call.onCompleted();
+        }
+    }
+
+    private void awaitAvailablePermits(int permits) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (availablePermits() < permits && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(availablePermits()).isEqualTo(permits);
+    }
+
+    private double availablePermits() {
+        return meterRegistry.get("gateway.grpc.client.bulkhead.available").gauge().value();
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("gateway.grpc.client.rejected").tag("reason", reason).counter().count();
+    }
+
+    private static BookRequest request(String bookId) {
+        return BookRequest.newBuilder().setBookId(bookId).build();
+    }
+
+    private static Status.Code statusOf(ListenableFuture<BookResponse> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return Status.fromThrowable(e.getCause()).getCode();
+        }
+        throw new AssertionError("Call succeeded");
+    }
+}
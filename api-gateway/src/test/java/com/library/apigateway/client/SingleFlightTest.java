@@ -0,0 +1,109 @@
+package com.library.apigateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(true, meterRegistry);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    public void testCallerJoinsCallInFlight() {
+        CompletableFuture<String> call = new CompletableFuture<>();
+
+        CompletableFuture<String> leader = singleFlight.execute("book:1", () -> start(call));
+        CompletableFuture<String> follower = singleFlight.execute("book:1", () -> start(new CompletableFuture<>()));
+        call.complete("Dune");
+
+        assertThat(leader.join()).isEqualTo("Dune");
+        assertThat(follower.join()).isEqualTo("Dune");
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("gateway.single-flight.calls").tag("role", "joined").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.single-flight.coalescing.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    public void testDifferentKeysDoNotShare() {
+        CompletableFuture<String> first = singleFlight.execute("book:1", () -> start(new CompletableFuture<>()));
+        CompletableFuture<String> second = singleFlight.execute("book:2",
+                () -> start(CompletableFuture.completedFuture("Emma")));
+
+        assertThat(second.join()).isEqualTo("Emma");
+        assertThat(first).isNotDone();
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    public void testKeyIsRemovedOnCompletion() {
+        singleFlight.execute("book:1", () -> start(CompletableFuture.completedFuture("Dune"))).join();
+
+        String next = singleFlight.execute("book:1", () -> start(CompletableFuture.completedFuture("Dune, 2nd ed."))).join();
+
+        assertThat(next).isEqualTo("Dune, 2nd ed.");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    public void testKeyIsRemovedOnFailure() {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> leader = singleFlight.execute("book:1", () -> start(call));
+        CompletableFuture<String> follower = singleFlight.execute("book:1", () -> start(new CompletableFuture<>()));
+
+        call.completeExceptionally(new IllegalStateException("book-service down"));
+
+        assertThatThrownBy(leader::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(follower::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.execute("book:1", () -> start(CompletableFuture.completedFuture("Dune"))).join())
+                .isEqualTo("Dune");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    public void testKeyIsRemovedWhenCallThrows() {
+        CompletableFuture<String> failed = singleFlight.execute("book:1", () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("bad request");
+        });
+
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(singleFlight.execute("book:1", () -> start(CompletableFuture.completedFuture("Dune"))).join())
+                .isEqualTo("Dune");
+    }
+
+    @Test
+    public void testCancellingOneCallerLeavesSharedCall() {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> leader = singleFlight.execute("book:1", () -> start(call));
+        CompletableFuture<String> follower = singleFlight.execute("book:1", () -> start(new CompletableFuture<>()));
+
+        leader.cancel(true);
+        call.complete("Dune");
+
+        assertThat(call.isCancelled()).isFalse();
+        assertThat(follower.join()).isEqualTo("Dune");
+    }
+
+    @Test
+    public void testDisabledNeverShares() {
+        SingleFlight disabled = new SingleFlight(false, new SimpleMeterRegistry());
+
+        disabled.execute("book:1", () -> start(new CompletableFuture<>()));
+        disabled.execute("book:1", () -> start(new CompletableFuture<>()));
+
+        assertThat(calls).hasValue(2);
+    }
+
+    private <T> CompletableFuture<T> start(CompletableFuture<T> call) {
+        calls.incrementAndGet();
+        return call;
+    }
+}
@@ -0,0 +1,158 @@
+package com.library.apigateway.client;
+
+import com.library.apigateway.cache.FallbackCache;
+import com.library.apigateway.mapper.UserMapper;
+import com.library.apigateway.resolver.UserQueryResolver;
+import com.library.userservice.grpc.BorrowHistory;
+import com.library.userservice.grpc.BorrowHistoryRequest;
+import com.library.userservice.grpc.BorrowHistoryResponse;
+import com.library.userservice.grpc.User;
+import com.library.userservice.grpc.UserRequest;
+import com.library.userservice.grpc.UserResponse;
+import com.library.userservice.grpc.UserServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link UserServiceClient} against an in-process user-service, in both resolver modes.
+ */
+public class UserServiceClientTest {
+
+    private static final String UNAVAILABLE_USER_ID = "503";
+
+    private Server server;
+    private ManagedChannel channel;
+    private ClientCallExecutor executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new FakeUserService())
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        executor = new ClientCallExecutor(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        executor.destroy();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResolverMode.class)
+    public void testGetUserReturnsResponse(ResolverMode mode) {
+        UserResponse response = client(mode).getUser(UserRequest.newBuilder().setUserId("3").build()).join();
+
+        assertThat(response.getSuccess()).isTrue();
+        assertThat(response.getUser().getUsername()).isEqualTo("reader3");
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResolverMode.class)
+    public void testGetUserFailsWithGrpcStatus(ResolverMode mode) {
+        UserRequest request = UserRequest.newBuilder().setUserId(UNAVAILABLE_USER_ID).build();
+
+        assertThatThrownBy(() -> client(mode).getUser(request).join())
+                .isInstanceOf(CompletionException.class)
+                .satisfies(e -> assertThat(GrpcFutures.unwrap(e))
+                        .isInstanceOfSatisfying(StatusRuntimeException.class, grpc ->
+                                assertThat(grpc.getStatus().getCode()).isEqualTo(Status.Code.UNAVAILABLE)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResolverMode.class)
+    public void testGrpcErrorMapsToUnsuccessfulPayload(ResolverMode mode) {
+        UserQueryResolver resolver = new UserQueryResolver(client(mode), new UserMapper());
+
+        com.library.apigateway.dto.UserResponse found = resolver.user("3").join();
+        com.library.apigateway.dto.UserResponse failed = resolver.user(UNAVAILABLE_USER_ID).join();
+
+        assertThat(found.getSuccess()).isTrue();
+        assertThat(found.getUser().getFullName()).isEqualTo("Ada Lovelace");
+        assertThat(failed.getSuccess()).isFalse();
+        assertThat(failed.getMessage()).contains("user-service down");
+        assertThat(failed.getUser()).isNull();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResolverMode.class)
+    public void testGetBorrowHistoryReturnsPage(ResolverMode mode) {
+        BorrowHistoryResponse response = client(mode).getBorrowHistory(BorrowHistoryRequest.newBuilder()
+                .setUserId("3")
+                .setLimit(2)
+                .build()).join();
+
+        assertThat(response.getTotalCount()).isEqualTo(2);
+        assertThat(response.getHistoryList()).extracting(BorrowHistory::getTransactionId)
+                .containsExactly("txn-0", "txn-1");
+    }
+
+    private UserServiceClient client(ResolverMode mode) {
+        return new UserServiceClient(
+                UserServiceGrpc.newBlockingStub(channel),
+                UserServiceGrpc.newFutureStub(channel),
+                UserServiceGrpc.newStub(channel),
+                executor,
+                FallbackCache.disabled(),
+                new SingleFlight(false, new SimpleMeterRegistry()),
+                new RequestKeyNormaliser(true, true, true),
+                mode);
+    }
+
+    private static final class FakeUserService extends UserServiceGrpc.UserServiceImplBase {
+
+        @Override
+        public void getUser(UserRequest request, StreamObserver<UserResponse> responseObserver) {
+            if (request.getUserId().equals(UNAVAILABLE_USER_ID)) {
+                responseObserver.onError(Status.UNAVAILABLE.withDescription("user-service down").asRuntimeException());
+                return;
+            }
+            responseObserver.onNext(UserResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("User found")
+                    .setUser(User.newBuilder()
+                            .setId(request.getUserId())
+                            .setUsername("reader" + request.getUserId())
+                            .setFirstName("Ada")
+                            .setLastName("Lovelace")
+                            .setStatus("ACTIVE")
+                            .setMembershipType("BASIC")
+                            .setMaxBooksAllowed(5))
+                    .build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void getBorrowHistory(BorrowHistoryRequest request, StreamObserver<BorrowHistoryResponse> responseObserver) {
+            BorrowHistoryResponse.Builder response = BorrowHistoryResponse.newBuilder()
+                    .setSuccess(true)
+                    .setTotalCount(request.getLimit());
+            for (int i = 0; i < request.getLimit(); i++) {
+                response.addHistory(BorrowHistory.newBuilder().setTransactionId("txn-" + i).setStatus("BORROWED"));
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        }
+    }
+}
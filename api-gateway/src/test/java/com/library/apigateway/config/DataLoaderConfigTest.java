@@ -0,0 +1,155 @@
+package com.library.apigateway.config;
+
+import com.library.apigateway.cache.FallbackCache;
+import com.library.apigateway.client.ClientCallExecutor;
+import com.library.apigateway.client.RequestDeadline;
+import com.library.apigateway.dto.User;
+import com.library.apigateway.mapper.BookMapper;
+import com.library.apigateway.mapper.UserMapper;
+import com.library.bookservice.grpc.BookServiceGrpc;
+import com.library.userservice.grpc.GetUsersRequest;
+import com.library.userservice.grpc.GetUsersResponse;
+import com.library.userservice.grpc.UserServiceGrpc;
+import graphql.GraphQLContext;
+import io.grpc.Deadline;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dataloader.BatchLoaderEnvironment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The batch loaders against an in-process user-service, checking that each batch is
+ * bounded by the {@link RequestDeadline} in its GraphQL context.
+ */
+public class DataLoaderConfigTest {
+
+    /** GetUsers calls user-service has received but not answered */
+    private final Queue<StreamObserver<GetUsersResponse>> pending = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    private final ClientCallExecutor clientCallExecutor = new ClientCallExecutor(2);
+    private volatile boolean slow;
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new UserServiceGrpc.UserServiceImplBase() {
+                    @Override
+                    public void getUsers(GetUsersRequest request, StreamObserver<GetUsersResponse> responseObserver) {
+                        if (slow) {
+                            ((ServerCallStreamObserver<GetUsersResponse>) responseObserver)
+                                    .setOnCancelHandler(cancelled::countDown);
+                            pending.add(responseObserver);
+                            return;
+                        }
+                        responseObserver.onNext(users(request));
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        clientCallExecutor.destroy();
+    }
+
+    @Test
+    public void testSlowBatchIsCutOffAtRequestDeadline() throws Exception {
+        slow = true;
+        long startedAt = System.nanoTime();
+
+        Map<String, User> users = load(config(FallbackCache.disabled()), withDeadline(Duration.ofMillis(200)));
+
+        assertThat(users).isEmpty();
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(4));
+        assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void testCutOffBatchFallsBackToLastLoadedUsers() throws Exception {
+        DataLoaderConfig config = config(FallbackCache.create("test.fallback", 100, Duration.ofMinutes(1),
+                new SimpleMeterRegistry()));
+        assertThat(load(config, withDeadline(Duration.ofSeconds(5)))).containsKey("7");
+
+        slow = true;
+        Map<String, User> users = load(config, withDeadline(Duration.ofMillis(200)));
+
+        assertThat(users).containsOnlyKeys("7");
+        assertThat(users.get("7").getUsername()).isEqualTo("reader7");
+    }
+
+    @Test
+    public void testBatchWithoutDeadlineWaitsForService() throws Exception {
+        slow = true;
+        CompletableFuture<Map<String, User>> users = config(FallbackCache.disabled()).userBatchLoader()
+                .load(Set.of("7"), BatchLoaderEnvironment.newBatchLoaderEnvironment().build())
+                .toCompletableFuture();
+
+        Thread.sleep(300);
+        assertThat(users).isNotDone();
+
+        StreamObserver<GetUsersResponse> call = pending.poll();
+        assertThat(call).isNotNull();
+        call.onNext(users(GetUsersRequest.newBuilder().addUserIds("7").build()));
+        call.onCompleted();
+        assertThat(users.get(5, TimeUnit.SECONDS)).containsOnlyKeys("7");
+    }
+
+    private DataLoaderConfig config(FallbackCache fallbackCache) {
+        return new DataLoaderConfig(UserServiceGrpc.newFutureStub(channel), BookServiceGrpc.newFutureStub(channel),
+                new UserMapper(), new BookMapper(), fallbackCache, clientCallExecutor);
+    }
+
+    private static Map<String, User> load(DataLoaderConfig config, BatchLoaderEnvironment environment)
+            throws Exception {
+        return config.userBatchLoader().load(Set.of("7"), environment).toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    private static BatchLoaderEnvironment withDeadline(Duration timeout) {
+        GraphQLContext context = GraphQLContext.newContext()
+                .of(RequestDeadline.CONTEXT_KEY, Deadline.after(timeout.toMillis(), TimeUnit.MILLISECONDS))
+                .build();
+        return BatchLoaderEnvironment.newBatchLoaderEnvironment().context(context).build();
+    }
+
+    private static GetUsersResponse users(GetUsersRequest request) {
+        GetUsersResponse.Builder response = GetUsersResponse.newBuilder().setSuccess(true);
+        request.getUserIdsList().forEach(id -> response.addUsers(com.library.userservice.grpc.User.newBuilder()
+                .setId(id)
+                .setUsername("reader" + id)
+                .setFirstName("Ada")
+                .setLastName("Lovelace")
+                .setStatus("ACTIVE")
+                .setMembershipType("BASIC")
+                .setMaxBooksAllowed(5)));
+        return response.build();
+    }
+}
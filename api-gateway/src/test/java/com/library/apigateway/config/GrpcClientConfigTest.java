@@ -0,0 +1,70 @@
+package com.library.apigateway.config;
+
+import com.library.bookservice.grpc.BookRequest;
+import com.library.bookservice.grpc.BookResponse;
+import com.library.bookservice.grpc.BookServiceGrpc;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GrpcClientConfigTest {
+
+    private final List<Server> servers = new ArrayList<>();
+    private ManagedChannel channel;
+
+    @AfterEach
+    void tearDown() {
+        if (channel != null) {
+            channel.shutdownNow();
+        }
+        servers.forEach(Server::shutdownNow);
+    }
+
+    @Test
+    public void testStaticTargetSpreadsCallsOverEveryReplica() throws Exception {
+        int first = startReplica("replica-1");
+        int second = startReplica("replica-2");
+
+        channel = GrpcClientConfig.channelBuilder("static://localhost:" + first + ",localhost:" + second)
+                .defaultLoadBalancingPolicy("round_robin")
+                .build();
+        BookServiceGrpc.BookServiceBlockingStub stub = BookServiceGrpc.newBlockingStub(channel);
+
+        Set<String> replicas = new HashSet<>();
+        for (int i = 0; i < 20 && replicas.size() < 2; i++) {
+            replicas.add(stub.withDeadlineAfter(5, TimeUnit.SECONDS)
+                    .getBook(BookRequest.newBuilder().setBookId("1").build())
+                    .getMessage());
+        }
+
+        assertThat(replicas).containsExactlyInAnyOrder("replica-1", "replica-2");
+    }
+
+    private int startReplica(String name) throws IOException {
+        Server server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new BookServiceGrpc.BookServiceImplBase() {
+                    @Override
+                    public void getBook(BookRequest request, StreamObserver<BookResponse> responseObserver) {
+                        responseObserver.onNext(BookResponse.newBuilder().setSuccess(true).setMessage(name).build());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+        servers.add(server);
+        return server.getPort();
+    }
+}
@@ -0,0 +1,92 @@
+package com.library.apigateway.config;
+
+import graphql.GraphQL;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryCostCalculatorTest {
+
+    private static final String SCHEMA = """
+            type Query {
+                users(limit: Int = 20): [User!]!
+                user(id: ID!): User
+                searchBooks(input: SearchInput!): BooksResponse!
+                connection(first: Int = 20): Connection!
+            }
+            input SearchInput {
+                query: String
+                limit: Int = 10
+            }
+            type BooksResponse {
+                books: [Book!]!
+            }
+            type Connection {
+                edges: [Edge!]!
+            }
+            type Edge {
+                node: Book!
+            }
+            type User {
+                id: ID!
+                borrowedBooks: [Book!]!
+            }
+            type Book {
+                id: ID!
+                title: String
+                borrowedBy: [User!]!
+            }
+            """;
+
+    private final GraphQLSchema schema = new SchemaGenerator()
+            .makeExecutableSchema(new SchemaParser().parse(SCHEMA), RuntimeWiring.MOCKED_WIRING);
+
+    @Test
+    public void testLimitArgumentMultipliesChildCost() {
+        // Root field 10, plus 3 users at 1 each
+        assertThat(cost("{ users(limit: 3) { id } }")).isEqualTo(13);
+    }
+
+    @Test
+    public void testDefaultLimitArgumentIsUsed() {
+        assertThat(cost("{ users { id } }")).isEqualTo(30);
+    }
+
+    @Test
+    public void testInputLimitOnParentMultipliesListCost() {
+        // Root field 10, plus books 1 + 4 * (id + title)
+        assertThat(cost("{ searchBooks(input: { limit: 4 }) { books { id title } } }")).isEqualTo(19);
+    }
+
+    @Test
+    public void testFirstArgumentOnParentMultipliesListCost() {
+        // Root field 10, plus edges 1 + 6 * (node 1 + id 1)
+        assertThat(cost("{ connection(first: 6) { edges { node { id } } } }")).isEqualTo(23);
+    }
+
+    @Test
+    public void testUnboundedRpcListUsesDefaultSize() {
+        // Root field 10, plus borrowedBooks 10 + 5 * id
+        assertThat(cost("{ user(id: \"1\") { borrowedBooks { id } } }")).isEqualTo(25);
+    }
+
+    private int cost(String query) {
+        AtomicInteger cost = new AtomicInteger(-1);
+        MaxQueryComplexityInstrumentation instrumentation = new MaxQueryComplexityInstrumentation(0,
+                new QueryCostCalculator(10, 5), info -> {
+                    cost.set(info.getComplexity());
+                    return false;
+                });
+
+        GraphQL.newGraphQL(schema).instrumentation(instrumentation).build().execute(query);
+
+        return cost.get();
+    }
+}
@@ -21,4 +21,28 @@ public class TestGrpcClientConfig {
     public UserServiceGrpc.UserServiceBlockingStub userServiceBlockingStub() {
         return Mockito.mock(UserServiceGrpc.UserServiceBlockingStub.class);
     }
-}
\ No newline at end of file
+
+    @Bean
+    @Primary
+    public BookServiceGrpc.BookServiceFutureStub bookServiceFutureStub() {
+        return Mockito.mock(BookServiceGrpc.BookServiceFutureStub.class);
+    }
+
+    @Bean
+    @Primary
+    public BookServiceGrpc.BookServiceStub bookServiceStub() {
+        return Mockito.mock(BookServiceGrpc.BookServiceStub.class);
+    }
+
+    @Bean
+    @Primary
+    public UserServiceGrpc.UserServiceFutureStub userServiceFutureStub() {
+        return Mockito.mock(UserServiceGrpc.UserServiceFutureStub.class);
+    }
+
+    @Bean
+    @Primary
+    public UserServiceGrpc.UserServiceStub userServiceStub() {
+        return Mockito.mock(UserServiceGrpc.UserServiceStub.class);
+    }
+}
@@ -0,0 +1,98 @@
+package com.library.apigateway.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PersistedQueryRequestFilterTest {
+
+    private static final String HASH_ONLY = """
+            {"extensions":{"persistedQuery":{"version":1,"sha256Hash":"abc"}}}""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PersistedQueryRequestFilter filter = new PersistedQueryRequestFilter(objectMapper, "/graphql");
+
+    @Test
+    public void testHashOnlyBodyGetsMarkerQuery() throws Exception {
+        JsonNode body = objectMapper.readTree(blockingRead(filtered(HASH_ONLY)));
+
+        assertThat(body.get("query").asText()).isEqualTo(PersistedQuerySupport.PERSISTED_QUERY_MARKER);
+        assertThat(body.at("/extensions/persistedQuery/sha256Hash").asText()).isEqualTo("abc");
+    }
+
+    @Test
+    public void testRewrittenBodyCanBeReadWithReadListener() throws Exception {
+        ServletInputStream input = filtered(HASH_ONLY).getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[16];
+                while (input.isReady() && !input.isFinished()) {
+                    int count = input.read(buffer);
+                    if (count > 0) {
+                        read.write(buffer, 0, count);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                error.set(t);
+            }
+        });
+
+        assertThat(error).hasValue(null);
+        assertThat(allRead).isTrue();
+        assertThat(objectMapper.readTree(read.toByteArray()).get("query").asText())
+                .isEqualTo(PersistedQuerySupport.PERSISTED_QUERY_MARKER);
+    }
+
+    @Test
+    public void testBodyWithQueryPassesThroughUnchanged() throws Exception {
+        String body = """
+                {"query":"{ testQuery }"}""";
+
+        assertThat(blockingRead(filtered(body))).isEqualTo(body);
+    }
+
+    private HttpServletRequest filtered(String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/graphql");
+        request.setServletPath("/graphql");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        return (HttpServletRequest) chain.getRequest();
+    }
+
+    private static String blockingRead(HttpServletRequest request) throws IOException {
+        return new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
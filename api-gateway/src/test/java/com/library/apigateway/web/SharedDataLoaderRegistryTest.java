@@ -0,0 +1,120 @@
+package com.library.apigateway.web;
+
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderOptions;
+import org.dataloader.stats.SimpleStatisticsCollector;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SharedDataLoaderRegistryTest {
+
+    private static final String USERS = "users";
+
+    /** Keys of each batch the shared loader has sent */
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testOperationsShareOneLoader() {
+        SharedDataLoaderRegistry shared = new SharedDataLoaderRegistry(2, Duration.ofMinutes(1));
+        SharedDataLoaderRegistry.OperationRegistry first = operation(shared);
+        SharedDataLoaderRegistry.OperationRegistry second = operation(shared);
+
+        assertThat(second.<String, String>getDataLoader(USERS)).isSameAs(first.getDataLoader(USERS));
+    }
+
+    @Test
+    public void testDispatchWaitsForEveryOperation() {
+        SharedDataLoaderRegistry shared = new SharedDataLoaderRegistry(2, Duration.ofMinutes(1));
+        SharedDataLoaderRegistry.OperationRegistry first = operation(shared);
+        SharedDataLoaderRegistry.OperationRegistry second = operation(shared);
+
+        CompletableFuture<String> one = first.<String, String>getDataLoader(USERS).load("1");
+        first.dispatchAll();
+        assertThat(batches).isEmpty();
+        assertThat(one).isNotDone();
+
+        CompletableFuture<String> two = second.<String, String>getDataLoader(USERS).load("2");
+        second.dispatchAll();
+
+        assertThat(batches).containsExactly(List.of("1", "2"));
+        assertThat(one.join()).isEqualTo("user-1");
+        assertThat(two.join()).isEqualTo("user-2");
+    }
+
+    @Test
+    public void testHeldDispatchIsReleasedAfterMaxDelay() throws Exception {
+        SharedDataLoaderRegistry shared = new SharedDataLoaderRegistry(2, Duration.ofMillis(50));
+        SharedDataLoaderRegistry.OperationRegistry first = operation(shared);
+        operation(shared);
+
+        CompletableFuture<String> one = first.<String, String>getDataLoader(USERS).load("1");
+        first.dispatchAll();
+
+        // The second operation never asks, e.g. because it is waiting on a plain gRPC call
+        assertThat(one.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+        assertThat(batches).containsExactly(List.of("1"));
+    }
+
+    @Test
+    public void testFinishedOperationReleasesTheOthers() {
+        SharedDataLoaderRegistry shared = new SharedDataLoaderRegistry(3, Duration.ofMinutes(1));
+        SharedDataLoaderRegistry.OperationRegistry first = operation(shared);
+        SharedDataLoaderRegistry.OperationRegistry second = operation(shared);
+        SharedDataLoaderRegistry.OperationRegistry third = operation(shared);
+
+        CompletableFuture<String> one = first.<String, String>getDataLoader(USERS).load("1");
+        first.dispatchAll();
+        second.<String, String>getDataLoader(USERS).load("2");
+        second.dispatchAll();
+        assertThat(one).isNotDone();
+
+        third.finished();
+
+        assertThat(batches).containsExactly(List.of("1", "2"));
+        assertThat(one.join()).isEqualTo("user-1");
+    }
+
+    @Test
+    public void testFinishedOperationNoLongerHoldsLaterDispatches() {
+        SharedDataLoaderRegistry shared = new SharedDataLoaderRegistry(2, Duration.ofMinutes(1));
+        SharedDataLoaderRegistry.OperationRegistry first = operation(shared);
+        SharedDataLoaderRegistry.OperationRegistry second = operation(shared);
+        second.finished();
+        second.finished();
+
+        CompletableFuture<String> one = first.<String, String>getDataLoader(USERS).load("1");
+        first.dispatchAll();
+
+        assertThat(one.join()).isEqualTo("user-1");
+    }
+
+    @Test
+    public void testStatisticsAreReportedOnce() {
+        SharedDataLoaderRegistry shared = new SharedDataLoaderRegistry(1, Duration.ofMinutes(1));
+        SharedDataLoaderRegistry.OperationRegistry operation = operation(shared);
+        operation.<String, String>getDataLoader(USERS).load("1");
+        operation.dispatchAll();
+
+        assertThat(shared.takeStatistics(USERS).getBatchInvokeCount()).isEqualTo(1);
+        assertThat(shared.takeStatistics(USERS).getBatchInvokeCount()).isZero();
+    }
+
+    private SharedDataLoaderRegistry.OperationRegistry operation(SharedDataLoaderRegistry shared) {
+        SharedDataLoaderRegistry.OperationRegistry operation = shared.newOperationRegistry();
+        // As Spring GraphQL does, each operation registers a fresh loader of its own
+        DataLoader<String, String> loader = DataLoaderFactory.newDataLoader(keys -> {
+            batches.add(List.copyOf(keys));
+            return CompletableFuture.completedFuture(keys.stream().map(key -> "user-" + key).toList());
+        }, DataLoaderOptions.newOptions().setStatisticsCollector(SimpleStatisticsCollector::new));
+        operation.register(USERS, loader);
+        return operation;
+    }
+}
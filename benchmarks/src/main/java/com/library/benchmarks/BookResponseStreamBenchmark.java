@@ -0,0 +1,80 @@
+package com.library.benchmarks;
+
+import com.library.bookservice.grpc.BookResponse;
+import com.library.bookservice.grpc.BookServiceGrpc;
+import io.grpc.Drainable;
+import io.grpc.MethodDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a {@code SearchBooks} result stream with the marshaller gRPC uses
+ * for each message, one message at a time as they cross the wire. Encoding drains each
+ * message into a reused buffer as gRPC's framer does. Scores are whole streams per
+ * millisecond.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookResponseStreamBenchmark {
+
+    /** Messages per stream; 10 and 100 are the default and maximum search limits */
+    @Param({"10", "100"})
+    public int streamSize;
+
+    private final MethodDescriptor.Marshaller<BookResponse> marshaller =
+            BookServiceGrpc.getSearchBooksMethod().getResponseMarshaller();
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+
+    private List<BookResponse> responses;
+    private byte[][] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        responses = Fixtures.bookResponses(streamSize);
+        encoded = new byte[streamSize][];
+        for (int i = 0; i < streamSize; i++) {
+            try (InputStream stream = marshaller.stream(responses.get(i))) {
+                encoded[i] = stream.readAllBytes();
+            }
+        }
+    }
+
+    @Benchmark
+    public void encode(Blackhole blackhole) throws IOException {
+        for (BookResponse response : responses) {
+            buffer.reset();
+            try (InputStream stream = marshaller.stream(response)) {
+                blackhole.consume(((Drainable) stream).drainTo(buffer));
+            }
+        }
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        for (byte[] message : encoded) {
+            blackhole.consume(marshaller.parse(new ByteArrayInputStream(message)));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.library.benchmarks;
+
+import com.library.bookservice.grpc.Book;
+import com.library.bookservice.grpc.BookResponse;
+import com.library.userservice.grpc.BorrowHistory;
+import com.library.userservice.grpc.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Proto messages shaped like book-service and user-service responses, with every optional
+ * field set so the mappers take their longest path.
+ */
+final class Fixtures {
+
+    static final int USER_COUNT = 50;
+
+    private static final long EPOCH_SECOND = 1_700_000_000L;
+
+    private Fixtures() {
+    }
+
+    static String bookId(int i) {
+        return "book-" + i;
+    }
+
+    static String userId(int i) {
+        return "user-" + (i % USER_COUNT);
+    }
+
+    static int index(String id) {
+        return Integer.parseInt(id.substring(id.indexOf('-') + 1));
+    }
+
+    static Book book(int i) {
+        return Book.newBuilder()
+                .setId(bookId(i))
+                .setTitle("The Art of Computer Programming, Volume " + i)
+                .setAuthor("Donald E. Knuth")
+                .setIsbn("978-0-201-89683-" + (i % 10))
+                .setPublisher("Addison-Wesley")
+                .setPublicationYear(1968 + i % 50)
+                .setGenre(i % 2 == 0 ? "Computer Science" : "Mathematics")
+                .setTotalCopies(5)
+                .setAvailableCopies(i % 6)
+                .setDescription("A comprehensive monograph covering many kinds of programming algorithms "
+                        + "and their analysis.")
+                .setLanguage("English")
+                .setPages(650 + i)
+                .build();
+    }
+
+    static BookResponse bookResponse(int i) {
+        return BookResponse.newBuilder()
+                .setSuccess(true)
+                .setMessage("Book found")
+                .setBook(book(i))
+                .setCursor("Y3Vyc29yOg" + i)
+                .build();
+    }
+
+    static List<BookResponse> bookResponses(int count) {
+        List<BookResponse> responses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            responses.add(bookResponse(i));
+        }
+        return responses;
+    }
+
+    static User user(int i) {
+        return User.newBuilder()
+                .setId(userId(i))
+                .setUsername("reader" + i)
+                .setEmail("reader" + i + "@library.example")
+                .setFirstName("Ada")
+                .setLastName("Lovelace")
+                .setPhone("+44 20 7946 0" + String.format("%03d", i % 1000))
+                .setAddress(i + " Library Lane, London")
+                .setRegistrationDate(EPOCH_SECOND - i * 86_400L)
+                .setStatus("ACTIVE")
+                .setMembershipType(i % 3 == 0 ? "PREMIUM" : i % 3 == 1 ? "BASIC" : "STUDENT")
+                .setMaxBooksAllowed(10)
+                .setCurrentBorrowedBooks(i % 4)
+                .setOutstandingFines(i % 5 == 0 ? 2.5 : 0.0)
+                .build();
+    }
+
+    static BorrowHistory borrowHistory(int i) {
+        boolean returned = i % 2 == 0;
+        return BorrowHistory.newBuilder()
+                .setTransactionId("txn-" + i)
+                .setBookId(bookId(i))
+                .setBookTitle("The Art of Computer Programming, Volume " + i)
+                .setBorrowDate(EPOCH_SECOND - 30 * 86_400L)
+                .setDueDate(EPOCH_SECOND - 16 * 86_400L)
+                .setReturnDate(returned ? EPOCH_SECOND - 20 * 86_400L : 0)
+                .setStatus(returned ? "RETURNED" : "OVERDUE")
+                .setFineAmount(returned ? 0.0 : 1.75)
+                .build();
+    }
+
+    static List<BorrowHistory> borrowHistories(int count) {
+        List<BorrowHistory> histories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            histories.add(borrowHistory(i));
+        }
+        return histories;
+    }
+}
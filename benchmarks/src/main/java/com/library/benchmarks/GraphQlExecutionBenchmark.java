@@ -0,0 +1,125 @@
+package com.library.benchmarks;
+
+import com.library.apigateway.ApiGatewayApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Whole GraphQL executions through the gateway's resolvers, DataLoaders and gRPC channel
+ * stack against {@link InProcessServices}, without the HTTP transport. The response cache,
+ * the shared entity cache and single-flight are turned off so every execution does the
+ * downstream calls and DataLoader dispatches it would on a miss.
+ * <p>
+ * Run with {@code -prof gc} for the allocation rate, and with {@code -t} above 1 to see
+ * how executions scale across threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GraphQlExecutionBenchmark {
+
+    private static final Map<String, String> QUERIES = Map.of(
+            // GetBook, then one GetBorrowersBatch and one GetUsers
+            "book", """
+                    query {
+                      book(id: "book-7") {
+                        success
+                        book { id title author availableCopies isAvailable borrowedBy { id fullName email } }
+                      }
+                    }""",
+            // A SearchBooks stream of 20, whose borrowers load in one batch per level
+            "searchBooks", """
+                    query {
+                      searchBooks(input: { query: "knuth", searchType: AUTHOR, limit: 20 }) {
+                        totalCount
+                        books { id title genre pages isAvailable borrowedBy { id username membershipType } }
+                      }
+                    }""",
+            // GetUser and GetBorrowHistory resolved side by side
+            "userWithHistory", """
+                    query {
+                      user(id: "user-3") {
+                        user { id fullName email status membershipType canBorrowMore hasFines }
+                      }
+                      userBorrowHistory(userId: "user-3", limit: 10) {
+                        totalCount
+                        history { transactionId bookTitle borrowDate dueDate returnDate status fineAmount }
+                      }
+                    }""");
+
+    @Param({"book", "searchBooks", "userWithHistory"})
+    public String query;
+
+    /** {@code gateway.resolver.mode}: async future stubs or blocking stubs on the resolver executor */
+    @Param({"async", "blocking"})
+    public String resolverMode;
+
+    private final AtomicLong requestIds = new AtomicLong();
+
+    private InProcessServices services;
+    private ConfigurableApplicationContext context;
+    private ExecutionGraphQlService graphQlService;
+    private String document;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        services = InProcessServices.start();
+        context = new SpringApplicationBuilder(ApiGatewayApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "grpc.client.book-service.address=in-process:" + InProcessServices.BOOK_SERVICE,
+                        "grpc.client.user-service.address=in-process:" + InProcessServices.USER_SERVICE,
+                        "gateway.grpc.load-balancing.health-check=false",
+                        "gateway.resolver.mode=" + resolverMode,
+                        "gateway.single-flight.enabled=false",
+                        "dataloader.shared-cache.enabled=false",
+                        "graphql.response-cache.enabled=false")
+                .run();
+        graphQlService = context.getBean(ExecutionGraphQlService.class);
+        document = QUERIES.get(query);
+
+        ExecutionGraphQlResponse response = execute();
+        if (!response.isValid() || !response.getErrors().isEmpty()) {
+            throw new IllegalStateException("Benchmark query failed: " + response.getErrors());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        context.close();
+        services.close();
+    }
+
+    @Benchmark
+    public ExecutionGraphQlResponse execute() {
+        return graphQlService.execute(new DefaultExecutionGraphQlRequest(
+                document, null, null, null, Long.toString(requestIds.incrementAndGet()), Locale.ROOT)).block();
+    }
+}
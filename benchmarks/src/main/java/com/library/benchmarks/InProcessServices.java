@@ -0,0 +1,145 @@
+package com.library.benchmarks;
+
+import com.library.bookservice.grpc.BookBorrowers;
+import com.library.bookservice.grpc.BookRequest;
+import com.library.bookservice.grpc.BookResponse;
+import com.library.bookservice.grpc.BookServiceGrpc;
+import com.library.bookservice.grpc.GetBooksByIdsRequest;
+import com.library.bookservice.grpc.GetBooksByIdsResponse;
+import com.library.bookservice.grpc.GetBorrowersBatchRequest;
+import com.library.bookservice.grpc.GetBorrowersBatchResponse;
+import com.library.bookservice.grpc.SearchRequest;
+import com.library.userservice.grpc.BorrowHistoryRequest;
+import com.library.userservice.grpc.BorrowHistoryResponse;
+import com.library.userservice.grpc.GetUsersRequest;
+import com.library.userservice.grpc.GetUsersResponse;
+import com.library.userservice.grpc.UserRequest;
+import com.library.userservice.grpc.UserResponse;
+import com.library.userservice.grpc.UserServiceGrpc;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process stand-ins for book-service and user-service answering from {@link Fixtures},
+ * so a benchmark measures the gateway rather than the database behind the real services.
+ * The gateway reaches them through {@code grpc.client.<service>.address=in-process:<name>}.
+ */
+final class InProcessServices implements AutoCloseable {
+
+    static final String BOOK_SERVICE = "benchmark-book-service";
+    static final String USER_SERVICE = "benchmark-user-service";
+
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int BORROW_HISTORY_TOTAL = 25;
+
+    private final Server bookServer;
+    private final Server userServer;
+
+    private InProcessServices(Server bookServer, Server userServer) {
+        this.bookServer = bookServer;
+        this.userServer = userServer;
+    }
+
+    static InProcessServices start() throws IOException {
+        Server bookServer = InProcessServerBuilder.forName(BOOK_SERVICE)
+                .addService(new FakeBookService())
+                .build()
+                .start();
+        Server userServer = InProcessServerBuilder.forName(USER_SERVICE)
+                .addService(new FakeUserService())
+                .build()
+                .start();
+        return new InProcessServices(bookServer, userServer);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        bookServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        userServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static final class FakeBookService extends BookServiceGrpc.BookServiceImplBase {
+
+        @Override
+        public void getBook(BookRequest request, StreamObserver<BookResponse> responseObserver) {
+            responseObserver.onNext(Fixtures.bookResponse(Fixtures.index(request.getBookId())));
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void searchBooks(SearchRequest request, StreamObserver<BookResponse> responseObserver) {
+            int limit = request.getLimit() > 0 ? request.getLimit() : DEFAULT_SEARCH_LIMIT;
+            for (int i = 0; i < limit; i++) {
+                responseObserver.onNext(Fixtures.bookResponse(request.getOffset() + i));
+            }
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void getBooksByIds(GetBooksByIdsRequest request, StreamObserver<GetBooksByIdsResponse> responseObserver) {
+            GetBooksByIdsResponse.Builder response = GetBooksByIdsResponse.newBuilder().setSuccess(true);
+            for (String bookId : request.getBookIdsList()) {
+                response.addBooks(Fixtures.book(Fixtures.index(bookId)));
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        }
+
+        /** Every book has two borrowers, so a page of books fans out to a users batch */
+        @Override
+        public void getBorrowersBatch(GetBorrowersBatchRequest request,
+                                      StreamObserver<GetBorrowersBatchResponse> responseObserver) {
+            GetBorrowersBatchResponse.Builder response = GetBorrowersBatchResponse.newBuilder().setSuccess(true);
+            for (String bookId : request.getBookIdsList()) {
+                int i = Fixtures.index(bookId);
+                response.addBorrowers(BookBorrowers.newBuilder()
+                        .setBookId(bookId)
+                        .addUserIds(Fixtures.userId(i))
+                        .addUserIds(Fixtures.userId(i + 7)));
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        }
+    }
+
+    private static final class FakeUserService extends UserServiceGrpc.UserServiceImplBase {
+
+        @Override
+        public void getUser(UserRequest request, StreamObserver<UserResponse> responseObserver) {
+            responseObserver.onNext(UserResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("User found")
+                    .setUser(Fixtures.user(Fixtures.index(request.getUserId())))
+                    .build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void getUsers(GetUsersRequest request, StreamObserver<GetUsersResponse> responseObserver) {
+            GetUsersResponse.Builder response = GetUsersResponse.newBuilder().setSuccess(true);
+            for (String userId : request.getUserIdsList()) {
+                response.addUsers(Fixtures.user(Fixtures.index(userId)));
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void getBorrowHistory(BorrowHistoryRequest request,
+                                     StreamObserver<BorrowHistoryResponse> responseObserver) {
+            int limit = Math.min(request.getLimit(), BORROW_HISTORY_TOTAL - request.getOffset());
+            BorrowHistoryResponse.Builder response = BorrowHistoryResponse.newBuilder()
+                    .setSuccess(true)
+                    .setTotalCount(BORROW_HISTORY_TOTAL);
+            for (int i = 0; i < limit; i++) {
+                response.addHistory(Fixtures.borrowHistory(request.getOffset() + i));
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        }
+    }
+}
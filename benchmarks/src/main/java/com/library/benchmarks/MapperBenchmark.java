@@ -0,0 +1,77 @@
+package com.library.benchmarks;
+
+import com.library.apigateway.dto.Book;
+import com.library.apigateway.dto.BorrowRecord;
+import com.library.apigateway.dto.User;
+import com.library.apigateway.mapper.BookMapper;
+import com.library.apigateway.mapper.UserMapper;
+import com.library.userservice.grpc.BorrowHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proto-to-DTO mapping done for every book and user a resolver returns. Run with
+ * {@code -prof gc} to see the bytes allocated per mapped entity.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final BookMapper bookMapper = new BookMapper();
+    private final UserMapper userMapper = new UserMapper();
+
+    private com.library.bookservice.grpc.Book protoBook;
+    private com.library.userservice.grpc.User protoUser;
+
+    @State(Scope.Thread)
+    public static class History {
+
+        /** Entries per borrow history page */
+        @Param({"10", "100"})
+        public int historySize;
+
+        private List<BorrowHistory> protoHistory;
+
+        @Setup
+        public void setUp() {
+            protoHistory = Fixtures.borrowHistories(historySize);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        protoBook = Fixtures.book(42);
+        protoUser = Fixtures.user(42);
+    }
+
+    @Benchmark
+    public Book toBook() {
+        return bookMapper.toBook(protoBook);
+    }
+
+    @Benchmark
+    public User toUser() {
+        return userMapper.toUser(protoUser);
+    }
+
+    @Benchmark
+    public List<BorrowRecord> toBorrowRecords(History history) {
+        return userMapper.toBorrowRecords(history.protoHistory);
+    }
+}
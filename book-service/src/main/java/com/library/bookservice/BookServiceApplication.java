@@ -2,9 +2,11 @@ package com.library.bookservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import net.devh.boot.grpc.server.autoconfigure.GrpcServerAutoConfiguration;
 
 @SpringBootApplication
+@EnableScheduling
 public class BookServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,24 @@
+package com.library.bookservice.repository;
+
+import jakarta.persistence.Tuple;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Book queries that read only the requested columns. Each {@link Tuple} element is
+ * aliased with its entity attribute name, e.g. {@code tuple.get("availableCopies")}.
+ */
+public interface BookProjectionRepository {
+
+    Optional<Tuple> findProjectedById(Long id, Collection<String> attributes);
+
+    /**
+     * Projected form of the search queries in {@link BookRepository}, in {@code (title, id)}
+     * order. A {@code null} search type matches all fields; a {@code null} afterId starts
+     * at {@code offset} instead of after the cursor.
+     */
+    List<Tuple> searchProjected(Collection<String> attributes, String query, String searchType,
+                                String afterTitle, Long afterId, int offset, int limit);
+}
@@ -0,0 +1,62 @@
+package com.library.bookservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class BookProjectionRepositoryImpl implements BookProjectionRepository {
+
+    private static final Set<String> ATTRIBUTES = Set.of("id", "title", "author", "isbn", "publisher",
+            "publicationYear", "genre", "totalCopies", "availableCopies", "description", "language", "pages");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Tuple> findProjectedById(Long id, Collection<String> attributes) {
+        return entityManager.createQuery(select(attributes) + " WHERE b.id = :id", Tuple.class)
+                .setParameter("id", id)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<Tuple> searchProjected(Collection<String> attributes, String query, String searchType,
+                                       String afterTitle, Long afterId, int offset, int limit) {
+        String where = searchType != null ? BookRepository.TYPED_MATCH : BookRepository.GENERAL_MATCH;
+        if (afterId != null) {
+            where += " AND " + BookRepository.AFTER_CURSOR;
+        }
+        TypedQuery<Tuple> jpql = entityManager.createQuery(
+                select(attributes) + " WHERE " + where + " ORDER BY b.title, b.id", Tuple.class);
+        jpql.setParameter("query", query);
+        if (searchType != null) {
+            jpql.setParameter("searchType", searchType);
+        }
+        if (afterId != null) {
+            jpql.setParameter("afterTitle", afterTitle);
+            jpql.setParameter("afterId", afterId);
+        } else {
+            jpql.setFirstResult(offset);
+        }
+        return jpql.setMaxResults(limit).getResultList();
+    }
+
+    private static String select(Collection<String> attributes) {
+        if (attributes.isEmpty() || !ATTRIBUTES.containsAll(attributes)) {
+            // Attribute names are spliced into JPQL, so only known ones are accepted
+            throw new IllegalArgumentException("Unknown book attributes: " + attributes);
+        }
+        return attributes.stream()
+                .map(attribute -> "b." + attribute + " AS " + attribute)
+                .collect(Collectors.joining(", ", "SELECT ", " FROM Book b"));
+    }
+}
@@ -1,9 +1,11 @@
 package com.library.bookservice.repository;
 
 import com.library.bookservice.entity.Book;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,10 +14,15 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookProjectionRepository {
 
     Optional<Book> findByIsbn(String isbn);
 
+    // Row lock held until commit, so concurrent borrows and returns see each other's copies
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
+
     List<Book> findByTitleContainingIgnoreCase(String title);
 
     List<Book> findByAuthorContainingIgnoreCase(String author);
@@ -27,22 +34,42 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT b FROM Book b WHERE b.availableCopies > 0")
     List<Book> findAllAvailableBooks();
 
-    @Query("SELECT b FROM Book b WHERE " +
-           "(:searchType = 'title' AND LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%'))) OR " +
-           "(:searchType = 'author' AND LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%'))) OR " +
-           "(:searchType = 'isbn' AND b.isbn = :query) OR " +
-           "(:searchType = 'genre' AND LOWER(b.genre) LIKE LOWER(CONCAT('%', :query, '%')))")
+    /** Search predicates shared with the column projections in {@link BookProjectionRepository} */
+    String TYPED_MATCH = "((:searchType = 'title' AND LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%'))) OR " +
+                         "(:searchType = 'author' AND LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%'))) OR " +
+                         "(:searchType = 'isbn' AND b.isbn = :query) OR " +
+                         "(:searchType = 'genre' AND LOWER(b.genre) LIKE LOWER(CONCAT('%', :query, '%'))))";
+
+    String GENERAL_MATCH = "(LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+                           "LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+                           "LOWER(b.genre) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+                           "b.isbn = :query)";
+
+    String AFTER_CURSOR = "(b.title > :afterTitle OR (b.title = :afterTitle AND b.id > :afterId))";
+
+    @Query("SELECT b FROM Book b WHERE " + TYPED_MATCH)
     Page<Book> searchBooks(@Param("query") String query, 
                           @Param("searchType") String searchType, 
                           Pageable pageable);
 
-    @Query("SELECT b FROM Book b WHERE " +
-           "LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(b.genre) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "b.isbn = :query")
+    @Query("SELECT b FROM Book b WHERE " + GENERAL_MATCH)
     Page<Book> searchBooksGeneral(@Param("query") String query, Pageable pageable);
 
+    // Keyset variants of the searches above: rows strictly after (afterTitle, afterId) in
+    // (title, id) order, so every page costs the same regardless of depth
+    @Query("SELECT b FROM Book b WHERE " + TYPED_MATCH + " AND " + AFTER_CURSOR + " ORDER BY b.title, b.id")
+    List<Book> searchBooksAfter(@Param("query") String query,
+                                @Param("searchType") String searchType,
+                                @Param("afterTitle") String afterTitle,
+                                @Param("afterId") Long afterId,
+                                Pageable pageable);
+
+    @Query("SELECT b FROM Book b WHERE " + GENERAL_MATCH + " AND " + AFTER_CURSOR + " ORDER BY b.title, b.id")
+    List<Book> searchBooksGeneralAfter(@Param("query") String query,
+                                       @Param("afterTitle") String afterTitle,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
     @Query("SELECT COUNT(b) FROM Book b WHERE b.availableCopies > 0")
     long countAvailableBooks();
 
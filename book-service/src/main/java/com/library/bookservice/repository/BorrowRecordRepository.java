@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +23,10 @@ public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long
 
     List<BorrowRecord> findByBookIdAndStatus(Long bookId, BorrowRecord.BorrowStatus status);
 
+    @Query("SELECT br.book.id AS bookId, br.userId AS userId FROM BorrowRecord br " +
+           "WHERE br.book.id IN :bookIds AND br.status = 'BORROWED' ORDER BY br.book.id, br.borrowDate")
+    List<BorrowerRow> findActiveBorrowers(@Param("bookIds") Collection<Long> bookIds);
+
     @Query("SELECT br FROM BorrowRecord br WHERE br.userId = :userId AND br.book.id = :bookId AND br.status = 'BORROWED'")
     Optional<BorrowRecord> findActiveBorrowRecord(@Param("userId") String userId, @Param("bookId") Long bookId);
 
@@ -30,4 +35,10 @@ public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long
 
     @Query("SELECT COUNT(br) FROM BorrowRecord br WHERE br.userId = :userId AND br.status = 'BORROWED'")
     long countActiveBorrowsByUser(@Param("userId") String userId);
+
+    interface BorrowerRow {
+        Long getBookId();
+
+        String getUserId();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.library.bookservice.service;
+
+import com.library.bookservice.entity.Book;
+import com.library.bookservice.grpc.AvailabilityChange;
+import com.library.bookservice.grpc.WatchAvailabilityRequest;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans availability changes out to every open {@code WatchAvailability} stream.
+ * <p>
+ * Borrow and return report each change of a book's available copies; the change is sent
+ * only after the surrounding transaction commits, so watchers never see a count that was
+ * rolled back. A watcher whose stream fails is dropped, and one that cannot keep up is
+ * failed rather than buffered for without limit; the gateway reconnects it.
+ */
+@Component
+@Slf4j
+public class AvailabilityBroadcaster {
+
+    private final Set<Watcher> watchers = ConcurrentHashMap.newKeySet();
+
+    public void watch(WatchAvailabilityRequest request, StreamObserver<AvailabilityChange> responseObserver) {
+        ServerCallStreamObserver<AvailabilityChange> call = (ServerCallStreamObserver<AvailabilityChange>) responseObserver;
+        Watcher watcher = new Watcher(Set.copyOf(request.getBookIdsList()), call);
+        call.setOnCancelHandler(() -> {
+            watchers.remove(watcher);
+            log.debug("Availability watcher cancelled, {} remaining", watchers.size());
+        });
+        watchers.add(watcher);
+        log.info("Availability watcher added for {} book(s), {} watching",
+                watcher.bookIds().isEmpty() ? "all" : watcher.bookIds().size(), watchers.size());
+    }
+
+    /** The available copies of {@code book} changed; its current counts are sent on commit. */
+    public void availabilityChanged(Book book) {
+        AvailabilityChange change = AvailabilityChange.newBuilder()
+                .setBookId(book.getId().toString())
+                .setAvailableCopies(book.getAvailableCopies())
+                .setTotalCopies(book.getTotalCopies())
+                .setChangedAt(Instant.now().getEpochSecond())
+                .build();
+        TransactionCallbacks.afterCommit(() -> watchers.forEach(watcher -> send(watcher, change)));
+    }
+
+    @PreDestroy
+    public void completeAll() {
+        watchers.forEach(watcher -> {
+            synchronized (watcher.call()) {
+                watcher.call().onCompleted();
+            }
+        });
+        watchers.clear();
+    }
+
+    private void send(Watcher watcher, AvailabilityChange change) {
+        if (!watcher.bookIds().isEmpty() && !watcher.bookIds().contains(change.getBookId())) {
+            return;
+        }
+        try {
+            // Commits on different threads may broadcast at once; a call accepts one message at a time
+            synchronized (watcher.call()) {
+                if (watcher.call().isCancelled()) {
+                    return;
+                }
+                if (!watcher.call().isReady()) {
+                    watchers.remove(watcher);
+                    log.warn("Availability watcher fell behind, failing its stream");
+                    watcher.call().onError(Status.RESOURCE_EXHAUSTED
+                            .withDescription("Availability watcher fell behind; reconnect to resynchronise")
+                            .asRuntimeException());
+                    return;
+                }
+                watcher.call().onNext(change);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Dropping availability watcher: {}", e.getMessage());
+            watchers.remove(watcher);
+        }
+    }
+
+    private record Watcher(Set<String> bookIds, ServerCallStreamObserver<AvailabilityChange> call) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.library.bookservice.service;
+
+import com.library.bookservice.entity.Book;
+import com.library.bookservice.exception.InvalidBookDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the {@code (title, id)} search order, serialised as an opaque
+ * URL-safe string so clients cannot depend on its layout.
+ */
+public record BookCursor(String title, Long id) {
+
+    private static final String SEPARATOR = ":";
+
+    public static BookCursor of(Book book) {
+        return new BookCursor(book.getTitle(), book.getId());
+    }
+
+    public String encode() {
+        String raw = id + SEPARATOR + title;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new BookCursor(raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidBookDataException("Invalid search cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.library.bookservice.service;
+
+import com.google.protobuf.FieldMask;
+import com.library.bookservice.exception.InvalidBookDataException;
+import jakarta.persistence.Tuple;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Proto {@code Book} fields that a {@link FieldMask} may select, with the entity attribute
+ * each one is read from. {@code id} and {@code title} are always read because search
+ * cursors are built from them.
+ */
+enum BookField {
+
+    ID("id", "id", (book, value) -> book.setId(value.toString())),
+    TITLE("title", "title", (book, value) -> book.setTitle((String) value)),
+    AUTHOR("author", "author", (book, value) -> book.setAuthor((String) value)),
+    ISBN("isbn", "isbn", (book, value) -> book.setIsbn((String) value)),
+    PUBLISHER("publisher", "publisher", (book, value) -> book.setPublisher((String) value)),
+    PUBLICATION_YEAR("publication_year", "publicationYear", (book, value) -> book.setPublicationYear((Integer) value)),
+    GENRE("genre", "genre", (book, value) -> book.setGenre((String) value)),
+    TOTAL_COPIES("total_copies", "totalCopies", (book, value) -> book.setTotalCopies((Integer) value)),
+    AVAILABLE_COPIES("available_copies", "availableCopies", (book, value) -> book.setAvailableCopies((Integer) value)),
+    DESCRIPTION("description", "description", (book, value) -> book.setDescription((String) value)),
+    LANGUAGE("language", "language", (book, value) -> book.setLanguage((String) value)),
+    PAGES("pages", "pages", (book, value) -> book.setPages((Integer) value));
+
+    private static final Map<String, BookField> BY_PATH = Arrays.stream(values())
+            .collect(Collectors.toMap(field -> field.path, Function.identity()));
+
+    private final String path;
+    private final String attribute;
+    private final BiConsumer<com.library.bookservice.grpc.Book.Builder, Object> setter;
+
+    BookField(String path, String attribute, BiConsumer<com.library.bookservice.grpc.Book.Builder, Object> setter) {
+        this.path = path;
+        this.attribute = attribute;
+        this.setter = setter;
+    }
+
+    /** The fields selected by a mask, or {@code null} when the mask is empty and every field is wanted. */
+    static Set<BookField> fromMask(FieldMask mask) {
+        if (mask.getPathsCount() == 0) {
+            return null;
+        }
+        Set<BookField> fields = EnumSet.of(ID, TITLE);
+        for (String path : mask.getPathsList()) {
+            BookField field = BY_PATH.get(path);
+            if (field == null) {
+                throw new InvalidBookDataException("Unknown book field in field mask: " + path);
+            }
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    static List<String> attributes(Set<BookField> fields) {
+        return fields.stream().map(field -> field.attribute).toList();
+    }
+
+    /** Builds a proto book holding only the given fields; null columns keep the proto default. */
+    static com.library.bookservice.grpc.Book toProto(Tuple row, Set<BookField> fields) {
+        com.library.bookservice.grpc.Book.Builder book = com.library.bookservice.grpc.Book.newBuilder();
+        for (BookField field : fields) {
+            Object value = row.get(field.attribute);
+            if (value != null) {
+                field.setter.accept(book, value);
+            }
+        }
+        return book.build();
+    }
+}
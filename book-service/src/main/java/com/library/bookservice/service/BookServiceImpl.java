@@ -10,19 +10,26 @@ import com.library.bookservice.exception.ErrorCode;
 import com.library.bookservice.grpc.*;
 import com.library.bookservice.repository.BookRepository;
 import com.library.bookservice.repository.BorrowRecordRepository;
+import com.library.bookservice.repository.OffsetPageRequest;
 import io.grpc.stub.StreamObserver;
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @GrpcService
@@ -32,6 +39,9 @@ public class BookServiceImpl extends BookServiceGrpc.BookServiceImplBase {
 
     private final BookRepository bookRepository;
     private final BorrowRecordRepository borrowRecordRepository;
+    private final CatalogStatistics catalogStatistics;
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+    private final ChangeBroadcaster changeBroadcaster;
 
     @Override
     public void getBook(BookRequest request, StreamObserver<BookResponse> responseObserver) {
@@ -50,17 +60,20 @@ public class BookServiceImpl extends BookServiceGrpc.BookServiceImplBase {
                 throw new InvalidBookDataException("Book ID must be a valid number: " + request.getBookId());
             }
             
-            Optional<Book> bookOpt = bookRepository.findById(bookId);
+            Set<BookField> fields = BookField.fromMask(request.getFieldMask());
+            Optional<com.library.bookservice.grpc.Book> bookOpt = fields == null
+                    ? bookRepository.findById(bookId).map(this::mapToProtoBook)
+                    : bookRepository.findProjectedById(bookId, BookField.attributes(fields))
+                            .map(row -> BookField.toProto(row, fields));
 
             if (bookOpt.isEmpty()) {
                 throw new BookNotFoundException(request.getBookId());
             }
             
-            Book book = bookOpt.get();
             BookResponse response = BookResponse.newBuilder()
                     .setSuccess(true)
                     .setMessage("Book found successfully")
-                    .setBook(mapToProtoBook(book))
+                    .setBook(bookOpt.get())
                     .build();
 
             responseObserver.onNext(response);
@@ -83,27 +96,41 @@ public class BookServiceImpl extends BookServiceGrpc.BookServiceImplBase {
 
         try {
             int limit = request.getLimit() > 0 ? request.getLimit() : 10;
+            String searchType = request.getSearchType().toLowerCase();
+            boolean general = searchType.isEmpty() || searchType.equals("all");
+
+            BookCursor after = StringUtils.hasText(request.getAfter()) ? BookCursor.decode(request.getAfter()) : null;
             int offset = Math.max(0, request.getOffset());
-            int page = offset / limit;
 
-            Pageable pageable = PageRequest.of(page, limit);
-            Page<Book> books;
+            Set<BookField> fields = BookField.fromMask(request.getFieldMask());
+            if (fields != null) {
+                // Only the masked columns are selected and only those proto fields are set
+                List<Tuple> rows = bookRepository.searchProjected(BookField.attributes(fields), request.getQuery(),
+                        general ? null : searchType,
+                        after != null ? after.title() : null, after != null ? after.id() : null,
+                        offset, limit);
+                rows.forEach(row -> responseObserver.onNext(searchResult(BookField.toProto(row, fields),
+                        new BookCursor(row.get("title", String.class), row.get("id", Long.class)))));
+                responseObserver.onCompleted();
+                return;
+            }
 
-            String searchType = request.getSearchType().toLowerCase();
-            if (searchType.isEmpty() || searchType.equals("all")) {
-                books = bookRepository.searchBooksGeneral(request.getQuery(), pageable);
+            List<Book> books;
+            if (after != null) {
+                // Keyset page: seek past the cursor instead of skipping offset rows
+                Pageable firstRows = PageRequest.of(0, limit);
+                books = general
+                        ? bookRepository.searchBooksGeneralAfter(request.getQuery(), after.title(), after.id(), firstRows)
+                        : bookRepository.searchBooksAfter(request.getQuery(), searchType, after.title(), after.id(), firstRows);
             } else {
-                books = bookRepository.searchBooks(request.getQuery(), searchType, pageable);
+                // Same (title, id) order as the keyset queries so a cursor can continue from here
+                Pageable pageable = new OffsetPageRequest(offset, limit, Sort.by("title", "id"));
+                books = general
+                        ? bookRepository.searchBooksGeneral(request.getQuery(), pageable).getContent()
+                        : bookRepository.searchBooks(request.getQuery(), searchType, pageable).getContent();
             }
 
-            books.getContent().forEach(book -> {
-                BookResponse response = BookResponse.newBuilder()
-                        .setSuccess(true)
-                        .setMessage("Book found")
-                        .setBook(mapToProtoBook(book))
-                        .build();
-                responseObserver.onNext(response);
-            });
+            books.forEach(book -> responseObserver.onNext(searchResult(mapToProtoBook(book), BookCursor.of(book))));
 
             responseObserver.onCompleted();
 
@@ -126,7 +153,7 @@ public class BookServiceImpl extends BookServiceGrpc.BookServiceImplBase {
 
         try {
             Long bookId = Long.parseLong(request.getBookId());
-            Optional<Book> bookOpt = bookRepository.findById(bookId);
+            Optional<Book> bookOpt = bookRepository.findByIdForUpdate(bookId);
 
             BorrowResponse.Builder responseBuilder = BorrowResponse.newBuilder();
 
@@ -168,6 +195,11 @@ public class BookServiceImpl extends BookServiceGrpc.BookServiceImplBase {
 
                         // Update book availability
                         book.borrowBook();
+                        if (!book.isAvailable()) {
+                            catalogStatistics.bookBecameUnavailable();
+                        }
+                        availabilityBroadcaster.availabilityChanged(book);
+                        changeBroadcaster.bookChanged(book);
                         
                         // Save records
                         borrowRecordRepository.save(borrowRecord);
@@ -176,7 +208,8 @@ public class BookServiceImpl extends BookServiceGrpc.BookServiceImplBase {
                         responseBuilder.setSuccess(true)
                                      .setMessage("Book borrowed successfully")
                                      .setTransactionId(transactionId)
-                                     .setDueDate(request.getDueDate());
+                                     .setDueDate(request.getDueDate())
+                                     .setBook(mapToProtoBook(book));
                     }
                 }
             }
@@ -203,6 +236,8 @@ public class BookServiceImpl extends BookServiceGrpc.BookServiceImplBase {
 
         try {
             Long bookId = Long.parseLong(request.getBookId());
+            // Lock the book first, so a concurrent return of the same record finds it returned
+            bookRepository.findByIdForUpdate(bookId);
             Optional<BorrowRecord> borrowRecordOpt = borrowRecordRepository
                     .findActiveBorrowRecord(request.getUserId(), bookId);
 
@@ -232,7 +267,16 @@ public class BookServiceImpl extends BookServiceGrpc.BookServiceImplBase {
                 borrowRecord.setFineAmount(fineAmount);
 
                 // Update book availability
+                boolean wasAvailable = book.isAvailable();
+                int copiesBefore = book.getAvailableCopies();
                 book.returnBook();
+                if (!wasAvailable && book.isAvailable()) {
+                    catalogStatistics.bookBecameAvailable();
+                }
+                if (book.getAvailableCopies() != copiesBefore) {
+                    availabilityBroadcaster.availabilityChanged(book);
+                    changeBroadcaster.bookChanged(book);
+                }
 
                 // Save records
                 borrowRecordRepository.save(borrowRecord);
@@ -242,7 +286,8 @@ public class BookServiceImpl extends BookServiceGrpc.BookServiceImplBase {
                              .setMessage("Book returned successfully")
                              .setTransactionId(borrowRecord.getTransactionId())
                              .setReturnDate(request.getReturnDate())
-                             .setFineAmount(fineAmount);
+                             .setFineAmount(fineAmount)
+                             .setBook(mapToProtoBook(book));
             }
 
             responseObserver.onNext(responseBuilder.build());
@@ -292,6 +337,139 @@ public class BookServiceImpl extends BookServiceGrpc.BookServiceImplBase {
         }
     }
 
+    @Override
+    public void getBorrowersBatch(GetBorrowersBatchRequest request, StreamObserver<GetBorrowersBatchResponse> responseObserver) {
+        log.info("Received GetBorrowersBatch request for {} books", request.getBookIdsCount());
+
+        try {
+            List<Long> bookIds = new ArrayList<>(request.getBookIdsCount());
+            for (String bookId : request.getBookIdsList()) {
+                try {
+                    bookIds.add(Long.parseLong(bookId));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring invalid book ID in batch: {}", bookId);
+                }
+            }
+
+            GetBorrowersBatchResponse.Builder responseBuilder = GetBorrowersBatchResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("Borrowers retrieved successfully");
+
+            if (!bookIds.isEmpty()) {
+                // Rows arrive ordered by book_id, so each book's borrowers are contiguous
+                Map<Long, BookBorrowers.Builder> borrowersByBook = new LinkedHashMap<>();
+                borrowRecordRepository.findActiveBorrowers(bookIds).forEach(row ->
+                        borrowersByBook.computeIfAbsent(row.getBookId(), id ->
+                                        BookBorrowers.newBuilder().setBookId(id.toString()))
+                                .addUserIds(row.getUserId()));
+
+                borrowersByBook.values().forEach(responseBuilder::addBorrowers);
+            }
+
+            responseObserver.onNext(responseBuilder.build());
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            log.error("Error getting borrowers for books", e);
+            GetBorrowersBatchResponse response = GetBorrowersBatchResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("Error getting borrowers: " + e.getMessage())
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    public void getBooksByIds(GetBooksByIdsRequest request, StreamObserver<GetBooksByIdsResponse> responseObserver) {
+        log.info("Received GetBooksByIds request for {} books", request.getBookIdsCount());
+
+        try {
+            // Skip malformed IDs so one bad key does not fail the whole batch
+            List<Long> bookIds = new ArrayList<>(request.getBookIdsCount());
+            for (String bookId : request.getBookIdsList()) {
+                try {
+                    bookIds.add(Long.parseLong(bookId));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring invalid book ID in batch: {}", bookId);
+                }
+            }
+
+            GetBooksByIdsResponse.Builder responseBuilder = GetBooksByIdsResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("Books retrieved successfully");
+
+            if (!bookIds.isEmpty()) {
+                bookRepository.findAllById(bookIds).forEach(book ->
+                        responseBuilder.addBooks(mapToProtoBook(book)));
+            }
+
+            responseObserver.onNext(responseBuilder.build());
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            log.error("Error getting books by IDs", e);
+            GetBooksByIdsResponse response = GetBooksByIdsResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("Error getting books: " + e.getMessage())
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    public void getCatalogStats(GetCatalogStatsRequest request, StreamObserver<GetCatalogStatsResponse> responseObserver) {
+        log.info("Received GetCatalogStats request");
+
+        try {
+            CatalogStatistics.Snapshot stats = catalogStatistics.snapshot();
+
+            GetCatalogStatsResponse response = GetCatalogStatsResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("Catalog statistics retrieved successfully")
+                    .setTotalBooks(stats.totalBooks())
+                    .setAvailableBooks(stats.availableBooks())
+                    .addAllGenres(stats.genres())
+                    .build();
+
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            log.error("Error getting catalog statistics", e);
+            GetCatalogStatsResponse response = GetCatalogStatsResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("Error getting catalog statistics: " + e.getMessage())
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    public void watchAvailability(WatchAvailabilityRequest request, StreamObserver<AvailabilityChange> responseObserver) {
+        log.info("Received WatchAvailability request for {} book(s)", request.getBookIdsCount());
+        // The stream stays open until the client cancels it or the service shuts down
+        availabilityBroadcaster.watch(request, responseObserver);
+    }
+
+    @Override
+    public void watchChanges(WatchChangesRequest request, StreamObserver<BookChange> responseObserver) {
+        log.info("Received WatchChanges request");
+        // The stream stays open until the client cancels it or the service shuts down
+        changeBroadcaster.watch(responseObserver);
+    }
+
+    private static BookResponse searchResult(com.library.bookservice.grpc.Book book, BookCursor cursor) {
+        return BookResponse.newBuilder()
+                .setSuccess(true)
+                .setMessage("Book found")
+                .setBook(book)
+                .setCursor(cursor.encode())
+                .build();
+    }
+
     private com.library.bookservice.grpc.Book mapToProtoBook(Book book) {
         return com.library.bookservice.grpc.Book.newBuilder()
                 .setId(book.getId().toString())
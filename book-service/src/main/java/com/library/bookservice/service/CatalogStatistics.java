@@ -0,0 +1,69 @@
+package com.library.bookservice.service;
+
+import com.library.bookservice.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory catalog counters so that statistics queries cost O(1).
+ * <p>
+ * Loaded from {@link BookRepository} once the application is ready, then kept current
+ * by borrow/return, which report when a book's last copy goes out or its first copy
+ * comes back. Updates made inside a transaction are applied only after it commits.
+ * <p>
+ * The counters only see writes made by this instance, so they are exact only while
+ * book-service runs as a single replica. With several replicas each one re-reads the
+ * database every {@code statistics.refresh-interval}, which bounds how long another
+ * replica's borrows and returns are missing from its counts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogStatistics {
+
+    private final BookRepository bookRepository;
+
+    private final AtomicLong totalBooks = new AtomicLong();
+    private final AtomicLong availableBooks = new AtomicLong();
+    private volatile List<String> genres = List.of();
+    private volatile boolean loaded;
+
+    public record Snapshot(long totalBooks, long availableBooks, List<String> genres) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${statistics.refresh-interval:PT1M}",
+            fixedDelayString = "${statistics.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        totalBooks.set(bookRepository.count());
+        availableBooks.set(bookRepository.countAvailableBooks());
+        genres = List.copyOf(bookRepository.findAllGenres());
+        loaded = true;
+        log.debug("Catalog statistics loaded: {} books, {} available, {} genres",
+                totalBooks.get(), availableBooks.get(), genres.size());
+    }
+
+    public Snapshot snapshot() {
+        if (!loaded) {
+            refresh();
+        }
+        return new Snapshot(totalBooks.get(), availableBooks.get(), genres);
+    }
+
+    /** A borrow took the last available copy of a book. */
+    public void bookBecameUnavailable() {
+        TransactionCallbacks.afterCommit(availableBooks::decrementAndGet);
+    }
+
+    /** A return made a previously unavailable book available again. */
+    public void bookBecameAvailable() {
+        TransactionCallbacks.afterCommit(availableBooks::incrementAndGet);
+    }
+}
@@ -0,0 +1,88 @@
+package com.library.bookservice.service;
+
+import com.library.bookservice.entity.Book;
+import com.library.bookservice.grpc.BookChange;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans book changes out to every open {@code WatchChanges} stream, for the gateway to
+ * invalidate its cached copies.
+ * <p>
+ * A new stream first receives an empty change confirming it is registered; every change
+ * committed after that follows. Changes are sent only once the surrounding transaction
+ * commits. A watcher that cannot keep up is failed rather than skipped, since a missed
+ * change would leave its cache stale; it resynchronises by reconnecting.
+ */
+@Component
+@Slf4j
+public class ChangeBroadcaster {
+
+    private final Set<ServerCallStreamObserver<BookChange>> watchers = ConcurrentHashMap.newKeySet();
+
+    public void watch(StreamObserver<BookChange> responseObserver) {
+        ServerCallStreamObserver<BookChange> call = (ServerCallStreamObserver<BookChange>) responseObserver;
+        call.setOnCancelHandler(() -> {
+            watchers.remove(call);
+            log.debug("Change watcher cancelled, {} remaining", watchers.size());
+        });
+        // Registered before confirming, so no commit can fall between the two
+        watchers.add(call);
+        synchronized (call) {
+            call.onNext(BookChange.getDefaultInstance());
+        }
+        log.info("Change watcher added, {} watching", watchers.size());
+    }
+
+    /** {@code book} changed; its ID is sent on commit. */
+    public void bookChanged(Book book) {
+        String bookId = book.getId().toString();
+        TransactionCallbacks.afterCommit(() -> {
+            BookChange change = BookChange.newBuilder()
+                    .setBookId(bookId)
+                    .setChangedAt(System.currentTimeMillis())
+                    .build();
+            watchers.forEach(watcher -> send(watcher, change));
+        });
+    }
+
+    @PreDestroy
+    public void completeAll() {
+        watchers.forEach(watcher -> {
+            synchronized (watcher) {
+                watcher.onCompleted();
+            }
+        });
+        watchers.clear();
+    }
+
+    private void send(ServerCallStreamObserver<BookChange> watcher, BookChange change) {
+        try {
+            // Commits on different threads may broadcast at once; a call accepts one message at a time
+            synchronized (watcher) {
+                if (watcher.isCancelled()) {
+                    return;
+                }
+                if (!watcher.isReady()) {
+                    watchers.remove(watcher);
+                    log.warn("Change watcher fell behind, failing its stream");
+                    watcher.onError(Status.RESOURCE_EXHAUSTED
+                            .withDescription("Change watcher fell behind; reconnect to resynchronise")
+                            .asRuntimeException());
+                    return;
+                }
+                watcher.onNext(change);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Dropping change watcher: {}", e.getMessage());
+            watchers.remove(watcher);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.library.bookservice.service;
+
+import com.library.bookservice.entity.Book;
+import com.library.bookservice.exception.InvalidBookDataException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BookCursorTest {
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        BookCursor cursor = BookCursor.of(Book.builder().id(42L).title("Dune").build());
+
+        assertThat(BookCursor.decode(cursor.encode())).isEqualTo(new BookCursor("Dune", 42L));
+    }
+
+    @Test
+    public void testTitleMayContainSeparatorAndNonAscii() {
+        BookCursor cursor = new BookCursor("Ender's Game: Book 1 – Übersetzung", 7L);
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).doesNotContain("+", "/", "=");
+        assertThat(BookCursor.decode(encoded)).isEqualTo(cursor);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "", "bm8tc2VwYXJhdG9y", "YWJjOkR1bmU"})
+    public void testMalformedCursorIsRejected(String cursor) {
+        assertThatThrownBy(() -> BookCursor.decode(cursor))
+                .isInstanceOf(InvalidBookDataException.class)
+                .hasMessageContaining("Invalid search cursor");
+    }
+
+    @Test
+    public void testNonNumericIdIsRejected() {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("12x:Dune".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> BookCursor.decode(cursor)).isInstanceOf(InvalidBookDataException.class);
+    }
+}
@@ -0,0 +1,128 @@
+package com.library.bookservice.service;
+
+import com.google.protobuf.FieldMask;
+import com.library.bookservice.entity.Book;
+import com.library.bookservice.grpc.BookResponse;
+import com.library.bookservice.grpc.SearchRequest;
+import com.library.bookservice.repository.BookRepository;
+import com.library.bookservice.repository.BorrowRecordRepository;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Offset and keyset paging of {@link BookServiceImpl#searchBooks} against the real
+ * queries, with and without a field mask.
+ */
+@DataJpaTest
+public class BookSearchPagingTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    private BookServiceImpl bookService;
+
+    /** IDs of the matching books in (title, id) order */
+    private List<String> ordered;
+
+    @BeforeEach
+    void setUp() {
+        bookService = new BookServiceImpl(bookRepository, borrowRecordRepository,
+                mock(CatalogStatistics.class), mock(AvailabilityBroadcaster.class), mock(ChangeBroadcaster.class));
+
+        // Pairs of equal titles, so the id tie-break decides the order within each pair
+        List<Book> books = IntStream.range(0, 12)
+                .mapToObj(i -> Book.builder()
+                        .title("Paging Title " + (char) ('A' + (11 - i) / 2))
+                        .author("Author " + i)
+                        .isbn("paging-" + i)
+                        .totalCopies(1)
+                        .availableCopies(1)
+                        .build())
+                .toList();
+        ordered = bookRepository.saveAll(books).stream()
+                .sorted(Comparator.comparing(Book::getTitle).thenComparing(Book::getId))
+                .map(book -> book.getId().toString())
+                .toList();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testOffsetNotOnPageBoundaryStartsAtThatRow(boolean masked) {
+        List<BookResponse> page = search(request(masked).setOffset(3).setLimit(4));
+
+        assertThat(ids(page)).containsExactlyElementsOf(ordered.subList(3, 7));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testCursorContinuesWhereOffsetPageEnded(boolean masked) {
+        List<BookResponse> first = search(request(masked).setOffset(3).setLimit(4));
+        String cursor = first.get(first.size() - 1).getCursor();
+
+        List<BookResponse> second = search(request(masked).setAfter(cursor).setLimit(4));
+        List<BookResponse> third = search(request(masked)
+                .setAfter(second.get(second.size() - 1).getCursor()).setLimit(4));
+
+        assertThat(ids(second)).containsExactlyElementsOf(ordered.subList(7, 11));
+        assertThat(ids(third)).containsExactlyElementsOf(ordered.subList(11, 12));
+    }
+
+    @Test
+    public void testMalformedCursorFailsTheSearch() {
+        List<BookResponse> responses = search(request(false).setAfter("not a cursor").setLimit(4));
+
+        assertThat(responses).singleElement().satisfies(response -> {
+            assertThat(response.getSuccess()).isFalse();
+            assertThat(response.getMessage()).contains("Invalid search cursor");
+        });
+    }
+
+    private static SearchRequest.Builder request(boolean masked) {
+        SearchRequest.Builder request = SearchRequest.newBuilder().setQuery("paging title").setSearchType("title");
+        if (masked) {
+            request.setFieldMask(FieldMask.newBuilder().addPaths("author"));
+        }
+        return request;
+    }
+
+    private List<BookResponse> search(SearchRequest.Builder request) {
+        List<BookResponse> responses = new ArrayList<>();
+        bookService.searchBooks(request.build(), new StreamObserver<>() {
+            @Override
+            public void onNext(BookResponse response) {
+                responses.add(response);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        return responses;
+    }
+
+    private static List<String> ids(List<BookResponse> responses) {
+        assertThat(responses).allMatch(BookResponse::getSuccess);
+        return responses.stream().map(response -> response.getBook().getId()).toList();
+    }
+}
@@ -0,0 +1,234 @@
+package com.library.bookservice.service;
+
+import com.library.bookservice.entity.Book;
+import com.library.bookservice.grpc.BorrowRequest;
+import com.library.bookservice.grpc.BorrowResponse;
+import com.library.bookservice.grpc.ReturnRequest;
+import com.library.bookservice.grpc.ReturnResponse;
+import com.library.bookservice.repository.BookRepository;
+import com.library.bookservice.repository.BorrowRecordRepository;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link CatalogStatistics} as kept current by borrow and return, with each call
+ * committing its own transaction as it does in production.
+ */
+@DataJpaTest
+@Import({BookServiceImpl.class, CatalogStatistics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CatalogStatisticsTest {
+
+    private static final String USER_ID = "reader-1";
+
+    @Autowired
+    private BookServiceImpl bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private CatalogStatistics catalogStatistics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private AvailabilityBroadcaster availabilityBroadcaster;
+
+    @MockBean
+    private ChangeBroadcaster changeBroadcaster;
+
+    @AfterEach
+    void tearDown() {
+        borrowRecordRepository.deleteAll();
+        bookRepository.deleteAll();
+        catalogStatistics.refresh();
+    }
+
+    @Test
+    public void testBorrowingLastCopyAndReturningItAreCounted() {
+        String single = save("Single copy", 1);
+        save("Two copies", 2);
+        assertThat(catalogStatistics.snapshot().availableBooks()).isEqualTo(2);
+
+        assertThat(borrow(single).getSuccess()).isTrue();
+        assertThat(catalogStatistics.snapshot().availableBooks()).isEqualTo(1);
+
+        assertThat(giveBack(single).getSuccess()).isTrue();
+        CatalogStatistics.Snapshot stats = catalogStatistics.snapshot();
+        assertThat(stats.availableBooks()).isEqualTo(2);
+        assertThat(stats.totalBooks()).isEqualTo(2);
+    }
+
+    @Test
+    public void testBorrowLeavingCopiesDoesNotChangeAvailableBooks() {
+        String twoCopies = save("Two copies", 2);
+        catalogStatistics.snapshot();
+
+        assertThat(borrow(twoCopies).getSuccess()).isTrue();
+
+        assertThat(catalogStatistics.snapshot().availableBooks()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRolledBackBorrowIsNotCounted() {
+        String single = save("Single copy", 1);
+        catalogStatistics.snapshot();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(borrow(single).getSuccess()).isTrue();
+            status.setRollbackOnly();
+        });
+
+        assertThat(bookRepository.countAvailableBooks()).isEqualTo(1);
+        assertThat(catalogStatistics.snapshot().availableBooks()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConcurrentBorrowsOfLastCopyLetOneThrough() throws InterruptedException {
+        String single = save("Single copy", 1);
+        catalogStatistics.snapshot();
+
+        AtomicInteger borrowed = new AtomicInteger();
+        concurrently(8, reader -> {
+            if (borrow(single, "reader-" + reader).getSuccess()) {
+                borrowed.incrementAndGet();
+            }
+        });
+
+        assertThat(borrowed).hasValue(1);
+        assertThat(bookRepository.findById(Long.valueOf(single)).orElseThrow().getAvailableCopies()).isZero();
+        assertThat(catalogStatistics.snapshot().availableBooks()).isZero().isEqualTo(bookRepository.countAvailableBooks());
+    }
+
+    @Test
+    public void testConcurrentReturnsOfOneBorrowCountOnce() throws InterruptedException {
+        String single = save("Single copy", 1);
+        assertThat(borrow(single).getSuccess()).isTrue();
+
+        AtomicInteger returned = new AtomicInteger();
+        concurrently(8, attempt -> {
+            if (giveBack(single).getSuccess()) {
+                returned.incrementAndGet();
+            }
+        });
+
+        assertThat(returned).hasValue(1);
+        assertThat(bookRepository.findById(Long.valueOf(single)).orElseThrow().getAvailableCopies()).isEqualTo(1);
+        assertThat(catalogStatistics.snapshot().availableBooks()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRefreshPicksUpWritesFromOtherReplicas() {
+        String single = save("Single copy", 1);
+        catalogStatistics.snapshot();
+
+        // Borrowed through another replica, so this instance's counters never heard of it
+        Book book = bookRepository.findById(Long.valueOf(single)).orElseThrow();
+        book.borrowBook();
+        bookRepository.save(book);
+        assertThat(catalogStatistics.snapshot().availableBooks()).isEqualTo(1);
+
+        catalogStatistics.refresh();
+
+        assertThat(catalogStatistics.snapshot().availableBooks()).isZero();
+    }
+
+    private String save(String title, int copies) {
+        return bookRepository.save(Book.builder()
+                .title(title)
+                .author("Author")
+                .isbn(title)
+                .genre("Fiction")
+                .totalCopies(copies)
+                .availableCopies(copies)
+                .build()).getId().toString();
+    }
+
+    /** Runs {@code task} for each index from as many threads at once */
+    private static void concurrently(int threads, Consumer<Integer> task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    task.accept(index);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private BorrowResponse borrow(String bookId) {
+        return borrow(bookId, USER_ID);
+    }
+
+    private BorrowResponse borrow(String bookId, String userId) {
+        Instant now = Instant.now();
+        return call(observer -> bookService.borrowBook(BorrowRequest.newBuilder()
+                .setBookId(bookId)
+                .setUserId(userId)
+                .setBorrowDate(now.getEpochSecond())
+                .setDueDate(now.plus(14, ChronoUnit.DAYS).getEpochSecond())
+                .build(), observer));
+    }
+
+    private ReturnResponse giveBack(String bookId) {
+        return call(observer -> bookService.returnBook(ReturnRequest.newBuilder()
+                .setBookId(bookId)
+                .setUserId(USER_ID)
+                .setReturnDate(Instant.now().getEpochSecond())
+                .build(), observer));
+    }
+
+    private static <T> T call(Consumer<StreamObserver<T>> call) {
+        AtomicReference<T> response = new AtomicReference<>();
+        call.accept(new StreamObserver<>() {
+            @Override
+            public void onNext(T value) {
+                response.set(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        return response.get();
+    }
+}
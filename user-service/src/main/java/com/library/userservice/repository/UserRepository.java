@@ -1,7 +1,11 @@
 package com.library.userservice.repository;
 
 import com.library.userservice.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,8 +20,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUsername(String username);
 
+    // Row lock held until commit, so concurrent status changes see each other's result
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+
     List<User> findByStatus(User.UserStatus status);
 
+    // Slices skip the COUNT query; totals come from UserStatistics
+    Slice<User> findByStatus(User.UserStatus status, Pageable pageable);
+
+    Slice<User> findAllBy(Pageable pageable);
+
     List<User> findByMembershipType(User.MembershipType membershipType);
 
     @Query("SELECT u FROM User u WHERE u.status = 'ACTIVE'")
@@ -44,6 +58,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT COUNT(u) FROM User u WHERE u.status = 'ACTIVE'")
     long countActiveUsers();
 
+    long countByStatus(User.UserStatus status);
+
     @Query("SELECT COUNT(u) FROM User u WHERE u.membershipType = :membershipType")
     long countUsersByMembershipType(@Param("membershipType") User.MembershipType membershipType);
 
@@ -0,0 +1,87 @@
+package com.library.userservice.service;
+
+import com.library.userservice.entity.User;
+import com.library.userservice.grpc.UserChange;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends the ID of each committed user registration or status change to the open
+ * {@code WatchChanges} streams, which the gateway uses to drop its cached copy of that user.
+ * <p>
+ * Follows the same stream contract as book-service: an empty first change confirms the
+ * registration, and a watcher that falls behind is failed so that it reconnects and clears
+ * its cache instead of missing a change.
+ */
+@Component
+@Slf4j
+public class ChangeBroadcaster {
+
+    private final Set<ServerCallStreamObserver<UserChange>> watchers = ConcurrentHashMap.newKeySet();
+
+    public void watch(StreamObserver<UserChange> responseObserver) {
+        ServerCallStreamObserver<UserChange> call = (ServerCallStreamObserver<UserChange>) responseObserver;
+        call.setOnCancelHandler(() -> {
+            watchers.remove(call);
+            log.debug("Change watcher cancelled, {} remaining", watchers.size());
+        });
+        // Registered before confirming, so no commit can fall between the two
+        watchers.add(call);
+        synchronized (call) {
+            call.onNext(UserChange.getDefaultInstance());
+        }
+        log.info("Change watcher added, {} watching", watchers.size());
+    }
+
+    /** {@code user} was registered or changed; its ID is sent on commit. */
+    public void userChanged(User user) {
+        String userId = user.getId().toString();
+        TransactionCallbacks.afterCommit(() -> {
+            UserChange change = UserChange.newBuilder()
+                    .setUserId(userId)
+                    .setChangedAt(System.currentTimeMillis())
+                    .build();
+            watchers.forEach(watcher -> send(watcher, change));
+        });
+    }
+
+    @PreDestroy
+    public void completeAll() {
+        watchers.forEach(watcher -> {
+            synchronized (watcher) {
+                watcher.onCompleted();
+            }
+        });
+        watchers.clear();
+    }
+
+    private void send(ServerCallStreamObserver<UserChange> watcher, UserChange change) {
+        try {
+            // Commits on different threads may broadcast at once; a call accepts one message at a time
+            synchronized (watcher) {
+                if (watcher.isCancelled()) {
+                    return;
+                }
+                if (!watcher.isReady()) {
+                    watchers.remove(watcher);
+                    log.warn("Change watcher fell behind, failing its stream");
+                    watcher.onError(Status.RESOURCE_EXHAUSTED
+                            .withDescription("Change watcher fell behind; reconnect to resynchronise")
+                            .asRuntimeException());
+                    return;
+                }
+                watcher.onNext(change);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Dropping change watcher: {}", e.getMessage());
+            watchers.remove(watcher);
+        }
+    }
+}
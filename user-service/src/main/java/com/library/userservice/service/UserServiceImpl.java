@@ -2,11 +2,15 @@ package com.library.userservice.service;
 
 import com.library.userservice.entity.User;
 import com.library.userservice.grpc.*;
+import com.library.userservice.repository.OffsetPageRequest;
 import com.library.userservice.repository.UserRepository;
 import io.grpc.stub.StreamObserver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -21,6 +25,8 @@ import java.util.Optional;
 public class UserServiceImpl extends UserServiceGrpc.UserServiceImplBase {
 
     private final UserRepository userRepository;
+    private final UserStatistics userStatistics;
+    private final ChangeBroadcaster changeBroadcaster;
 
     @Override
     @Transactional
@@ -68,6 +74,8 @@ public class UserServiceImpl extends UserServiceGrpc.UserServiceImplBase {
                         .build();
 
                 User savedUser = userRepository.save(user);
+                userStatistics.userRegistered(savedUser.getStatus(), savedUser.getMembershipType());
+                changeBroadcaster.userChanged(savedUser);
 
                 responseBuilder.setSuccess(true)
                              .setMessage("User registered successfully")
@@ -130,6 +138,178 @@ public class UserServiceImpl extends UserServiceGrpc.UserServiceImplBase {
         }
     }
 
+    @Override
+    public void getUsers(GetUsersRequest request, StreamObserver<GetUsersResponse> responseObserver) {
+        log.info("Received GetUsers request for {} users", request.getUserIdsCount());
+
+        try {
+            // Skip malformed IDs so one bad key does not fail the whole batch
+            List<Long> userIds = new ArrayList<>(request.getUserIdsCount());
+            for (String userId : request.getUserIdsList()) {
+                try {
+                    userIds.add(Long.parseLong(userId));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring invalid user ID in batch: {}", userId);
+                }
+            }
+
+            GetUsersResponse.Builder responseBuilder = GetUsersResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("Users retrieved successfully");
+
+            if (!userIds.isEmpty()) {
+                userRepository.findAllById(userIds).forEach(user ->
+                        responseBuilder.addUsers(mapToProtoUser(user)));
+            }
+
+            responseObserver.onNext(responseBuilder.build());
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            log.error("Error retrieving users", e);
+            GetUsersResponse response = GetUsersResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("Internal server error")
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    public void getUserStats(GetUserStatsRequest request, StreamObserver<GetUserStatsResponse> responseObserver) {
+        log.info("Received GetUserStats request");
+
+        try {
+            UserStatistics.Snapshot stats = userStatistics.snapshot();
+
+            GetUserStatsResponse.Builder responseBuilder = GetUserStatsResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("User statistics retrieved successfully")
+                    .setTotalUsers(stats.totalUsers())
+                    .setActiveUsers(stats.activeUsers());
+            stats.usersByStatus().forEach((status, count) ->
+                    responseBuilder.putUsersByStatus(status.name(), count));
+            stats.usersByMembershipType().forEach((membershipType, count) ->
+                    responseBuilder.putUsersByMembershipType(membershipType.name(), count));
+
+            responseObserver.onNext(responseBuilder.build());
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            log.error("Error retrieving user statistics", e);
+            GetUserStatsResponse response = GetUserStatsResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("Internal server error")
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    public void listUsers(ListUsersRequest request, StreamObserver<ListUsersResponse> responseObserver) {
+        log.info("Received ListUsers request - Limit: {}, Offset: {}, Status: {}",
+                request.getLimit(), request.getOffset(), request.getStatusFilter());
+
+        try {
+            int limit = request.getLimit() > 0 ? Math.min(request.getLimit(), 100) : 20;
+            int offset = Math.max(0, request.getOffset());
+            Pageable pageable = new OffsetPageRequest(offset, limit, Sort.by("id"));
+
+            Slice<User> users;
+            long totalCount;
+            String statusFilter = request.getStatusFilter();
+            if (statusFilter.isEmpty() || statusFilter.equalsIgnoreCase("ALL")) {
+                users = userRepository.findAllBy(pageable);
+                totalCount = userStatistics.snapshot().totalUsers();
+            } else {
+                User.UserStatus status = User.UserStatus.valueOf(statusFilter.toUpperCase());
+                users = userRepository.findByStatus(status, pageable);
+                totalCount = userStatistics.countByStatus(status);
+            }
+
+            ListUsersResponse.Builder responseBuilder = ListUsersResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("Users retrieved successfully")
+                    .setTotalCount(totalCount);
+            users.forEach(user -> responseBuilder.addUsers(mapToProtoUser(user)));
+
+            responseObserver.onNext(responseBuilder.build());
+            responseObserver.onCompleted();
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid status filter: {}", request.getStatusFilter());
+            ListUsersResponse response = ListUsersResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("Invalid status filter: " + request.getStatusFilter())
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("Error listing users", e);
+            ListUsersResponse response = ListUsersResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("Internal server error")
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    @Transactional
+    public void updateUserStatus(UpdateUserStatusRequest request, StreamObserver<UserResponse> responseObserver) {
+        log.info("Received UpdateUserStatus request for userId: {} to {}", request.getUserId(), request.getStatus());
+
+        try {
+            Long userId = Long.parseLong(request.getUserId());
+            User.UserStatus status = User.UserStatus.valueOf(request.getStatus().toUpperCase());
+            // Locked so that previousStatus cannot be changed by a concurrent update before
+            // this one commits, which would apply the same statistics delta twice
+            Optional<User> userOpt = userRepository.findByIdForUpdate(userId);
+
+            UserResponse.Builder responseBuilder = UserResponse.newBuilder();
+
+            if (userOpt.isEmpty()) {
+                responseBuilder.setSuccess(false)
+                             .setMessage("User not found with id: " + request.getUserId());
+            } else {
+                User user = userOpt.get();
+                User.UserStatus previousStatus = user.getStatus();
+                user.setStatus(status);
+                User savedUser = userRepository.save(user);
+                userStatistics.statusChanged(previousStatus, status);
+                changeBroadcaster.userChanged(savedUser);
+
+                responseBuilder.setSuccess(true)
+                             .setMessage("User status updated to " + status)
+                             .setUser(mapToProtoUser(savedUser));
+            }
+
+            responseObserver.onNext(responseBuilder.build());
+            responseObserver.onCompleted();
+
+        } catch (IllegalArgumentException e) {
+            // Covers both a malformed ID and an unknown status
+            log.error("Invalid UpdateUserStatus request: {}", e.getMessage());
+            UserResponse response = UserResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("Invalid user ID or status")
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("Error updating user status", e);
+            UserResponse response = UserResponse.newBuilder()
+                    .setSuccess(false)
+                    .setMessage("Internal server error")
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }
+    }
+
     @Override
     public void getBorrowHistory(BorrowHistoryRequest request, StreamObserver<BorrowHistoryResponse> responseObserver) {
         log.info("Received GetBorrowHistory request for userId: {}", request.getUserId());
@@ -171,6 +351,13 @@ public class UserServiceImpl extends UserServiceGrpc.UserServiceImplBase {
         }
     }
 
+    @Override
+    public void watchChanges(WatchChangesRequest request, StreamObserver<UserChange> responseObserver) {
+        log.info("Received WatchChanges request");
+        // The stream stays open until the client cancels it or the service shuts down
+        changeBroadcaster.watch(responseObserver);
+    }
+
     private com.library.userservice.grpc.User mapToProtoUser(User user) {
         return com.library.userservice.grpc.User.newBuilder()
                 .setId(user.getId().toString())
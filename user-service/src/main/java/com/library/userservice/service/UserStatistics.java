@@ -0,0 +1,103 @@
+package com.library.userservice.service;
+
+import com.library.userservice.entity.User;
+import com.library.userservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory user counters so that dashboard statistics cost O(1).
+ * <p>
+ * Loaded from {@link UserRepository} once the application is ready, then kept current
+ * by register and status changes. Updates made inside a transaction are applied only
+ * after it commits.
+ * <p>
+ * Only this instance's writes are counted, so the figures are exact only with a single
+ * user-service replica. Otherwise they are reloaded every {@code statistics.refresh-interval}
+ * so that registrations and status changes made on other replicas catch up.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserStatistics {
+
+    private final UserRepository userRepository;
+
+    private final Map<User.UserStatus, AtomicLong> usersByStatus = counters(User.UserStatus.class);
+    private final Map<User.MembershipType, AtomicLong> usersByMembershipType = counters(User.MembershipType.class);
+    private volatile boolean loaded;
+
+    public record Snapshot(long totalUsers,
+                           Map<User.UserStatus, Long> usersByStatus,
+                           Map<User.MembershipType, Long> usersByMembershipType) {
+
+        public long activeUsers() {
+            return usersByStatus.getOrDefault(User.UserStatus.ACTIVE, 0L);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${statistics.refresh-interval:PT1M}",
+            fixedDelayString = "${statistics.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        usersByStatus.forEach((status, count) -> count.set(userRepository.countByStatus(status)));
+        usersByMembershipType.forEach((membershipType, count) ->
+                count.set(userRepository.countUsersByMembershipType(membershipType)));
+        loaded = true;
+        log.debug("User statistics loaded: {}", snapshot());
+    }
+
+    public Snapshot snapshot() {
+        if (!loaded) {
+            refresh();
+        }
+        Map<User.UserStatus, Long> byStatus = new EnumMap<>(User.UserStatus.class);
+        usersByStatus.forEach((status, count) -> byStatus.put(status, count.get()));
+        Map<User.MembershipType, Long> byMembershipType = new EnumMap<>(User.MembershipType.class);
+        usersByMembershipType.forEach((membershipType, count) -> byMembershipType.put(membershipType, count.get()));
+
+        long totalUsers = byStatus.values().stream().mapToLong(Long::longValue).sum();
+        return new Snapshot(totalUsers, byStatus, byMembershipType);
+    }
+
+    /** The total for one status, as used for paged listings. */
+    public long countByStatus(User.UserStatus status) {
+        if (!loaded) {
+            refresh();
+        }
+        return usersByStatus.get(status).get();
+    }
+
+    public void userRegistered(User.UserStatus status, User.MembershipType membershipType) {
+        TransactionCallbacks.afterCommit(() -> {
+            usersByStatus.get(status).incrementAndGet();
+            usersByMembershipType.get(membershipType).incrementAndGet();
+        });
+    }
+
+    public void statusChanged(User.UserStatus from, User.UserStatus to) {
+        if (from == to) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            usersByStatus.get(from).decrementAndGet();
+            usersByStatus.get(to).incrementAndGet();
+        });
+    }
+
+    private static <E extends Enum<E>> Map<E, AtomicLong> counters(Class<E> type) {
+        Map<E, AtomicLong> counters = new EnumMap<>(type);
+        for (E constant : type.getEnumConstants()) {
+            counters.put(constant, new AtomicLong());
+        }
+        return counters;
+    }
+}
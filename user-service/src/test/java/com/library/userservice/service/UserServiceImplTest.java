@@ -0,0 +1,210 @@
+package com.library.userservice.service;
+
+import com.library.userservice.entity.User;
+import com.library.userservice.grpc.ListUsersRequest;
+import com.library.userservice.grpc.ListUsersResponse;
+import com.library.userservice.grpc.RegisterRequest;
+import com.library.userservice.grpc.UpdateUserStatusRequest;
+import com.library.userservice.grpc.UserResponse;
+import com.library.userservice.repository.UserRepository;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link UserServiceImpl} against the real repository, with each call committing its own
+ * transaction as it does in production.
+ */
+@DataJpaTest
+@Import({UserServiceImpl.class, UserStatistics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserServiceImplTest {
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStatistics userStatistics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private ChangeBroadcaster changeBroadcaster;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        userStatistics.refresh();
+    }
+
+    @Test
+    public void testRegisterAndStatusChangesAreCounted() {
+        userStatistics.snapshot();
+        String userId = register("counted").getUser().getId();
+        register("other");
+
+        updateStatus(userId, User.UserStatus.SUSPENDED);
+
+        UserStatistics.Snapshot stats = userStatistics.snapshot();
+        assertThat(stats.totalUsers()).isEqualTo(2);
+        assertThat(stats.activeUsers()).isEqualTo(1);
+        assertThat(stats.usersByStatus()).containsEntry(User.UserStatus.SUSPENDED, 1L);
+        assertThat(stats.usersByMembershipType()).containsEntry(User.MembershipType.BASIC, 2L);
+
+        // Setting the same status again changes nothing
+        updateStatus(userId, User.UserStatus.SUSPENDED);
+        assertThat(userStatistics.countByStatus(User.UserStatus.SUSPENDED)).isEqualTo(1);
+    }
+
+    @Test
+    public void testRolledBackChangesAreNotCounted() {
+        String userId = register("kept").getUser().getId();
+        userStatistics.snapshot();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            assertThat(register("discarded").getSuccess()).isTrue();
+            assertThat(updateStatus(userId, User.UserStatus.INACTIVE).getSuccess()).isTrue();
+            status.setRollbackOnly();
+        });
+
+        assertThat(userRepository.count()).isEqualTo(1);
+        assertThat(userStatistics.snapshot().totalUsers()).isEqualTo(1);
+        assertThat(userStatistics.countByStatus(User.UserStatus.ACTIVE)).isEqualTo(1);
+        assertThat(userStatistics.countByStatus(User.UserStatus.INACTIVE)).isZero();
+    }
+
+    @Test
+    public void testRefreshPicksUpWritesFromOtherReplicas() {
+        register("local");
+        userStatistics.snapshot();
+
+        // Written by another replica, so this instance's counters never heard of it
+        userRepository.save(User.builder()
+                .username("remote")
+                .email("remote@library.test")
+                .firstName("Grace")
+                .lastName("Hopper")
+                .registrationDate(LocalDateTime.now())
+                .status(User.UserStatus.ACTIVE)
+                .membershipType(User.MembershipType.PREMIUM)
+                .maxBooksAllowed(10)
+                .currentBorrowedBooks(0)
+                .build());
+        assertThat(userStatistics.snapshot().totalUsers()).isEqualTo(1);
+
+        userStatistics.refresh();
+
+        assertThat(userStatistics.snapshot().totalUsers()).isEqualTo(2);
+        assertThat(userStatistics.snapshot().usersByMembershipType()).containsEntry(User.MembershipType.PREMIUM, 1L);
+    }
+
+    @Test
+    public void testListUsersStartsAtOffset() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(register("reader" + i).getUser().getId());
+        }
+
+        ListUsersResponse response = call(observer -> userService.listUsers(ListUsersRequest.newBuilder()
+                .setOffset(3)
+                .setLimit(2)
+                .build(), observer));
+
+        assertThat(response.getUsersList()).extracting(com.library.userservice.grpc.User::getId)
+                .containsExactlyElementsOf(ids.subList(3, 5));
+        assertThat(response.getTotalCount()).isEqualTo(5);
+    }
+
+    @Test
+    public void testConcurrentStatusUpdatesKeepCountsExact() throws InterruptedException {
+        String userId = register("contended").getUser().getId();
+        userStatistics.snapshot();
+
+        User.UserStatus[] statuses = User.UserStatus.values();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 40; i++) {
+            User.UserStatus status = statuses[i % statuses.length];
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    updateStatus(userId, status);
+                } catch (Exception e) {
+                    // A lock timeout rolls its update back; the counters must still agree
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        for (User.UserStatus status : statuses) {
+            assertThat(userStatistics.countByStatus(status))
+                    .as("%s users", status)
+                    .isEqualTo(userRepository.countByStatus(status));
+        }
+        assertThat(userStatistics.snapshot().totalUsers()).isEqualTo(1);
+    }
+
+    private UserResponse register(String username) {
+        return call(observer -> userService.registerUser(RegisterRequest.newBuilder()
+                .setUsername(username)
+                .setEmail(username + "@library.test")
+                .setFirstName("Ada")
+                .setLastName("Lovelace")
+                .setMembershipType("BASIC")
+                .build(), observer));
+    }
+
+    private UserResponse updateStatus(String userId, User.UserStatus status) {
+        return call(observer -> userService.updateUserStatus(UpdateUserStatusRequest.newBuilder()
+                .setUserId(userId)
+                .setStatus(status.name())
+                .build(), observer));
+    }
+
+    private static <T> T call(Consumer<StreamObserver<T>> call) {
+        AtomicReference<T> response = new AtomicReference<>();
+        call.accept(new StreamObserver<>() {
+            @Override
+            public void onNext(T value) {
+                response.set(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        return response.get();
+    }
+}